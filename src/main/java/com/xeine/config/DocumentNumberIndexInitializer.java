@@ -0,0 +1,49 @@
+package com.xeine.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Invoice and quotation numbers used to be unique across all companies. Now that every company has its own
+ * series, two companies can both have INV/26-27/00001, so the old single-column unique indexes are dropped in
+ * favour of the (company_id, number) constraints declared on the entities. Schema update does not drop indexes
+ * by itself. The ALTER only runs while such an index still exists, so it is a one-off on each database; startup
+ * fails if it cannot run, rather than leaving companies unable to reuse each other's numbers.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class DocumentNumberIndexInitializer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void dropGlobalNumberIndexes() {
+        try {
+            dropSingleColumnUniqueIndexes("invoice", "invoice_number");
+            dropSingleColumnUniqueIndexes("quotation", "quotation_number");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not drop global document number indexes", e);
+        }
+    }
+
+    private void dropSingleColumnUniqueIndexes(String table, String column) {
+        List<String> indexNames = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = ? AND non_unique = 0 AND index_name <> 'PRIMARY' " +
+                        "GROUP BY index_name HAVING COUNT(*) = 1 AND MAX(column_name) = ?",
+                String.class, table, column);
+        for (String indexName : indexNames) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP INDEX `" + indexName.replace("`", "``") + "`");
+            log.info("Dropped global unique index {} on {}.{}", indexName, table, column);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.xeine.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the rows of the pooled table ID generators ahead of the existing keys. Invoice and invoice item IDs came
+ * from IDENTITY columns before, so a generator row must start above the table's current maximum. The pooled
+ * optimizer hands out (next_val - allocationSize, next_val], which is why the allocation size is added on top.
+ * Startup fails if the rows cannot be seeded.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class IdGeneratorInitializer {
+
+    public static final String TABLE = "id_generators";
+    public static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void seedGenerators() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE
+                    + " (sequence_name VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+            seed("invoice", "invoice", "invoice_id");
+            seed("invoice_item", "invoice_item", "id");
+        } catch (DataAccessException e) {
+            // Unseeded rows would start at the generator's initial value and collide with the IDENTITY keys,
+            // failing every insert, so refuse to start instead
+            throw new IllegalStateException("Could not seed ID generator rows in " + TABLE, e);
+        }
+    }
+
+    private void seed(String sequenceName, String table, String idColumn) {
+        String floor = "(SELECT COALESCE(MAX(" + idColumn + "), 0) + " + ALLOCATION_SIZE + " FROM " + table + ")";
+        String raise = "UPDATE " + TABLE + " SET next_val = GREATEST(next_val, " + floor + ") WHERE sequence_name = ?";
+        if (jdbcTemplate.update(raise, sequenceName) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (sequence_name, next_val) SELECT ?, "
+                    + floor.substring(1, floor.length() - 1), sequenceName);
+            log.info("Seeded ID generator {} above existing {} keys", sequenceName, table);
+        } catch (DuplicateKeyException e) {
+            // Another node inserted the row first
+            jdbcTemplate.update(raise, sequenceName);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.xeine.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching and batch fetching defaults for Hibernate; batched inserts are used by bulk invoice import.
+ * Explicit spring.jpa.properties values win.
+ * With MySQL, add rewriteBatchedStatements=true to the JDBC URL so a batch becomes one multi-row INSERT.
+ */
+@Configuration
+public class JpaBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            // Lazy associations touched in a loop load in batches instead of one query per owner
+            properties.putIfAbsent(AvailableSettings.DEFAULT_BATCH_FETCH_SIZE, "50");
+        };
+    }
+}
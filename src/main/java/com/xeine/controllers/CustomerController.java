@@ -1,6 +1,7 @@
 package com.xeine.controllers;
 
 import com.xeine.dto.request.CustomerRequestDTO;
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.CustomerResponseDTO;
 import com.xeine.services.CustomerService;
 import com.xeine.utils.responsehandler.ApiResponse;
@@ -37,13 +38,17 @@ public class CustomerController {
     }
 
     /**
-     * Get customers by company ID
+     * Get customers by company ID, newest first, one page at a time (pass nextCursor as cursor for the next page)
      */
 
     @GetMapping("/by-company/{companyId}")
-    public ResponseEntity<ApiResponse<List<CustomerResponseDTO>>> getCustomersByCompany(@PathVariable Long companyId) {
-        List<CustomerResponseDTO> customers = customerService.getCustomersByCompany(companyId);
-        ApiResponse<List<CustomerResponseDTO>> response = new ApiResponse<>(
+    public ResponseEntity<ApiResponse<CursorPageDTO<CustomerResponseDTO>>> getCustomersByCompany(
+            @PathVariable Long companyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPageDTO<CustomerResponseDTO> customers = customerService.getCustomersByCompany(companyId, cursor, size, includeTotal);
+        ApiResponse<CursorPageDTO<CustomerResponseDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Customers for company " + companyId + " fetched successfully",
@@ -1,18 +1,23 @@
 package com.xeine.controllers;
 
 import com.xeine.dto.request.DeliveryChallanCreateRequest;
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.DeliveryChallanResponseDTO;
 import com.xeine.models.DeliveryChallan;
 import com.xeine.services.DeliveryChallanService;
+import com.xeine.services.DocumentPdfService;
 import com.xeine.utils.responsehandler.ApiResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,6 +30,9 @@ public class DeliveryChallanController {
     @Autowired
     private DeliveryChallanService deliveryChallanService;
 
+    @Autowired
+    private DocumentPdfService documentPdfService;
+
     /**
      * Create delivery challan from invoice
      */
@@ -73,6 +81,20 @@ public class DeliveryChallanController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get delivery challan as a printable PDF
+     */
+    @GetMapping("/{challanId}/pdf")
+    public ResponseEntity<StreamingResponseBody> getDeliveryChallanPdf(
+            @PathVariable @Min(1) Long challanId) {
+
+        DocumentPdfService.PdfDocument document = documentPdfService.loadDeliveryChallan(challanId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + document.fileName() + "\"")
+                .body(out -> documentPdfService.write(document, out));
+    }
+
     /**
      * Get delivery challan by invoice ID
      */
@@ -95,12 +117,16 @@ public class DeliveryChallanController {
      * Get all delivery challans for a company
      */
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<ApiResponse<List<DeliveryChallanResponseDTO>>> getDeliveryChallansByCompany(
-            @PathVariable @Min(1) Long companyId) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<DeliveryChallanResponseDTO>>> getDeliveryChallansByCompany(
+            @PathVariable @Min(1) Long companyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
-        List<DeliveryChallanResponseDTO> challans = deliveryChallanService.getDeliveryChallansByCompany(companyId);
+        CursorPageDTO<DeliveryChallanResponseDTO> challans =
+                deliveryChallanService.getDeliveryChallansByCompany(companyId, cursor, size, includeTotal);
 
-        ApiResponse<List<DeliveryChallanResponseDTO>> response = new ApiResponse<>(
+        ApiResponse<CursorPageDTO<DeliveryChallanResponseDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Delivery challans retrieved successfully",
@@ -175,16 +201,19 @@ public class DeliveryChallanController {
      * Get delivery challans by date range
      */
     @GetMapping("/company/{companyId}/date-range")
-    public ResponseEntity<ApiResponse<List<DeliveryChallanResponseDTO>>> getDeliveryChallansByDateRange(
+    public ResponseEntity<ApiResponse<CursorPageDTO<DeliveryChallanResponseDTO>>> getDeliveryChallansByDateRange(
             @PathVariable @Min(1) Long companyId,
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
 
         // This method would need to be implemented in the service
         // For now, returning company challans
-        List<DeliveryChallanResponseDTO> challans = deliveryChallanService.getDeliveryChallansByCompany(companyId);
+        CursorPageDTO<DeliveryChallanResponseDTO> challans =
+                deliveryChallanService.getDeliveryChallansByCompany(companyId, cursor, size, false);
 
-        ApiResponse<List<DeliveryChallanResponseDTO>> response = new ApiResponse<>(
+        ApiResponse<CursorPageDTO<DeliveryChallanResponseDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Delivery challans retrieved successfully",
@@ -200,11 +229,11 @@ public class DeliveryChallanController {
     public ResponseEntity<ApiResponse<Object>> getDeliveryChallanStats(
             @PathVariable @Min(1) Long companyId) {
 
-        List<DeliveryChallanResponseDTO> challans = deliveryChallanService.getDeliveryChallansByCompany(companyId);
+        long challanCount = deliveryChallanService.countDeliveryChallansByCompany(companyId);
 
         // Create simple stats
         Object stats = new Object() {
-            public final long totalChallans = challans.size();
+            public final long totalChallans = challanCount;
             public final long todayDeliveries = deliveryChallanService.getTodayDeliveries().size();
         };
 
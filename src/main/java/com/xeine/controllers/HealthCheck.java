@@ -1,15 +1,38 @@
 package com.xeine.controllers;
 
 
+import com.xeine.dto.response.RetryStatsDTO;
+import com.xeine.services.OptimisticRetryService;
+import com.xeine.utils.responsehandler.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 public class HealthCheck {
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @GetMapping("/health-check")
     public String healthCheck() {
         return "server is running";
     }
 
+    // Retry counts per operation, to see where concurrent writes contend
+    @GetMapping("/health-check/retries")
+    public ResponseEntity<ApiResponse<List<RetryStatsDTO>>> retryStats() {
+        ApiResponse<List<RetryStatsDTO>> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Retry statistics fetched successfully",
+                optimisticRetryService.getStats()
+        );
+        return ResponseEntity.ok(response);
+    }
+
  }
@@ -1,19 +1,33 @@
 package com.xeine.controllers;
 
+import com.xeine.dto.request.BulkInvoicePdfRequest;
 import com.xeine.dto.request.ConvertQuotationToInvoiceRequest;
 import com.xeine.dto.request.InvoiceCreateRequest;
+import com.xeine.dto.response.CursorPageDTO;
+import com.xeine.dto.response.InvoiceImportResultDTO;
+import com.xeine.dto.response.InvoiceListItemDTO;
 import com.xeine.dto.response.InvoiceResponseDTO;
+import com.xeine.dto.response.SearchPageDTO;
+import com.xeine.exception.BusinessValidationException;
 import com.xeine.exception.InsufficientInventoryException;
 import com.xeine.models.Product;
+import com.xeine.services.DocumentPdfService;
+import com.xeine.services.DocumentSearchService;
+import com.xeine.services.InvoiceImportService;
 import com.xeine.services.InvoiceService;
 import com.xeine.utils.responsehandler.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +40,15 @@ public class InvoiceController {
     @Autowired
     private InvoiceService invoiceService;
 
+    @Autowired
+    private InvoiceImportService invoiceImportService;
+
+    @Autowired
+    private DocumentPdfService documentPdfService;
+
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<InvoiceResponseDTO>> createInvoiceDirectly(
             @Valid @RequestBody InvoiceCreateRequest request) {
@@ -144,21 +167,38 @@ public class InvoiceController {
         }
     }
 
+    /**
+     * Invoices of a company, newest first, one page at a time. Pass the returned nextCursor as cursor for the
+     * next page; includeTotal=true adds the total count. status (e.g. OVERDUE) filters on the stored status.
+     */
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<ApiResponse<List<InvoiceResponseDTO>>> getAllInvoicesByCompany(
-            @PathVariable Long companyId) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<InvoiceListItemDTO>>> getAllInvoicesByCompany(
+            @PathVariable Long companyId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         try {
-            List<InvoiceResponseDTO> invoices = invoiceService.getAllInvoicesByCompany(companyId);
-            ApiResponse<List<InvoiceResponseDTO>> response = new ApiResponse<>(
+            CursorPageDTO<InvoiceListItemDTO> invoices =
+                    invoiceService.getAllInvoicesByCompany(companyId, status, cursor, size, includeTotal);
+            ApiResponse<CursorPageDTO<InvoiceListItemDTO>> response = new ApiResponse<>(
                     true,
                     HttpStatus.OK.value(),
                     "Invoices retrieved successfully",
                     invoices
             );
             return ResponseEntity.ok(response);
+        } catch (BusinessValidationException e) {
+            ApiResponse<CursorPageDTO<InvoiceListItemDTO>> response = new ApiResponse<>(
+                    false,
+                    HttpStatus.BAD_REQUEST.value(),
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             log.error("Error retrieving invoices for company {}: {}", companyId, e.getMessage());
-            ApiResponse<List<InvoiceResponseDTO>> response = new ApiResponse<>(
+            ApiResponse<CursorPageDTO<InvoiceListItemDTO>> response = new ApiResponse<>(
                     false,
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
                     "Failed to retrieve invoices: " + e.getMessage(),
@@ -168,6 +208,44 @@ public class InvoiceController {
         }
     }
 
+    /**
+     * Search a company's invoices by number, customer name or notes; every word must match, best match first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<SearchPageDTO<InvoiceListItemDTO>>> searchInvoices(
+            @RequestParam Long companyId,
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            SearchPageDTO<InvoiceListItemDTO> invoices = documentSearchService.searchInvoices(companyId, q, page, size);
+            ApiResponse<SearchPageDTO<InvoiceListItemDTO>> response = new ApiResponse<>(
+                    true,
+                    HttpStatus.OK.value(),
+                    "Invoices retrieved successfully",
+                    invoices
+            );
+            return ResponseEntity.ok(response);
+        } catch (BusinessValidationException e) {
+            ApiResponse<SearchPageDTO<InvoiceListItemDTO>> response = new ApiResponse<>(
+                    false,
+                    HttpStatus.BAD_REQUEST.value(),
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error searching invoices for company {}: {}", companyId, e.getMessage());
+            ApiResponse<SearchPageDTO<InvoiceListItemDTO>> response = new ApiResponse<>(
+                    false,
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    "Failed to search invoices: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     @GetMapping("/quotation/{quotationId}")
     public ResponseEntity<ApiResponse<InvoiceResponseDTO>> getInvoiceByQuotation(
             @PathVariable Long quotationId,
@@ -193,6 +271,52 @@ public class InvoiceController {
         }
     }
 
+    @GetMapping("/{invoiceId}/pdf")
+    public ResponseEntity<StreamingResponseBody> getInvoicePdf(
+            @PathVariable Long invoiceId,
+            @RequestParam Long companyId) {
+        DocumentPdfService.PdfDocument document = documentPdfService.loadInvoice(invoiceId, companyId);
+        return pdfResponse(document.fileName(), "inline", out -> documentPdfService.write(document, out));
+    }
 
+    /**
+     * Many invoices merged into one PDF, e.g. for month-end printing
+     */
+    @PostMapping("/pdf")
+    public ResponseEntity<StreamingResponseBody> getInvoicesPdf(@Valid @RequestBody BulkInvoicePdfRequest request) {
+        List<Long> invoiceIds = documentPdfService.requireInvoices(request.getCompanyId(), request.getInvoiceIds());
+        return pdfResponse("invoices.pdf", "attachment",
+                out -> documentPdfService.writeInvoices(request.getCompanyId(), invoiceIds, out));
+    }
 
-}
\ No newline at end of file
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<InvoiceImportResultDTO>> importInvoicesJson(
+            @RequestParam Long companyId,
+            InputStream body) throws IOException {
+        return importResponse(invoiceImportService.importJson(companyId, body));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ApiResponse<InvoiceImportResultDTO>> importInvoicesCsv(
+            @RequestParam Long companyId,
+            InputStream body) throws IOException {
+        return importResponse(invoiceImportService.importCsv(companyId, body));
+    }
+
+    private ResponseEntity<StreamingResponseBody> pdfResponse(String fileName, String disposition, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition + "; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private ResponseEntity<ApiResponse<InvoiceImportResultDTO>> importResponse(InvoiceImportResultDTO result) {
+        ApiResponse<InvoiceImportResultDTO> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                String.format("Imported %d of %d invoices", result.getImportedCount(), result.getTotalRows()),
+                result
+        );
+        return ResponseEntity.ok(response);
+    }
+}
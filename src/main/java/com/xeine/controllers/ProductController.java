@@ -2,6 +2,7 @@ package com.xeine.controllers;
 
 import com.xeine.dto.request.ProductCreateRequest;
 import com.xeine.dto.request.ProductUpdateRequest;
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.ProductResponseDTO;
 import com.xeine.services.ProductService;
 import com.xeine.utils.responsehandler.ApiResponse;
@@ -55,12 +56,16 @@ public class ProductController {
     }
 
 
+    // Active products, newest first, one page at a time (pass nextCursor as cursor for the next page)
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<ApiResponse<List<ProductResponseDTO>>> getAllProductsByCompany(
-            @PathVariable @Min(1) Long companyId) {
-
-        List<ProductResponseDTO> products = productService.getAllProductsByCompany(companyId);
-        ApiResponse<List<ProductResponseDTO>> response = new ApiResponse<>(
+    public ResponseEntity<ApiResponse<CursorPageDTO<ProductResponseDTO>>> getAllProductsByCompany(
+            @PathVariable @Min(1) Long companyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPageDTO<ProductResponseDTO> products = productService.getAllProductsByCompany(companyId, cursor, size, includeTotal);
+        ApiResponse<CursorPageDTO<ProductResponseDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Products retrieved successfully",
@@ -2,6 +2,8 @@ package com.xeine.controllers;
 
 import com.xeine.dto.request.PurchaseOrderCreateRequest;
 import com.xeine.dto.request.PurchaseOrderUpdateRequest;
+import com.xeine.dto.response.CursorPageDTO;
+import com.xeine.dto.response.PurchaseOrderListItemDTO;
 import com.xeine.dto.response.PurchaseOrderResponseDTO;
 import com.xeine.services.PurchaseOrderService;
 import com.xeine.utils.responsehandler.ApiResponse;
@@ -97,14 +99,19 @@ public class PurchaseOrderController {
     }
 
     /**
-     * Get all purchase orders for a company
+     * Get purchase orders for a company, newest first, one page at a time (pass nextCursor as cursor for the next
+     * page). Rows carry no items; fetch a purchase order by ID for its items.
      */
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<ApiResponse<List<PurchaseOrderResponseDTO>>> getAllPurchaseOrdersByCompany(
-            @PathVariable @Min(1) Long companyId) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<PurchaseOrderListItemDTO>>> getAllPurchaseOrdersByCompany(
+            @PathVariable @Min(1) Long companyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
-        List<PurchaseOrderResponseDTO> purchaseOrders = purchaseOrderService.getAllPurchaseOrdersByCompany(companyId);
-        ApiResponse<List<PurchaseOrderResponseDTO>> response = new ApiResponse<>(
+        CursorPageDTO<PurchaseOrderListItemDTO> purchaseOrders =
+                purchaseOrderService.getAllPurchaseOrdersByCompany(companyId, cursor, size, includeTotal);
+        ApiResponse<CursorPageDTO<PurchaseOrderListItemDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Purchase orders retrieved successfully",
@@ -140,14 +147,12 @@ public class PurchaseOrderController {
     public ResponseEntity<ApiResponse<Object>> getPurchaseOrderStats(
             @PathVariable @Min(1) Long companyId) {
 
-        List<PurchaseOrderResponseDTO> allPOs = purchaseOrderService.getAllPurchaseOrdersByCompany(companyId);
+        Object[] totals = purchaseOrderService.getPurchaseOrderTotals(companyId);
 
         // Create simple stats
         Object stats = new Object() {
-            public final long totalPurchaseOrders = allPOs.size();
-            public final double totalValue = allPOs.stream()
-                    .mapToDouble(po -> po.getTotalAmount().doubleValue())
-                    .sum();
+            public final long totalPurchaseOrders = ((Number) totals[0]).longValue();
+            public final double totalValue = ((Number) totals[1]).doubleValue();
         };
 
         ApiResponse<Object> response = new ApiResponse<>(
@@ -182,16 +187,19 @@ public class PurchaseOrderController {
      * Get purchase orders by date range
      */
     @GetMapping("/company/{companyId}/date-range")
-    public ResponseEntity<ApiResponse<List<PurchaseOrderResponseDTO>>> getPurchaseOrdersByDateRange(
+    public ResponseEntity<ApiResponse<CursorPageDTO<PurchaseOrderListItemDTO>>> getPurchaseOrdersByDateRange(
             @PathVariable @Min(1) Long companyId,
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
 
         // For now, returning all company POs
         // This would need proper date parsing implementation in service layer
-        List<PurchaseOrderResponseDTO> purchaseOrders = purchaseOrderService.getAllPurchaseOrdersByCompany(companyId);
+        CursorPageDTO<PurchaseOrderListItemDTO> purchaseOrders =
+                purchaseOrderService.getAllPurchaseOrdersByCompany(companyId, cursor, size, false);
 
-        ApiResponse<List<PurchaseOrderResponseDTO>> response = new ApiResponse<>(
+        ApiResponse<CursorPageDTO<PurchaseOrderListItemDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Purchase orders retrieved successfully",
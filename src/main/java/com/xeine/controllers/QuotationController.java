@@ -2,8 +2,12 @@ package com.xeine.controllers;
 
 import com.xeine.dto.request.QuotationCreateRequest;
 import com.xeine.dto.request.QuotationUpdateRequest;
+import com.xeine.dto.response.CursorPageDTO;
+import com.xeine.dto.response.QuotationListItemDTO;
 import com.xeine.dto.response.QuotationResponseDTO;
+import com.xeine.dto.response.SearchPageDTO;
 import com.xeine.enums.QuotationStatus;
+import com.xeine.services.DocumentSearchService;
 import com.xeine.services.QuotationService;
 import com.xeine.utils.responsehandler.ApiResponse;
 import jakarta.validation.Valid;
@@ -24,6 +28,9 @@ public class QuotationController {
     @Autowired
     private QuotationService quotationService;
 
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
 
     @PostMapping
     public ResponseEntity<ApiResponse<QuotationResponseDTO>> createQuotation(
@@ -77,14 +84,38 @@ public class QuotationController {
     }
 
     /**
-     * Get all quotations for a company
+     * Get quotations for a company, newest first, one page at a time (pass nextCursor as cursor for the next page).
+     * Rows carry no items; fetch a quotation by ID for its items.
      */
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<ApiResponse<List<QuotationResponseDTO>>> getAllQuotationsByCompany(
-            @PathVariable @Min(1) Long companyId) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<QuotationListItemDTO>>> getAllQuotationsByCompany(
+            @PathVariable @Min(1) Long companyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
-        List<QuotationResponseDTO> quotations = quotationService.getAllQuotationsByCompany(companyId);
-        ApiResponse<List<QuotationResponseDTO>> response = new ApiResponse<>(
+        CursorPageDTO<QuotationListItemDTO> quotations = quotationService.getAllQuotationsByCompany(companyId, cursor, size, includeTotal);
+        ApiResponse<CursorPageDTO<QuotationListItemDTO>> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Quotations retrieved successfully",
+                quotations
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Search a company's quotations by number, customer name or notes; every word must match, best match first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<SearchPageDTO<QuotationListItemDTO>>> searchQuotations(
+            @RequestParam @Min(1) Long companyId,
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        SearchPageDTO<QuotationListItemDTO> quotations = documentSearchService.searchQuotations(companyId, q, page, size);
+        ApiResponse<SearchPageDTO<QuotationListItemDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
                 "Quotations retrieved successfully",
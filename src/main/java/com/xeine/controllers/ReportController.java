@@ -1,20 +1,40 @@
 package com.xeine.controllers;
 
+import com.xeine.dto.request.ReportJobCreateRequest;
 import com.xeine.dto.response.CompanyReportDTO;
 import com.xeine.dto.response.InvoiceResponseDTO;
+import com.xeine.dto.response.InvoiceSummaryDTO;
 import com.xeine.dto.response.ProductResponseDTO;
 import com.xeine.dto.response.QuotationResponseDTO;
+import com.xeine.dto.response.ReceivablesAgingDTO;
+import com.xeine.dto.response.ReportCacheStatsDTO;
+import com.xeine.dto.response.ReportJobResponseDTO;
 import com.xeine.dto.response.SettlementResponseDTO;
+import com.xeine.enums.ReportExportFormat;
+import com.xeine.services.InvoiceAnalyticsService;
+import com.xeine.services.ReportCacheService;
+import com.xeine.services.ReportExportService;
+import com.xeine.services.ReportJobService;
 import com.xeine.services.ReportService;
 import com.xeine.utils.responsehandler.ApiResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -24,15 +44,33 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private InvoiceAnalyticsService invoiceAnalyticsService;
+
     @GetMapping("/invoices")
     public ResponseEntity<ApiResponse<List<InvoiceResponseDTO>>> getInvoiceReport(
             @RequestParam Long companyId,
-            @RequestParam(required = false) String period // week, month, quarter
+            @RequestParam(required = false) String period, // week, month, quarter; ignored when from is given
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            // invoiceDate and invoiceId of the last row of the previous page
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size
     ) {
         if (period == null || period.isBlank()) {
             period = "week";
         }
-        List<InvoiceResponseDTO> report = reportService.getInvoiceReport(companyId, period);
+        List<InvoiceResponseDTO> report = reportService.getInvoiceReport(companyId, period, from, to, afterDate, afterId, size);
         ApiResponse<List<InvoiceResponseDTO>> response = new ApiResponse<>(
                 true,
                 HttpStatus.OK.value(),
@@ -108,5 +146,144 @@ public class ReportController {
         return ResponseEntity.ok(response);
     }
 
+    // ===== STREAMING EXPORTS (format = csv | ndjson) =====
+
+    @GetMapping("/invoices/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoiceReport(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) String period, // week, month, quarter
+            @RequestParam(required = false) String format
+    ) {
+        ReportExportFormat exportFormat = ReportExportFormat.fromValue(format);
+        LocalDate startDate = reportExportService.resolveStartDate(period);
+        return exportResponse("invoice-report", exportFormat,
+                out -> reportExportService.exportInvoiceReport(companyId, startDate, exportFormat, out));
+    }
+
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProductReport(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) String period, // week, month, quarter
+            @RequestParam(required = false) String format
+    ) {
+        ReportExportFormat exportFormat = ReportExportFormat.fromValue(format);
+        LocalDate startDate = reportExportService.resolveStartDate(period);
+        return exportResponse("product-report", exportFormat,
+                out -> reportExportService.exportProductReport(companyId, startDate, exportFormat, out));
+    }
+
+    @GetMapping("/settlements/export")
+    public ResponseEntity<StreamingResponseBody> exportSettlementReport(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) String period, // week, month, quarter
+            @RequestParam(required = false) String format
+    ) {
+        ReportExportFormat exportFormat = ReportExportFormat.fromValue(format);
+        LocalDate startDate = reportExportService.resolveStartDate(period);
+        return exportResponse("settlement-report", exportFormat,
+                out -> reportExportService.exportSettlementReport(companyId, startDate, exportFormat, out));
+    }
+
+    @GetMapping("/quotations/export")
+    public ResponseEntity<StreamingResponseBody> exportQuotationReport(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) String period, // week, month, quarter
+            @RequestParam(required = false) String format
+    ) {
+        ReportExportFormat exportFormat = ReportExportFormat.fromValue(format);
+        LocalDate startDate = reportExportService.resolveStartDate(period);
+        return exportResponse("quotation-report", exportFormat,
+                out -> reportExportService.exportQuotationReport(companyId, startDate, exportFormat, out));
+    }
+
+    @GetMapping("/invoices/summary")
+    public ResponseEntity<ApiResponse<InvoiceSummaryDTO>> getInvoiceSummary(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) String period, // week, month, quarter; ignored when from is given
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long customerId
+    ) {
+        InvoiceSummaryDTO summary = invoiceAnalyticsService.getInvoiceSummary(companyId, period, from, to, customerId);
+        ApiResponse<InvoiceSummaryDTO> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Invoice summary generated successfully",
+                summary
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/aging")
+    public ResponseEntity<ApiResponse<ReceivablesAgingDTO>> getReceivablesAging(
+            @RequestParam Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf
+    ) {
+        ReceivablesAgingDTO report = reportService.getReceivablesAging(companyId, asOf);
+        ApiResponse<ReceivablesAgingDTO> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Receivables aging report generated successfully",
+                report
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ReportJobResponseDTO>> submitReportJob(
+            @Valid @RequestBody ReportJobCreateRequest request) {
+        ReportJobResponseDTO job = reportJobService.submitJob(request);
+        ApiResponse<ReportJobResponseDTO> response = new ApiResponse<>(
+                true,
+                HttpStatus.ACCEPTED.value(),
+                "Report job submitted successfully",
+                job
+        );
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJobResponseDTO>> getReportJob(
+            @PathVariable String jobId,
+            @RequestParam Long companyId) {
+        ReportJobResponseDTO job = reportJobService.getJob(jobId, companyId);
+        ApiResponse<ReportJobResponseDTO> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Report job fetched successfully",
+                job
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadReportJobResult(
+            @PathVariable String jobId,
+            @RequestParam Long companyId) {
+        Resource result = reportJobService.getJobResult(jobId, companyId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-" + jobId + ".json\"")
+                .body(result);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<ReportCacheStatsDTO>> getCacheStats() {
+        ApiResponse<ReportCacheStatsDTO> response = new ApiResponse<>(
+                true,
+                HttpStatus.OK.value(),
+                "Report cache statistics fetched successfully",
+                reportCacheService.getStats()
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String fileName, ReportExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+
     // Future: Add endpoints for other reports, etc.
 }
@@ -0,0 +1,24 @@
+package com.xeine.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkInvoicePdfRequest {
+
+    @NotNull(message = "Company ID is required")
+    private Long companyId;
+
+    // Printed in this order, one after another in a single file
+    @NotEmpty(message = "At least one invoice ID is required")
+    private List<Long> invoiceIds;
+}
@@ -30,6 +30,7 @@ public class InvoiceCreateRequest {
     // Discount fields
     @DecimalMin(value = "0.0", message = "Discount percentage cannot be negative")
     @DecimalMax(value = "100.0", message = "Discount percentage cannot exceed 100%")
+    @Digits(integer = 3, fraction = 2, message = "Invalid discount percentage format")
     private BigDecimal discountPercentage = BigDecimal.ZERO;
 
     @Size(max = 500, message = "Discount reason must not exceed 500 characters")
@@ -19,6 +19,7 @@ public class InvoiceItemCreateRequest {
 
     @NotNull(message = "Quantity is required")
     @DecimalMin(value = "0.01", message = "Quantity must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Invalid quantity format")
     private BigDecimal quantity;
 
     @Size(max = 500, message = "Description must not exceed 500 characters")
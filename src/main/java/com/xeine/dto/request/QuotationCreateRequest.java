@@ -29,6 +29,7 @@ public class QuotationCreateRequest {
 
     @DecimalMin(value = "0.0", message = "Discount percentage cannot be negative")
     @DecimalMax(value = "100.0", message = "Discount percentage cannot exceed 100%")
+    @Digits(integer = 3, fraction = 2, message = "Invalid discount percentage format")
     private BigDecimal discountPercentage;
 
     @Size(max = 500, message = "Discount reason must not exceed 500 characters")
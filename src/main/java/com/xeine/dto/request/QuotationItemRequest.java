@@ -21,15 +21,18 @@ public class QuotationItemRequest {
 
     @NotNull(message = "Quantity is required")
     @DecimalMin(value = "0.01", message = "Quantity must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Invalid quantity format")
     private BigDecimal quantity;
 
     @NotNull(message = "Unit price is required")
     @DecimalMin(value = "0.01", message = "Unit price must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Invalid unit price format")
     private BigDecimal unitPrice;
 
     @NotNull(message = "Tax rate is required")
     @DecimalMin(value = "0.0", message = "Tax rate cannot be negative")
     @DecimalMax(value = "100.0", message = "Tax rate cannot exceed 100%")
+    @Digits(integer = 3, fraction = 2, message = "Invalid tax rate format")
     private BigDecimal taxRate;
 
     @Size(max = 500, message = "Description must not exceed 500 characters")
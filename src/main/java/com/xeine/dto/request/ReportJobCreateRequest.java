@@ -0,0 +1,31 @@
+package com.xeine.dto.request;
+
+import com.xeine.enums.ReportType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobCreateRequest {
+
+    @NotNull(message = "Company ID is required")
+    private Long companyId;
+
+    @NotNull(message = "Report type is required")
+    private ReportType reportType;
+
+    // week, month, quarter; not used by the company and aging reports
+    private String period;
+
+    // Explicit date range, invoice report only; overrides period
+    private LocalDate from;
+
+    private LocalDate to;
+}
@@ -0,0 +1,23 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of a list, newest first. Pass nextCursor back as the cursor parameter to get the following page;
+ * it is null on the last page. totalCount is only filled in when the client asks for it.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private Long totalCount;
+}
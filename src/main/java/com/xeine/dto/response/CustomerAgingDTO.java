@@ -0,0 +1,26 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerAgingDTO {
+    private Long customerId;
+    private String customerName;
+    private Long openInvoiceCount;
+    // Not yet due, or no due date
+    private BigDecimal current;
+    // Outstanding amounts by days past due date
+    private BigDecimal days0To30;
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal over90Days;
+    private BigDecimal totalOutstanding;
+}
@@ -0,0 +1,17 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceImportErrorDTO {
+    // Position of the invoice in a JSON array (1-based), or the CSV line its first item is on
+    private long row;
+    private String invoiceRef;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceImportResultDTO {
+    private long totalRows;
+    private long importedCount;
+    private long failedCount;
+    // Capped at invoices.import.max-reported-errors; failedCount is always complete
+    private List<InvoiceImportErrorDTO> errors;
+}
@@ -0,0 +1,31 @@
+package com.xeine.dto.response;
+
+import com.xeine.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the invoice list, filled by a constructor projection; items are on the detail endpoint only
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceListItemDTO {
+    private Long invoiceId;
+    private String invoiceNumber;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private Long customerId;
+    private String customerName;
+    private BigDecimal totalAmount;
+    private BigDecimal outstandingAmount;
+    private InvoiceStatus status;
+    private LocalDateTime createdAt;
+}
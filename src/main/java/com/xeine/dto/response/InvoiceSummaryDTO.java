@@ -0,0 +1,29 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceSummaryDTO {
+    private Long companyId;
+    private LocalDate from;
+    private LocalDate to;
+    // Null when summarizing all customers
+    private Long customerId;
+    private Long invoiceCount;
+    private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
+    private BigDecimal outstandingAmount;
+    private Map<String, Long> statusCounts;
+    // Invoiced total per day; omitted for ranges longer than a year
+    private Map<LocalDate, BigDecimal> dailyTotals;
+}
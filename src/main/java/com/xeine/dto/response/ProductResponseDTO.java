@@ -51,7 +51,7 @@ public class ProductResponseDTO {
     // Reporting fields
     private Integer totalSold;
     private BigDecimal totalRevenue;
-    //private LocalDate lastSoldDate;
+    private LocalDate lastSoldDate;
 }
 
 /*
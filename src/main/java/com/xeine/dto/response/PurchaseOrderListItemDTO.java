@@ -0,0 +1,26 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the purchase order list, filled by a constructor projection; items are on the detail endpoint only
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PurchaseOrderListItemDTO {
+    private Long purchaseOrderId;
+    private String poNumber;
+    private LocalDate poDate;
+    private String vendorName;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.xeine.dto.response;
+
+import com.xeine.enums.QuotationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the quotation list, filled by a constructor projection; items are on the detail endpoint only
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuotationListItemDTO {
+    private Long quotationId;
+    private String quotationNumber;
+    private LocalDate quotationDate;
+    private Long customerId;
+    private String customerName;
+    private BigDecimal totalAmount;
+    private QuotationStatus status;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReceivablesAgingDTO {
+    private Long companyId;
+    private LocalDate asOfDate;
+    // Customers with outstanding invoices, largest balance first
+    private List<CustomerAgingDTO> customers;
+    // Sum over all customers
+    private CustomerAgingDTO totals;
+}
@@ -0,0 +1,31 @@
+package com.xeine.dto.response;
+
+import com.xeine.enums.ReportJobStatus;
+import com.xeine.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobResponseDTO {
+    private String jobId;
+    private Long companyId;
+    private ReportType reportType;
+    private String period;
+    private LocalDate from;
+    private LocalDate to;
+    private ReportJobStatus status;
+    private Long resultSize;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RetryStatsDTO {
+    private String operation;
+    private long calls;
+    private long retries;
+    private long exhausted;
+}
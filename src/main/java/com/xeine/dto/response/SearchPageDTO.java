@@ -0,0 +1,27 @@
+package com.xeine.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results, best match first. Pages are numbered from 0; totalCount is the number of
+ * matching documents, of which only the first search.max-results can be paged through. While the company's
+ * search index is still loading, partial is true and only the newest search.fallback.max-documents documents
+ * were searched.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPageDTO<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private long totalCount;
+    private boolean hasMore;
+    private boolean partial;
+}
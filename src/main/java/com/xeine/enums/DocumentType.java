@@ -0,0 +1,7 @@
+package com.xeine.enums;
+
+public enum DocumentType {
+    INVOICE,
+    QUOTATION,
+    DELIVERY_CHALLAN
+}
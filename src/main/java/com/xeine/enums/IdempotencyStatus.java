@@ -0,0 +1,6 @@
+package com.xeine.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,36 @@
+package com.xeine.enums;
+
+import com.xeine.exception.ReportException;
+
+public enum ReportExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ReportExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ReportExportFormat fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        for (ReportExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new ReportException("Invalid format value: " + value + ". Allowed values: csv, ndjson");
+    }
+}
@@ -0,0 +1,5 @@
+package com.xeine.enums;
+
+public enum ReportType {
+    INVOICES, COMPANY, PRODUCTS, SETTLEMENTS, QUOTATIONS, AGING
+}
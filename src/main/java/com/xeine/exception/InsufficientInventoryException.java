@@ -1,7 +1,21 @@
 package com.xeine.exception;
 
+import java.util.Set;
+
 public class InsufficientInventoryException extends RuntimeException {
+    // Products found short when stock was deducted; empty when not known
+    private final Set<Long> productIds;
+
     public InsufficientInventoryException(String message) {
+        this(message, Set.of());
+    }
+
+    public InsufficientInventoryException(String message, Set<Long> productIds) {
         super(message);
+        this.productIds = productIds;
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
     }
 }
@@ -0,0 +1,73 @@
+package com.xeine.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-company totals, updated by deltas whenever an invoice or settlement is written.
+ * Lets the company report read its financial summary from one row instead of rescanning invoices.
+ */
+@Entity
+@Table(name = "company_metrics")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyMetrics {
+
+    @Id
+    @Column(name = "company_id")
+    private Long companyId;
+
+    // Sum of paid amounts across all invoices
+    @Column(name = "total_revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+
+    @Column(name = "outstanding_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal outstandingAmount = BigDecimal.ZERO;
+
+    @Column(name = "total_discounts", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalDiscounts = BigDecimal.ZERO;
+
+    @Column(name = "total_tax", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalTax = BigDecimal.ZERO;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount = 0L;
+
+    // Invoices created from a quotation
+    @Column(name = "converted_invoice_count", nullable = false)
+    private Long convertedInvoiceCount = 0L;
+
+    @Column(name = "settlement_count", nullable = false)
+    private Long settlementCount = 0L;
+
+    // Invoice count per InvoiceStatus
+    @Column(name = "pending_count", nullable = false)
+    private Long pendingCount = 0L;
+
+    @Column(name = "partially_paid_count", nullable = false)
+    private Long partiallyPaidCount = 0L;
+
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount = 0L;
+
+    @Column(name = "overdue_count", nullable = false)
+    private Long overdueCount = 0L;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private Long cancelledCount = 0L;
+
+    @Column(name = "last_invoice_date")
+    private LocalDate lastInvoiceDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -12,6 +12,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        // Keyset-paginated customer list: WHERE company_id = ? ORDER BY created_at DESC, customer_id DESC
+        @Index(name = "idx_customer_company_created", columnList = "company_id, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
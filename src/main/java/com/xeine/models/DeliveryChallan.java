@@ -14,7 +14,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "delivery_challan")
+@Table(name = "delivery_challan", indexes = {
+        // Keyset-paginated challan list, ordered by created_at DESC, delivery_challan_id DESC
+        @Index(name = "idx_delivery_challan_created", columnList = "created_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
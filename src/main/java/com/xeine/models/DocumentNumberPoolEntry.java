@@ -0,0 +1,42 @@
+package com.xeine.models;
+
+import com.xeine.enums.DocumentType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One reserved but not yet issued number of a series. A document's transaction deletes the entry it issues, so
+ * the number comes back if that transaction rolls back or the node dies before it commits.
+ */
+@Entity
+@Table(name = "document_number_pool", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_document_number_pool",
+                columnNames = {"company_id", "document_type", "fiscal_year", "number_value"})
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentNumberPoolEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "document_number_pool_id")
+    private Long documentNumberPoolId;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false, length = 30)
+    private DocumentType documentType;
+
+    @Column(name = "fiscal_year", nullable = false)
+    private int fiscalYear;
+
+    @Column(name = "number_value", nullable = false)
+    private long numberValue;
+}
@@ -0,0 +1,48 @@
+package com.xeine.models;
+
+import com.xeine.enums.DocumentType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counter behind one numbering series: the next number of a document type for a company in a fiscal year that
+ * has not been reserved yet. Reserved blocks are moved into document_number_pool, so the row is locked once per
+ * block rather than once per document.
+ */
+@Entity
+@Table(name = "document_sequences", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_document_sequence", columnNames = {"company_id", "document_type", "fiscal_year"})
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "document_sequence_id")
+    private Long documentSequenceId;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false, length = 30)
+    private DocumentType documentType;
+
+    // Calendar year in which the fiscal year starts, e.g. 2026 for FY 2026-27
+    @Column(name = "fiscal_year", nullable = false)
+    private int fiscalYear;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
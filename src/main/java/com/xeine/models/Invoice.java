@@ -1,11 +1,13 @@
 package com.xeine.models;
 
+import com.xeine.config.IdGeneratorInitializer;
 import com.xeine.enums.InvoiceStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,17 +16,50 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = {
+        // Invoice numbers run per company, see DocumentNumberService
+        @UniqueConstraint(name = "uk_invoice_company_number", columnNames = {"company_id", "invoice_number"})
+}, indexes = {
+        // Report range scans: WHERE company_id = ? AND invoice_date BETWEEN ? AND ? ORDER BY invoice_date DESC
+        @Index(name = "idx_invoice_company_date", columnList = "company_id, invoice_date"),
+        // Invoices not yet in the sales rollups
+        @Index(name = "idx_invoice_rolled_up", columnList = "rolled_up"),
+        // Keyset-paginated invoice list: WHERE company_id = ? ORDER BY created_at DESC, invoice_id DESC (InnoDB appends the key)
+        @Index(name = "idx_invoice_company_created", columnList = "company_id, created_at"),
+        // Invoice list filtered on the stored status: WHERE company_id = ? AND status = ? ORDER BY created_at DESC
+        @Index(name = "idx_invoice_company_status_created", columnList = "company_id, status, created_at"),
+        // Overdue sweep: open invoices whose due date has passed
+        @Index(name = "idx_invoice_status_due", columnList = "status, due_date"),
+        // Receivables aging: open invoices of a company, covering the columns the aging query reads
+        @Index(name = "idx_invoice_company_outstanding", columnList = "company_id, outstanding_amount, due_date, customer_id, status")
+})
+// Everything convertToResponseDTO reads, loaded with the invoice in one query
+@NamedEntityGraph(name = Invoice.WITH_ITEMS_GRAPH, attributeNodes = {
+        @NamedAttributeNode("company"),
+        @NamedAttributeNode("customer"),
+        @NamedAttributeNode("quotation"),
+        @NamedAttributeNode(value = "invoiceItems", subgraph = "items")
+}, subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Invoice {
+    public static final String WITH_ITEMS_GRAPH = "Invoice.withItems";
+
     @Id
     @Column(name="invoice_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled table IDs instead of IDENTITY so invoice inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_id")
+    @TableGenerator(name = "invoice_id", table = IdGeneratorInitializer.TABLE, pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "invoice", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private Long id;
 
-    @Column(name = "invoice_number", nullable = false, unique = true)
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "invoice_number", nullable = false)
     private String invoiceNumber;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -83,6 +118,13 @@ public class Invoice {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Set by SalesRollupService in the transaction that adds the invoice to the daily rollups. Entity updates never
+    // write it, so saving a copy loaded before the rollup cannot clear it.
+    @Column(name = "rolled_up", nullable = false, updatable = false)
+    private boolean rolledUp;
+
+    // Loaded for up to 50 invoices per query where no entity graph applies
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<InvoiceItem> invoiceItems = new ArrayList<>();
 
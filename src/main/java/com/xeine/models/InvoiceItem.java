@@ -1,6 +1,6 @@
 package com.xeine.models;
 
-
+import com.xeine.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,8 +16,9 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 public class InvoiceItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_item_id")
+    @TableGenerator(name = "invoice_item_id", table = IdGeneratorInitializer.TABLE, pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "invoice_item", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,7 @@
 package com.xeine.models;
 
 import com.xeine.enums.BusinessType;
+import com.xeine.exception.InsufficientInventoryException;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,6 +13,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // Keyset-paginated product list: WHERE company_id = ? AND is_active = true ORDER BY created_at DESC, product_id DESC
+        @Index(name = "idx_product_company_active_created", columnList = "company_id, is_active, created_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -23,6 +28,10 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long productId;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(nullable = false, name="product_name")
     private String productName;
 
@@ -90,10 +99,11 @@ public class Product {
 
 
     public void reduceStock(int quantity) {
-        if (this.stockQuantity == null) {
-            this.stockQuantity = 0;
+        if (!hasSufficientStock(quantity)) {
+            throw new InsufficientInventoryException("Insufficient inventory for product '" + this.productName
+                    + "' - Requested: " + quantity + ", Available: " + (this.stockQuantity != null ? this.stockQuantity : 0));
         }
-        this.stockQuantity = Math.max(0, this.stockQuantity - quantity);
+        this.stockQuantity = this.stockQuantity - quantity;
         this.updatedAt = LocalDateTime.now();
     }
 
@@ -15,7 +15,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "purchase_order")
+@Table(name = "purchase_order", indexes = {
+        // Keyset-paginated purchase order list: WHERE company_id = ? ORDER BY created_at DESC, po_id DESC
+        @Index(name = "idx_purchase_order_company_created", columnList = "company_id, created_at")
+})
 @Setter
 @Getter
 @AllArgsConstructor
@@ -11,6 +11,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = {
+        // Quotation numbers run per company, see DocumentNumberService
+        @UniqueConstraint(name = "uk_quotation_company_number", columnNames = {"company_id", "quotation_number"})
+}, indexes = {
+        // Keyset-paginated quotation list: WHERE company_id = ? ORDER BY created_at DESC, quotation_id DESC
+        @Index(name = "idx_quotation_company_created", columnList = "company_id, created_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -22,7 +29,11 @@ public class Quotation {
     @Column(name = "quotation_id")
     private Long quotationId;
 
-    @Column(name = "quotation_number", nullable = false, unique = true)
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "quotation_number", nullable = false)
     private String quotationNumber;
 
     @ManyToOne(fetch = FetchType.LAZY)
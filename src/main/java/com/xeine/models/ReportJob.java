@@ -0,0 +1,78 @@
+package com.xeine.models;
+
+import com.xeine.enums.ReportJobStatus;
+import com.xeine.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A report computed in the background. The result is written to a file on local disk
+ * and kept until expiresAt, after which the row and the file are purged.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+        // Duplicate lookup on submit
+        @Index(name = "idx_report_job_company_key", columnList = "company_id, request_key"),
+        @Index(name = "idx_report_job_status", columnList = "status")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJob {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+
+    @Column(name = "period")
+    private String period;
+
+    @Column(name = "from_date")
+    private LocalDate fromDate;
+
+    @Column(name = "to_date")
+    private LocalDate toDate;
+
+    // Normalized request parameters; identical requests share a key
+    @Column(name = "request_key", nullable = false)
+    private String requestKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReportJobStatus status = ReportJobStatus.QUEUED;
+
+    @Column(name = "result_path")
+    private String resultPath;
+
+    @Column(name = "result_size")
+    private Long resultSize;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.xeine.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lock row of an incremental rollup, held while a run applies rows, with the time of the last run in
+ * lastCreatedAt. Which source rows are applied is marked on the rows themselves.
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupWatermark {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "last_created_at", nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -12,7 +12,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-
+@Table(indexes = {
+        // Settlements not yet in the sales rollups
+        @Index(name = "idx_settlement_rolled_up", columnList = "rolled_up")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -46,4 +49,9 @@ public class Settlement {
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    // Set by SalesRollupService in the transaction that adds the payment to the daily rollups. Entity updates never
+    // write it, so saving a copy loaded before the rollup cannot clear it.
+    @Column(name = "rolled_up", nullable = false, updatable = false)
+    private boolean rolledUp;
 }
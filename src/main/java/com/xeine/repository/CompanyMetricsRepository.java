@@ -0,0 +1,89 @@
+package com.xeine.repository;
+
+import com.xeine.models.CompanyMetrics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface CompanyMetricsRepository extends JpaRepository<CompanyMetrics, Long> {
+
+    // Create an all-zero row; returns 0 if the company already has one. A new row stays locked until commit.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO company_metrics (company_id, total_revenue, outstanding_amount, total_discounts, " +
+            "total_tax, invoice_count, converted_invoice_count, settlement_count, pending_count, partially_paid_count, " +
+            "paid_count, overdue_count, cancelled_count, updated_at) " +
+            "VALUES (:companyId, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIfAbsent(@Param("companyId") Long companyId);
+
+    // Row lock held until commit, so a rebuild and concurrent deltas do not overwrite each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM CompanyMetrics m WHERE m.companyId = :companyId")
+    Optional<CompanyMetrics> findByIdForUpdate(@Param("companyId") Long companyId);
+
+    // Apply new invoices as deltas; returns 0 when the company has no metrics row yet
+    @Modifying
+    @Query("UPDATE CompanyMetrics m SET " +
+            "m.outstandingAmount = m.outstandingAmount + :outstanding, " +
+            "m.totalDiscounts = m.totalDiscounts + :discount, " +
+            "m.totalTax = m.totalTax + :tax, " +
+            "m.invoiceCount = m.invoiceCount + :count, " +
+            "m.convertedInvoiceCount = m.convertedInvoiceCount + :converted, " +
+            "m.pendingCount = m.pendingCount + :count, " +
+            "m.lastInvoiceDate = CASE WHEN m.lastInvoiceDate IS NULL OR m.lastInvoiceDate < :invoiceDate THEN :invoiceDate ELSE m.lastInvoiceDate END, " +
+            "m.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE m.companyId = :companyId")
+    int applyInvoicesCreated(@Param("companyId") Long companyId,
+                             @Param("count") long count,
+                             @Param("outstanding") BigDecimal outstanding,
+                             @Param("discount") BigDecimal discount,
+                             @Param("tax") BigDecimal tax,
+                             @Param("converted") long converted,
+                             @Param("invoiceDate") LocalDate invoiceDate);
+
+    // Apply a settlement (payment) and the resulting invoice status change as deltas
+    @Modifying
+    @Query("UPDATE CompanyMetrics m SET " +
+            "m.totalRevenue = m.totalRevenue + :amount, " +
+            "m.outstandingAmount = m.outstandingAmount - :amount, " +
+            "m.settlementCount = m.settlementCount + 1, " +
+            "m.pendingCount = m.pendingCount + :pending, " +
+            "m.partiallyPaidCount = m.partiallyPaidCount + :partiallyPaid, " +
+            "m.paidCount = m.paidCount + :paid, " +
+            "m.overdueCount = m.overdueCount + :overdue, " +
+            "m.cancelledCount = m.cancelledCount + :cancelled, " +
+            "m.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE m.companyId = :companyId")
+    int applySettlementCreated(@Param("companyId") Long companyId,
+                               @Param("amount") BigDecimal amount,
+                               @Param("pending") long pending,
+                               @Param("partiallyPaid") long partiallyPaid,
+                               @Param("paid") long paid,
+                               @Param("overdue") long overdue,
+                               @Param("cancelled") long cancelled);
+
+    // Apply invoice status changes made without a payment, e.g. by the overdue sweep
+    @Modifying
+    @Query("UPDATE CompanyMetrics m SET " +
+            "m.pendingCount = m.pendingCount + :pending, " +
+            "m.partiallyPaidCount = m.partiallyPaidCount + :partiallyPaid, " +
+            "m.paidCount = m.paidCount + :paid, " +
+            "m.overdueCount = m.overdueCount + :overdue, " +
+            "m.cancelledCount = m.cancelledCount + :cancelled, " +
+            "m.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE m.companyId = :companyId")
+    int applyStatusChanges(@Param("companyId") Long companyId,
+                           @Param("pending") long pending,
+                           @Param("partiallyPaid") long partiallyPaid,
+                           @Param("paid") long paid,
+                           @Param("overdue") long overdue,
+                           @Param("cancelled") long cancelled);
+}
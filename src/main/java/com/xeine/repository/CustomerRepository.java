@@ -1,11 +1,13 @@
 package com.xeine.repository;
 
 import com.xeine.models.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,11 +18,32 @@ public interface CustomerRepository extends JpaRepository<Customer,Long> {
     @Query("SELECT c FROM Customer c WHERE c.customerId = :customerId AND c.company.companyId = :companyId")
     Optional<Customer> findByCustomerIdAndCompanyCompanyId(@Param("customerId") Long customerId, @Param("companyId") Long companyId);
 
+    // Find customers by IDs within a company (bulk import)
+    @Query("SELECT c FROM Customer c WHERE c.customerId IN :customerIds AND c.company.companyId = :companyId")
+    List<Customer> findByIdsAndCompany(@Param("customerIds") List<Long> customerIds, @Param("companyId") Long companyId);
+
     /**
      * Find customers by company ID
      */
     List<Customer> findByCompanyCompanyId(Long companyId);
 
+    /**
+     * First page of a company's customers, newest first (limit with Pageable)
+     */
+    @Query("SELECT c FROM Customer c WHERE c.company.companyId = :companyId ORDER BY c.createdAt DESC, c.customerId DESC")
+    List<Customer> findListPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    /**
+     * Next page of a company's customers: rows after the (createdAt, id) of the previous page's last row
+     */
+    @Query("SELECT c FROM Customer c WHERE c.company.companyId = :companyId " +
+            "AND (c.createdAt < :afterCreatedAt OR (c.createdAt = :afterCreatedAt AND c.customerId < :afterId)) " +
+            "ORDER BY c.createdAt DESC, c.customerId DESC")
+    List<Customer> findListPageAfter(@Param("companyId") Long companyId,
+                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
     /**
      * Find customer by email
      */
@@ -46,6 +69,18 @@ public interface CustomerRepository extends JpaRepository<Customer,Long> {
      */
     long countByCompanyCompanyId(Long companyId);
 
+    /**
+     * Count customers created per calendar month within company
+     */
+    @Query("SELECT MONTH(c.createdAt), COUNT(c) FROM Customer c WHERE c.company.companyId = :companyId AND c.createdAt IS NOT NULL GROUP BY MONTH(c.createdAt)")
+    List<Object[]> getNewCustomerCountByMonth(@Param("companyId") Long companyId);
+
+    /**
+     * Latest customer creation time within company
+     */
+    @Query("SELECT MAX(c.createdAt) FROM Customer c WHERE c.company.companyId = :companyId")
+    java.time.LocalDateTime getLastCustomerCreatedAt(@Param("companyId") Long companyId);
+
     /**
      * Find customers by GST number
      */
@@ -0,0 +1,49 @@
+package com.xeine.repository;
+
+import com.xeine.models.DailyCustomerSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyCustomerSalesRepository extends JpaRepository<DailyCustomerSales, Long> {
+
+    // Add invoice deltas to an existing rollup row; returns 0 when the row does not exist yet
+    @Modifying
+    @Query("UPDATE DailyCustomerSales d SET d.invoiceCount = d.invoiceCount + :invoiceCount, d.revenue = d.revenue + :revenue, " +
+            "d.taxAmount = d.taxAmount + :tax, d.discountAmount = d.discountAmount + :discount " +
+            "WHERE d.companyId = :companyId AND d.salesDate = :salesDate AND d.customerId = :customerId")
+    int addInvoices(@Param("companyId") Long companyId,
+                    @Param("salesDate") LocalDate salesDate,
+                    @Param("customerId") Long customerId,
+                    @Param("invoiceCount") long invoiceCount,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("tax") BigDecimal tax,
+                    @Param("discount") BigDecimal discount);
+
+    // Add settlement deltas to an existing rollup row; returns 0 when the row does not exist yet
+    @Modifying
+    @Query("UPDATE DailyCustomerSales d SET d.paidAmount = d.paidAmount + :paid " +
+            "WHERE d.companyId = :companyId AND d.salesDate = :salesDate AND d.customerId = :customerId")
+    int addPayments(@Param("companyId") Long companyId,
+                    @Param("salesDate") LocalDate salesDate,
+                    @Param("customerId") Long customerId,
+                    @Param("paid") BigDecimal paid);
+
+    // Paid amount grouped by month of the invoice date
+    @Query("SELECT MONTH(d.salesDate), COALESCE(SUM(d.paidAmount), 0) FROM DailyCustomerSales d " +
+            "WHERE d.companyId = :companyId GROUP BY MONTH(d.salesDate)")
+    List<Object[]> getPaidAmountByMonth(@Param("companyId") Long companyId);
+
+    // Customer names ranked by paid amount (limit with Pageable)
+    @Query("SELECT c.customerName, COALESCE(SUM(d.paidAmount), 0) FROM DailyCustomerSales d JOIN Customer c ON c.customerId = d.customerId " +
+            "WHERE d.companyId = :companyId GROUP BY c.customerName ORDER BY COALESCE(SUM(d.paidAmount), 0) DESC, c.customerName")
+    List<Object[]> getTopCustomersByPaidAmount(@Param("companyId") Long companyId, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package com.xeine.repository;
+
+import com.xeine.models.DailyProductSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, Long> {
+
+    // Add deltas to an existing rollup row; returns 0 when the row does not exist yet
+    @Modifying
+    @Query("UPDATE DailyProductSales d SET d.quantity = d.quantity + :quantity, d.revenue = d.revenue + :revenue, " +
+            "d.taxAmount = d.taxAmount + :tax " +
+            "WHERE d.companyId = :companyId AND d.salesDate = :salesDate AND d.productId = :productId")
+    int addSales(@Param("companyId") Long companyId,
+                 @Param("salesDate") LocalDate salesDate,
+                 @Param("productId") Long productId,
+                 @Param("quantity") BigDecimal quantity,
+                 @Param("revenue") BigDecimal revenue,
+                 @Param("tax") BigDecimal tax);
+
+    // Product names ranked by quantity sold (limit with Pageable)
+    @Query("SELECT p.productName, SUM(d.quantity) FROM DailyProductSales d JOIN Product p ON p.productId = d.productId " +
+            "WHERE d.companyId = :companyId GROUP BY p.productName ORDER BY SUM(d.quantity) DESC, p.productName")
+    List<Object[]> getTopSellingProducts(@Param("companyId") Long companyId, Pageable pageable);
+}
@@ -2,12 +2,14 @@ package com.xeine.repository;
 
 
 import com.xeine.models.DeliveryChallan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +27,27 @@ public interface DeliveryChallanRepository extends JpaRepository<DeliveryChallan
     // Find by company (through invoice relationship)
     List<DeliveryChallan> findByInvoice_Company_CompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    long countByInvoice_Company_CompanyId(Long companyId);
+
+    // Ids for the first page of a company's challan list, newest first (limit with Pageable)
+    @Query("SELECT dc.deliveryChallanId FROM DeliveryChallan dc WHERE dc.invoice.company.companyId = :companyId " +
+            "ORDER BY dc.createdAt DESC, dc.deliveryChallanId DESC")
+    List<Long> findListPageIds(@Param("companyId") Long companyId, Pageable pageable);
+
+    // Ids for the next page of the challan list: rows after the (createdAt, id) of the previous page's last row
+    @Query("SELECT dc.deliveryChallanId FROM DeliveryChallan dc WHERE dc.invoice.company.companyId = :companyId " +
+            "AND (dc.createdAt < :afterCreatedAt OR (dc.createdAt = :afterCreatedAt AND dc.deliveryChallanId < :afterId)) " +
+            "ORDER BY dc.createdAt DESC, dc.deliveryChallanId DESC")
+    List<Long> findListPageIdsAfter(@Param("companyId") Long companyId,
+                                    @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    // Challans with the invoice, company, customer and items with products, for one page of ids (unordered)
+    @Query("SELECT dc FROM DeliveryChallan dc JOIN FETCH dc.invoice i JOIN FETCH i.company JOIN FETCH i.customer " +
+            "LEFT JOIN FETCH dc.deliveryChallanItems dci LEFT JOIN FETCH dci.product WHERE dc.deliveryChallanId IN :ids")
+    List<DeliveryChallan> findWithItemsByIds(@Param("ids") List<Long> ids);
+
     // Find by customer (through invoice relationship)
     List<DeliveryChallan> findByInvoice_Customer_CustomerIdOrderByCreatedAtDesc(Long customerId);
 
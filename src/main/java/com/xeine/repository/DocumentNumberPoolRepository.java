@@ -0,0 +1,35 @@
+package com.xeine.repository;
+
+import com.xeine.models.DocumentNumberPoolEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DocumentNumberPoolRepository extends JpaRepository<DocumentNumberPoolEntry, Long> {
+
+    // Lowest free number of a series as (entry id, number), locked until commit; numbers other transactions are
+    // issuing are skipped rather than waited for
+    @Query(value = "SELECT document_number_pool_id, number_value FROM document_number_pool " +
+            "WHERE company_id = :companyId AND document_type = :documentType AND fiscal_year = :fiscalYear " +
+            "ORDER BY number_value LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> lockLowestFree(@Param("companyId") Long companyId,
+                                  @Param("documentType") String documentType,
+                                  @Param("fiscalYear") int fiscalYear);
+
+    @Modifying
+    @Query(value = "INSERT INTO document_number_pool (company_id, document_type, fiscal_year, number_value) " +
+            "VALUES (:companyId, :documentType, :fiscalYear, :numberValue)", nativeQuery = true)
+    int insertFree(@Param("companyId") Long companyId,
+                   @Param("documentType") String documentType,
+                   @Param("fiscalYear") int fiscalYear,
+                   @Param("numberValue") long numberValue);
+
+    @Modifying
+    @Query("DELETE FROM DocumentNumberPoolEntry e WHERE e.documentNumberPoolId = :id")
+    int deleteEntry(@Param("id") Long id);
+}
@@ -0,0 +1,41 @@
+package com.xeine.repository;
+
+import com.xeine.enums.DocumentType;
+import com.xeine.models.DocumentSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, Long> {
+
+    // Start a series at 1; a no-op if another request or node created it first
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO document_sequences (company_id, document_type, fiscal_year, next_value, updated_at) " +
+            "VALUES (:companyId, :documentType, :fiscalYear, 1, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("companyId") Long companyId,
+                       @Param("documentType") String documentType,
+                       @Param("fiscalYear") int fiscalYear,
+                       @Param("now") LocalDateTime now);
+
+    // Reserve the next block; the row stays locked until the reserving transaction commits
+    @Modifying
+    @Query("UPDATE DocumentSequence s SET s.nextValue = s.nextValue + :blockSize, s.updatedAt = :now " +
+            "WHERE s.companyId = :companyId AND s.documentType = :documentType AND s.fiscalYear = :fiscalYear")
+    int reserveBlock(@Param("companyId") Long companyId,
+                     @Param("documentType") DocumentType documentType,
+                     @Param("fiscalYear") int fiscalYear,
+                     @Param("blockSize") long blockSize,
+                     @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.nextValue FROM DocumentSequence s " +
+            "WHERE s.companyId = :companyId AND s.documentType = :documentType AND s.fiscalYear = :fiscalYear")
+    Optional<Long> findNextValue(@Param("companyId") Long companyId,
+                                 @Param("documentType") DocumentType documentType,
+                                 @Param("fiscalYear") int fiscalYear);
+}
@@ -0,0 +1,57 @@
+package com.xeine.repository;
+
+import com.xeine.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Claim a key; returns 0 if a record for it already exists
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (record_key, request_hash, status, created_at, expires_at) " +
+            "VALUES (:recordKey, :requestHash, 'IN_PROGRESS', :now, :expiresAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("recordKey") String recordKey,
+                       @Param("requestHash") String requestHash,
+                       @Param("now") LocalDateTime now,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Claim a key whose record has expired, or was left in progress by a request that never finished
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = 'IN_PROGRESS', r.responseStatus = NULL, " +
+            "r.contentType = NULL, r.responseBody = NULL, r.createdAt = :now, r.expiresAt = :expiresAt " +
+            "WHERE r.recordKey = :recordKey AND (r.expiresAt < :now OR (r.status = 'IN_PROGRESS' AND r.createdAt < :staleBefore))")
+    int takeOver(@Param("recordKey") String recordKey,
+                 @Param("requestHash") String requestHash,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, " +
+            "r.contentType = :contentType, r.responseBody = :responseBody WHERE r.recordKey = :recordKey")
+    int complete(@Param("recordKey") String recordKey,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType,
+                 @Param("responseBody") byte[] responseBody);
+
+    // Release a key whose request failed, so the client can retry it
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = :recordKey AND r.status = 'IN_PROGRESS'")
+    int deleteInProgress(@Param("recordKey") String recordKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,14 +1,25 @@
 package com.xeine.repository;
 
+import com.xeine.dto.response.InvoiceListItemDTO;
 import com.xeine.models.Invoice;
 import com.xeine.enums.InvoiceStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
@@ -17,10 +28,78 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query("SELECT i FROM Invoice i WHERE i.id = :invoiceId AND i.company.companyId = :companyId")
     Optional<Invoice> findActiveByIdAndCompany(@Param("invoiceId") Long invoiceId, @Param("companyId") Long companyId);
 
-    // Find all invoices by company
-    List<Invoice> findByCompanyCompanyIdOrderByCreatedAtDesc(Long companyId);
+    // Invoice detail: company, customer, quotation and items with their products in one query
+    @EntityGraph(Invoice.WITH_ITEMS_GRAPH)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :invoiceId AND i.company.companyId = :companyId")
+    Optional<Invoice> findDetailByIdAndCompany(@Param("invoiceId") Long invoiceId, @Param("companyId") Long companyId);
+
+    // First page of a company's invoice list as list rows, newest first (limit with Pageable)
+    @Query("SELECT new com.xeine.dto.response.InvoiceListItemDTO(i.id, i.invoiceNumber, i.invoiceDate, i.dueDate, " +
+            "c.customerId, c.customerName, i.totalAmount, i.outstandingAmount, i.status, i.createdAt) " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId ORDER BY i.createdAt DESC, i.id DESC")
+    List<InvoiceListItemDTO> findListPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    // Next page of the invoice list: rows after the (createdAt, id) of the previous page's last row
+    @Query("SELECT new com.xeine.dto.response.InvoiceListItemDTO(i.id, i.invoiceNumber, i.invoiceDate, i.dueDate, " +
+            "c.customerId, c.customerName, i.totalAmount, i.outstandingAmount, i.status, i.createdAt) " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId " +
+            "AND (i.createdAt < :afterCreatedAt OR (i.createdAt = :afterCreatedAt AND i.id < :afterId)) " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InvoiceListItemDTO> findListPageAfter(@Param("companyId") Long companyId,
+                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    // First page of a company's invoices in one stored status, newest first (limit with Pageable)
+    @Query("SELECT new com.xeine.dto.response.InvoiceListItemDTO(i.id, i.invoiceNumber, i.invoiceDate, i.dueDate, " +
+            "c.customerId, c.customerName, i.totalAmount, i.outstandingAmount, i.status, i.createdAt) " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId AND i.status = :status " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InvoiceListItemDTO> findListPageByStatus(@Param("companyId") Long companyId,
+                                                  @Param("status") InvoiceStatus status,
+                                                  Pageable pageable);
+
+    // Next page of the status-filtered invoice list
+    @Query("SELECT new com.xeine.dto.response.InvoiceListItemDTO(i.id, i.invoiceNumber, i.invoiceDate, i.dueDate, " +
+            "c.customerId, c.customerName, i.totalAmount, i.outstandingAmount, i.status, i.createdAt) " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId AND i.status = :status " +
+            "AND (i.createdAt < :afterCreatedAt OR (i.createdAt = :afterCreatedAt AND i.id < :afterId)) " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InvoiceListItemDTO> findListPageByStatusAfter(@Param("companyId") Long companyId,
+                                                       @Param("status") InvoiceStatus status,
+                                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    long countByCompanyCompanyId(Long companyId);
+
+    long countByCompanyCompanyIdAndStatus(Long companyId, InvoiceStatus status);
+
+    // Next chunk of open invoices past their due date, locked for the overdue sweep. Rows another node or a
+    // payment is holding are skipped and picked up by a later run.
+    @Query(value = "SELECT invoice_id, company_id, status FROM invoice " +
+            "WHERE status IN ('PENDING', 'PARTIALLY_PAID') AND due_date < :today AND outstanding_amount > 0 " +
+            "AND invoice_id > :afterId ORDER BY invoice_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> lockOverdueCandidates(@Param("today") LocalDate today,
+                                         @Param("afterId") Long afterId,
+                                         @Param("limit") int limit);
+
+    // Bulk status change for invoices locked by lockOverdueCandidates; bumps the version so concurrent
+    // entity updates fail their optimistic check instead of writing the old status back
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = com.xeine.enums.InvoiceStatus.OVERDUE, i.version = i.version + 1 " +
+            "WHERE i.id IN :ids AND i.status IN (com.xeine.enums.InvoiceStatus.PENDING, com.xeine.enums.InvoiceStatus.PARTIALLY_PAID)")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    // Invoices with company, customer, quotation and items for one batch of ids (unordered), for PDF rendering
+    @EntityGraph(Invoice.WITH_ITEMS_GRAPH)
+    @Query("SELECT i FROM Invoice i WHERE i.id IN :ids AND i.company.companyId = :companyId")
+    List<Invoice> findDetailsByIdsAndCompany(@Param("ids") Collection<Long> ids, @Param("companyId") Long companyId);
+
+    long countByIdInAndCompanyCompanyId(Collection<Long> ids, Long companyId);
 
     // Find invoice by quotation ID
+    @EntityGraph(Invoice.WITH_ITEMS_GRAPH)
     Optional<Invoice> findByQuotationQuotationIdAndCompanyCompanyId(Long quotationId, Long companyId);
 
     // Find invoices by customer
@@ -32,4 +111,128 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
 
     boolean existsByInvoiceNumberAndCompanyCompanyId(String invoiceNumber, Long companyId);
-}
\ No newline at end of file
+
+    // ===== REPORT AGGREGATES =====
+
+    // Single row: invoice count, paid, outstanding, discount and tax totals, invoices converted from a quotation, last invoice date
+    @Query("SELECT COUNT(i), COALESCE(SUM(i.paidAmount), 0), COALESCE(SUM(i.outstandingAmount), 0), " +
+            "COALESCE(SUM(i.discountAmount), 0), COALESCE(SUM(i.taxAmount), 0), " +
+            "COALESCE(SUM(CASE WHEN i.quotation IS NOT NULL THEN 1 ELSE 0 END), 0), MAX(i.invoiceDate) " +
+            "FROM Invoice i WHERE i.company.companyId = :companyId")
+    List<Object[]> getInvoiceTotalsByCompany(@Param("companyId") Long companyId);
+
+    // Invoice count per status
+    @Query("SELECT i.status, COUNT(i) FROM Invoice i WHERE i.company.companyId = :companyId GROUP BY i.status")
+    List<Object[]> getInvoiceCountByStatus(@Param("companyId") Long companyId);
+
+
+    // Per-product quantity sold, revenue and last sold date for invoices dated within the range
+    @Query("SELECT ii.product.productId, SUM(ii.quantity), COALESCE(SUM(ii.lineTotal), 0), MAX(i.invoiceDate) " +
+            "FROM InvoiceItem ii JOIN ii.invoice i WHERE i.company.companyId = :companyId " +
+            "AND i.invoiceDate BETWEEN :startDate AND :endDate GROUP BY ii.product.productId")
+    List<Object[]> getProductSalesBetween(@Param("companyId") Long companyId,
+                                          @Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
+
+    // Invoice report export rows, streamed: number, invoice date, due date, customer, quotation number,
+    // subtotal, tax, discount, total, paid, outstanding, status
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT i.invoiceNumber, i.invoiceDate, i.dueDate, c.customerName, q.quotationNumber, i.subtotal, i.taxAmount, " +
+            "i.discountAmount, i.totalAmount, i.paidAmount, i.outstandingAmount, i.status " +
+            "FROM Invoice i JOIN i.customer c LEFT JOIN i.quotation q " +
+            "WHERE i.company.companyId = :companyId AND i.invoiceDate >= :startDate ORDER BY i.createdAt DESC")
+    Stream<Object[]> streamInvoiceReportRows(@Param("companyId") Long companyId, @Param("startDate") LocalDate startDate);
+
+    // Scalar invoice columns for the in-memory analytics snapshot, streamed in ID order:
+    // id, invoice date, customer id, status, total, paid, outstanding
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT i.id, i.invoiceDate, i.customer.customerId, i.status, i.totalAmount, i.paidAmount, i.outstandingAmount " +
+            "FROM Invoice i WHERE i.company.companyId = :companyId ORDER BY i.id")
+    Stream<Object[]> streamAnalyticsColumns(@Param("companyId") Long companyId);
+
+    // Search index rows of a company's invoices, streamed: id, number, customer name, notes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT i.id, i.invoiceNumber, c.customerName, i.notes " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId ORDER BY i.id")
+    Stream<Object[]> streamSearchFields(@Param("companyId") Long companyId);
+
+    // Search index rows of a company's newest invoices, newest first (limit with Pageable)
+    @Query("SELECT i.id, i.invoiceNumber, c.customerName, i.notes " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId ORDER BY i.id DESC")
+    List<Object[]> findRecentSearchFields(@Param("companyId") Long companyId, Pageable pageable);
+
+    // List rows of the given invoices of a company, in no particular order
+    @Query("SELECT new com.xeine.dto.response.InvoiceListItemDTO(i.id, i.invoiceNumber, i.invoiceDate, i.dueDate, " +
+            "c.customerId, c.customerName, i.totalAmount, i.outstandingAmount, i.status, i.createdAt) " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId AND i.id IN :ids")
+    List<InvoiceListItemDTO> findListItemsByIds(@Param("companyId") Long companyId, @Param("ids") List<Long> ids);
+
+    // Ids for the first page of the invoice report in a date range, newest first (limit with Pageable)
+    @Query("SELECT i.id FROM Invoice i WHERE i.company.companyId = :companyId AND i.invoiceDate BETWEEN :from AND :to " +
+            "ORDER BY i.invoiceDate DESC, i.id DESC")
+    List<Long> findReportPageIds(@Param("companyId") Long companyId,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to,
+                                 Pageable pageable);
+
+    // Ids for the next page of the invoice report: rows after the (invoiceDate, id) of the previous page's last row
+    @Query("SELECT i.id FROM Invoice i WHERE i.company.companyId = :companyId AND i.invoiceDate BETWEEN :from AND :to " +
+            "AND (i.invoiceDate < :afterDate OR (i.invoiceDate = :afterDate AND i.id < :afterId)) " +
+            "ORDER BY i.invoiceDate DESC, i.id DESC")
+    List<Long> findReportPageIdsAfter(@Param("companyId") Long companyId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("afterDate") LocalDate afterDate,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    // Invoices with everything the report renders, for one page of ids (unordered)
+    @Query("SELECT DISTINCT i FROM Invoice i JOIN FETCH i.company JOIN FETCH i.customer LEFT JOIN FETCH i.quotation " +
+            "LEFT JOIN FETCH i.invoiceItems ii LEFT JOIN FETCH ii.product WHERE i.id IN :ids")
+    List<Invoice> findForReportByIds(@Param("ids") List<Long> ids);
+
+    // Ids of invoices not yet in the sales rollups (limit with Pageable)
+    @Query("SELECT i.id FROM Invoice i WHERE i.rolledUp = false ORDER BY i.id")
+    List<Long> findNotRolledUpIds(Pageable pageable);
+
+    // Item totals per (company, invoice day, product) of the given invoices; input to the daily product rollup
+    @Query("SELECT i.company.companyId, i.invoiceDate, ii.product.productId, SUM(ii.quantity), SUM(ii.lineTotal), SUM(ii.taxAmount) " +
+            "FROM InvoiceItem ii JOIN ii.invoice i WHERE i.id IN :ids " +
+            "GROUP BY i.company.companyId, i.invoiceDate, ii.product.productId")
+    List<Object[]> getProductSalesByIds(@Param("ids") List<Long> ids);
+
+    // Invoice totals per (company, invoice day, customer) of the given invoices; input to the daily customer rollup
+    @Query("SELECT i.company.companyId, i.invoiceDate, i.customer.customerId, COUNT(i), SUM(i.totalAmount), SUM(i.taxAmount), " +
+            "COALESCE(SUM(i.discountAmount), 0) FROM Invoice i WHERE i.id IN :ids " +
+            "GROUP BY i.company.companyId, i.invoiceDate, i.customer.customerId")
+    List<Object[]> getCustomerSalesByIds(@Param("ids") List<Long> ids);
+
+    // Mark invoices as applied to the sales rollups, in the transaction that applies them
+    @Modifying
+    @Query("UPDATE Invoice i SET i.rolledUp = true WHERE i.id IN :ids")
+    int markRolledUp(@Param("ids") List<Long> ids);
+
+    // Mark invoices created up to the old time-based rollup watermark as applied
+    @Modifying
+    @Query("UPDATE Invoice i SET i.rolledUp = true WHERE i.rolledUp = false AND i.createdAt <= :upTo")
+    int markRolledUpCreatedUpTo(@Param("upTo") LocalDateTime upTo);
+
+    // Open balances per customer split into aging buckets by due date: not yet due, 0-30, 31-60, 61-90 and 90+ days
+    // past due as of :asOf. The bucket boundaries are passed as dates (asOf minus 30/60/90 days) to keep the
+    // due date comparisons sargable.
+    @Query("SELECT c.customerId, c.customerName, COUNT(i), " +
+            "SUM(CASE WHEN i.dueDate IS NULL OR i.dueDate > :asOf THEN i.outstandingAmount ELSE 0 END), " +
+            "SUM(CASE WHEN i.dueDate <= :asOf AND i.dueDate >= :minus30 THEN i.outstandingAmount ELSE 0 END), " +
+            "SUM(CASE WHEN i.dueDate < :minus30 AND i.dueDate >= :minus60 THEN i.outstandingAmount ELSE 0 END), " +
+            "SUM(CASE WHEN i.dueDate < :minus60 AND i.dueDate >= :minus90 THEN i.outstandingAmount ELSE 0 END), " +
+            "SUM(CASE WHEN i.dueDate < :minus90 THEN i.outstandingAmount ELSE 0 END), " +
+            "SUM(i.outstandingAmount) " +
+            "FROM Invoice i JOIN i.customer c WHERE i.company.companyId = :companyId AND i.outstandingAmount > 0 " +
+            "AND i.status <> 'CANCELLED' " +
+            "GROUP BY c.customerId, c.customerName ORDER BY SUM(i.outstandingAmount) DESC, c.customerName")
+    List<Object[]> getReceivablesAgingByCustomer(@Param("companyId") Long companyId,
+                                                 @Param("asOf") LocalDate asOf,
+                                                 @Param("minus30") LocalDate minus30,
+                                                 @Param("minus60") LocalDate minus60,
+                                                 @Param("minus90") LocalDate minus90);
+}
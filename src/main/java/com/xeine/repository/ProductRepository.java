@@ -2,15 +2,22 @@ package com.xeine.repository;
 
 import com.xeine.enums.BusinessType;
 import com.xeine.models.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -20,10 +27,38 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find active products by company
     List<Product> findByCompanyCompanyIdAndIsActiveTrue(Long companyId);
 
+    // First page of a company's active products, newest first (limit with Pageable)
+    @Query("SELECT p FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true " +
+            "ORDER BY p.createdAt DESC, p.productId DESC")
+    List<Product> findActiveListPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    // Next page of active products: rows after the (createdAt, id) of the previous page's last row
+    @Query("SELECT p FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true " +
+            "AND (p.createdAt < :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.productId < :afterId)) " +
+            "ORDER BY p.createdAt DESC, p.productId DESC")
+    List<Product> findActiveListPageAfter(@Param("companyId") Long companyId,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    long countByCompanyCompanyIdAndIsActiveTrue(Long companyId);
+
+    // Product report export rows, streamed: id, name, type, HSN code, unit, cost price, selling price, stock, tax rate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT p.productId, p.productName, p.productType, p.hsnCode, p.unitOfMeasure, p.costPrice, p.sellingPrice, " +
+            "p.stockQuantity, p.taxRate FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true ORDER BY p.productId")
+    Stream<Object[]> streamProductReportRows(@Param("companyId") Long companyId);
+
     // Find active product by ID and company
     @Query("SELECT p FROM Product p WHERE p.productId = :productId AND p.company.companyId = :companyId AND p.isActive = true")
     Optional<Product> findActiveByIdAndCompany(@Param("productId") Long productId, @Param("companyId") Long companyId);
 
+    // Deduct stock only if enough is left; returns 0 when the product is short
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now, " +
+            "p.version = p.version + 1 WHERE p.productId = :productId AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
     // Find by product type and company (active only)
     List<Product> findByProductTypeAndCompanyCompanyIdAndIsActiveTrue(BusinessType productType, Long companyId);
 
@@ -152,6 +187,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p.hsnCode, COUNT(p) FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true GROUP BY p.hsnCode")
     List<Object[]> getProductCountByHsnCode(@Param("companyId") Long companyId);
 
+    // Group products by type (PRODUCT / SERVICE)
+    @Query("SELECT p.productType, COUNT(p) FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true GROUP BY p.productType")
+    List<Object[]> getProductCountByType(@Param("companyId") Long companyId);
+
+    // Count products created per calendar month
+    @Query("SELECT MONTH(p.createdAt), COUNT(p) FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true AND p.createdAt IS NOT NULL GROUP BY MONTH(p.createdAt)")
+    List<Object[]> getNewProductCountByMonth(@Param("companyId") Long companyId);
+
     // Group products by unit of measure
     @Query("SELECT p.unitOfMeasure, COUNT(p) FROM Product p WHERE p.company.companyId = :companyId AND p.isActive = true GROUP BY p.unitOfMeasure")
     List<Object[]> getProductCountByUnit(@Param("companyId") Long companyId);
@@ -1,6 +1,8 @@
 package com.xeine.repository;
 
+import com.xeine.dto.response.PurchaseOrderListItemDTO;
 import com.xeine.models.PurchaseOrder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,8 +21,25 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
     @Query("SELECT po FROM PurchaseOrder po WHERE po.purchaseOrderId = :poId AND po.company.companyId = :companyId")
     Optional<PurchaseOrder> findByIdAndCompany(@Param("poId") Long poId, @Param("companyId") Long companyId);
 
-    @Query("SELECT po FROM PurchaseOrder po WHERE po.company.companyId = :companyId ORDER BY po.createdAt DESC")
-    List<PurchaseOrder> findAllByCompanyId(@Param("companyId") Long companyId);
+    // First page of a company's purchase order list as list rows, newest first (limit with Pageable)
+    @Query("SELECT new com.xeine.dto.response.PurchaseOrderListItemDTO(po.purchaseOrderId, po.poNumber, po.poDate, " +
+            "po.vendorName, po.totalAmount, po.createdAt) FROM PurchaseOrder po WHERE po.company.companyId = :companyId " +
+            "ORDER BY po.createdAt DESC, po.purchaseOrderId DESC")
+    List<PurchaseOrderListItemDTO> findListPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    // Next page of the purchase order list: rows after the (createdAt, id) of the previous page's last row
+    @Query("SELECT new com.xeine.dto.response.PurchaseOrderListItemDTO(po.purchaseOrderId, po.poNumber, po.poDate, " +
+            "po.vendorName, po.totalAmount, po.createdAt) FROM PurchaseOrder po WHERE po.company.companyId = :companyId " +
+            "AND (po.createdAt < :afterCreatedAt OR (po.createdAt = :afterCreatedAt AND po.purchaseOrderId < :afterId)) " +
+            "ORDER BY po.createdAt DESC, po.purchaseOrderId DESC")
+    List<PurchaseOrderListItemDTO> findListPageAfter(@Param("companyId") Long companyId,
+                                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+
+    // Single row: number of purchase orders and their total value
+    @Query("SELECT COUNT(po), COALESCE(SUM(po.totalAmount), 0) FROM PurchaseOrder po WHERE po.company.companyId = :companyId")
+    List<Object[]> getTotalsByCompanyId(@Param("companyId") Long companyId);
 
     @Query("SELECT po FROM PurchaseOrder po WHERE po.poNumber = :poNumber")
     Optional<PurchaseOrder> findByPoNumber(@Param("poNumber") String poNumber);
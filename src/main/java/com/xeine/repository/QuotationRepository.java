@@ -1,17 +1,24 @@
 package com.xeine.repository;
 
+import com.xeine.dto.response.QuotationListItemDTO;
 import com.xeine.enums.QuotationStatus;
 import com.xeine.models.Quotation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface QuotationRepository extends JpaRepository<Quotation, Long> {
@@ -20,7 +27,43 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
     @Query("SELECT q FROM Quotation q WHERE q.quotationId = :quotationId AND q.company.companyId = :companyId")
     Optional<Quotation> findActiveByIdAndCompany(@Param("quotationId") Long quotationId, @Param("companyId") Long companyId);
 
-    List<Quotation> findByCompanyCompanyIdOrderByCreatedAtDesc(Long companyId);
+    // First page of a company's quotation list as list rows, newest first (limit with Pageable)
+    @Query("SELECT new com.xeine.dto.response.QuotationListItemDTO(q.quotationId, q.quotationNumber, q.quotationDate, " +
+            "c.customerId, c.customerName, q.totalAmount, q.status, q.createdAt) " +
+            "FROM Quotation q JOIN q.customer c WHERE q.company.companyId = :companyId " +
+            "ORDER BY q.createdAt DESC, q.quotationId DESC")
+    List<QuotationListItemDTO> findListPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    // Next page of the quotation list: rows after the (createdAt, id) of the previous page's last row
+    @Query("SELECT new com.xeine.dto.response.QuotationListItemDTO(q.quotationId, q.quotationNumber, q.quotationDate, " +
+            "c.customerId, c.customerName, q.totalAmount, q.status, q.createdAt) " +
+            "FROM Quotation q JOIN q.customer c WHERE q.company.companyId = :companyId " +
+            "AND (q.createdAt < :afterCreatedAt OR (q.createdAt = :afterCreatedAt AND q.quotationId < :afterId)) " +
+            "ORDER BY q.createdAt DESC, q.quotationId DESC")
+    List<QuotationListItemDTO> findListPageAfter(@Param("companyId") Long companyId,
+                                                 @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    // List rows of the given live quotations of a company, in no particular order
+    @Query("SELECT new com.xeine.dto.response.QuotationListItemDTO(q.quotationId, q.quotationNumber, q.quotationDate, " +
+            "c.customerId, c.customerName, q.totalAmount, q.status, q.createdAt) " +
+            "FROM Quotation q JOIN q.customer c WHERE q.company.companyId = :companyId AND q.deleted = false " +
+            "AND q.quotationId IN :ids")
+    List<QuotationListItemDTO> findListItemsByIds(@Param("companyId") Long companyId, @Param("ids") List<Long> ids);
+
+    // Search index rows of a company's live quotations, streamed: id, number, customer name, notes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT q.quotationId, q.quotationNumber, c.customerName, q.notes " +
+            "FROM Quotation q JOIN q.customer c WHERE q.company.companyId = :companyId AND q.deleted = false " +
+            "ORDER BY q.quotationId")
+    Stream<Object[]> streamSearchFields(@Param("companyId") Long companyId);
+
+    // Search index rows of a company's newest live quotations, newest first (limit with Pageable)
+    @Query("SELECT q.quotationId, q.quotationNumber, c.customerName, q.notes " +
+            "FROM Quotation q JOIN q.customer c WHERE q.company.companyId = :companyId AND q.deleted = false " +
+            "ORDER BY q.quotationId DESC")
+    List<Object[]> findRecentSearchFields(@Param("companyId") Long companyId, Pageable pageable);
 
 
    // List<Quotation> findByCustomerCustomerIdOrderByCreatedAtDesc(Long customerId);
@@ -29,7 +72,7 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
     List<Quotation> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
 
     @Modifying
-    @Query("UPDATE Quotation q SET q.deleted = true WHERE q.quotationId = :quotationId AND q.company.companyId = :companyId")
+    @Query("UPDATE Quotation q SET q.deleted = true, q.version = q.version + 1 WHERE q.quotationId = :quotationId AND q.company.companyId = :companyId")
     int softDeleteByIdAndCompany(@Param("quotationId") Long quotationId, @Param("companyId") Long companyId);
 
 
@@ -69,6 +112,21 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
     @Query("SELECT q FROM Quotation q WHERE q.quotationDate BETWEEN :startDate AND :endDate AND q.company.companyId = :companyId ORDER BY q.quotationDate DESC")
     List<Quotation> findByDateRange(@Param("companyId") Long companyId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    // Report variant: customer, company, items with products and the converted invoice loaded in the same query
+    @Query("SELECT q FROM Quotation q JOIN FETCH q.company JOIN FETCH q.customer " +
+            "LEFT JOIN FETCH q.quotationItems qi LEFT JOIN FETCH qi.product LEFT JOIN FETCH q.invoice " +
+            "WHERE q.company.companyId = :companyId AND q.quotationDate BETWEEN :startDate AND :endDate ORDER BY q.createdAt DESC")
+    List<Quotation> findForReportByDateRange(@Param("companyId") Long companyId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Quotation report export rows, streamed: number, date, customer, subtotal, tax, discount, total, status,
+    // item count, converted invoice number
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT q.quotationNumber, q.quotationDate, c.customerName, q.subtotal, q.taxAmount, q.discountAmount, " +
+            "q.totalAmount, q.status, SIZE(q.quotationItems), inv.invoiceNumber " +
+            "FROM Quotation q JOIN q.customer c LEFT JOIN q.invoice inv " +
+            "WHERE q.company.companyId = :companyId AND q.quotationDate BETWEEN :startDate AND :endDate ORDER BY q.createdAt DESC")
+    Stream<Object[]> streamQuotationReportRows(@Param("companyId") Long companyId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     @Query("SELECT q FROM Quotation q WHERE DATE(q.quotationDate) = :date AND q.company.companyId = :companyId ORDER BY q.createdAt DESC")
     List<Quotation> findByQuotationDate(@Param("companyId") Long companyId, @Param("date") LocalDate date);
 
@@ -101,6 +159,8 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
 
     boolean existsByQuotationNumberAndCompanyCompanyId(String quotationNumber, Long companyId);
 
+    long countByCompanyCompanyId(Long companyId);
+
 
     @Query("SELECT q FROM Quotation q WHERE q.company.companyId = :companyId ORDER BY q.quotationId DESC")
     List<Quotation> findLatestByCompany(@Param("companyId") Long companyId);
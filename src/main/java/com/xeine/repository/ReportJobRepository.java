@@ -0,0 +1,47 @@
+package com.xeine.repository;
+
+import com.xeine.enums.ReportJobStatus;
+import com.xeine.models.ReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    Optional<ReportJob> findByJobIdAndCompanyId(String jobId, Long companyId);
+
+    // Jobs for the same request that can be handed back instead of starting a new one:
+    // still in progress (and not stale), or completed with an unexpired result. Newest first.
+    @Query("SELECT j FROM ReportJob j WHERE j.companyId = :companyId AND j.requestKey = :requestKey AND (" +
+            "(j.status IN :activeStatuses AND j.createdAt > :staleBefore) OR " +
+            "(j.status = :completed AND j.expiresAt > :now)) ORDER BY j.createdAt DESC")
+    List<ReportJob> findReusableJobs(@Param("companyId") Long companyId,
+                                     @Param("requestKey") String requestKey,
+                                     @Param("activeStatuses") Collection<ReportJobStatus> activeStatuses,
+                                     @Param("completed") ReportJobStatus completed,
+                                     @Param("staleBefore") LocalDateTime staleBefore,
+                                     @Param("now") LocalDateTime now);
+
+    // Jobs whose result (or failure record) has outlived its expiry
+    @Query("SELECT j FROM ReportJob j WHERE j.status IN :statuses AND j.expiresAt < :now")
+    List<ReportJob> findExpiredJobs(@Param("statuses") Collection<ReportJobStatus> statuses, @Param("now") LocalDateTime now);
+
+    // Fail jobs left queued or running for too long, e.g. by a node that was restarted mid-job
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :failed, j.errorMessage = :message, j.completedAt = :now, j.expiresAt = :expiresAt " +
+            "WHERE j.status IN :activeStatuses AND j.createdAt < :staleBefore")
+    int failStaleJobs(@Param("activeStatuses") Collection<ReportJobStatus> activeStatuses,
+                      @Param("failed") ReportJobStatus failed,
+                      @Param("message") String message,
+                      @Param("staleBefore") LocalDateTime staleBefore,
+                      @Param("now") LocalDateTime now,
+                      @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -2,15 +2,22 @@ package com.xeine.repository;
 
 import com.xeine.models.Settlement;
 import com.xeine.enums.PaymentMethod;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SettlementRepository extends JpaRepository<Settlement, Long> {
@@ -29,6 +36,15 @@ public interface SettlementRepository extends JpaRepository<Settlement, Long> {
     List<Settlement> findByInvoiceCompanyCompanyIdAndSettlementDateBetweenOrderBySettlementDateDesc(
             Long companyId, LocalDate startDate, LocalDate endDate);
 
+    // Settlement report export rows, streamed: settlement date, invoice number, amount, payment method, reference,
+    // invoice total, invoice paid, invoice outstanding
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueryHints.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("SELECT s.settlementDate, i.invoiceNumber, s.amountPaid, s.paymentMethod, s.referenceNumber, " +
+            "i.totalAmount, i.paidAmount, i.outstandingAmount " +
+            "FROM Settlement s JOIN s.invoice i " +
+            "WHERE i.company.companyId = :companyId AND s.settlementDate BETWEEN :startDate AND :endDate ORDER BY s.settlementDate DESC")
+    Stream<Object[]> streamSettlementReportRows(@Param("companyId") Long companyId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     // Find settlements by payment method
     List<Settlement> findByInvoiceCompanyCompanyIdAndPaymentMethodOrderByCreatedAtDesc(
             Long companyId, PaymentMethod paymentMethod);
@@ -45,7 +61,30 @@ public interface SettlementRepository extends JpaRepository<Settlement, Long> {
     // Get settlements count by invoice
     Long countByInvoiceId(Long invoiceId);
 
+    // Get settlements count by company
+    long countByInvoiceCompanyCompanyId(Long companyId);
+
     // Find recent settlements
     @Query("SELECT s FROM Settlement s WHERE s.invoice.company.companyId = :companyId AND s.createdAt >= :since ORDER BY s.createdAt DESC")
     List<Settlement> findRecentSettlements(@Param("companyId") Long companyId, @Param("since") LocalDate since);
-}
\ No newline at end of file
+
+    // Ids of settlements not yet in the sales rollups (limit with Pageable)
+    @Query("SELECT s.settlementId FROM Settlement s WHERE s.rolledUp = false ORDER BY s.settlementId")
+    List<Long> findNotRolledUpIds(Pageable pageable);
+
+    // Payments per (company, invoice day, customer) of the given settlements; input to the daily customer rollup
+    @Query("SELECT i.company.companyId, i.invoiceDate, i.customer.customerId, SUM(s.amountPaid) " +
+            "FROM Settlement s JOIN s.invoice i WHERE s.settlementId IN :ids " +
+            "GROUP BY i.company.companyId, i.invoiceDate, i.customer.customerId")
+    List<Object[]> getCustomerPaymentsByIds(@Param("ids") List<Long> ids);
+
+    // Mark settlements as applied to the sales rollups, in the transaction that applies them
+    @Modifying
+    @Query("UPDATE Settlement s SET s.rolledUp = true WHERE s.settlementId IN :ids")
+    int markRolledUp(@Param("ids") List<Long> ids);
+
+    // Mark settlements created up to the old time-based rollup watermark as applied
+    @Modifying
+    @Query("UPDATE Settlement s SET s.rolledUp = true WHERE s.rolledUp = false AND s.createdAt <= :upTo")
+    int markRolledUpCreatedUpTo(@Param("upTo") LocalDateTime upTo);
+}
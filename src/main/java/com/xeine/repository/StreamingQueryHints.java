@@ -0,0 +1,13 @@
+package com.xeine.repository;
+
+/**
+ * Hint values for repository methods that return a {@link java.util.stream.Stream}.
+ */
+public final class StreamingQueryHints {
+
+    // MySQL Connector/J only streams rows one at a time (instead of buffering the whole result) with this fetch size
+    public static final String MYSQL_STREAMING_FETCH_SIZE = "-2147483648";
+
+    private StreamingQueryHints() {
+    }
+}
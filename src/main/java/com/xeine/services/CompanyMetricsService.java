@@ -0,0 +1,185 @@
+package com.xeine.services;
+
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.models.CompanyMetrics;
+import com.xeine.models.Invoice;
+import com.xeine.models.Settlement;
+import com.xeine.repository.CompanyMetricsRepository;
+import com.xeine.repository.CompanyRepository;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.SettlementRepository;
+import com.xeine.utils.money.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Maintains the company_metrics read model. Writers call the record* methods inside their own
+ * transaction so the totals move together with the invoice/settlement rows.
+ */
+@Service
+@Slf4j
+public class CompanyMetricsService {
+
+    @Autowired
+    private CompanyMetricsRepository companyMetricsRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    /**
+     * Apply a newly saved invoice to the company totals
+     */
+    @Transactional
+    public void recordInvoiceCreated(Invoice invoice) {
+        recordInvoicesCreated(invoice.getCompany().getCompanyId(), List.of(invoice));
+    }
+
+    /**
+     * Apply a batch of newly saved invoices of one company with a single delta update
+     */
+    @Transactional
+    public void recordInvoicesCreated(Long companyId, List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        Money outstanding = Money.ZERO;
+        Money discount = Money.ZERO;
+        Money tax = Money.ZERO;
+        long converted = 0;
+        LocalDate lastInvoiceDate = null;
+        for (Invoice invoice : invoices) {
+            outstanding = outstanding.plus(Money.of(invoice.getOutstandingAmount()));
+            discount = discount.plus(Money.of(invoice.getDiscountAmount()));
+            tax = tax.plus(Money.of(invoice.getTaxAmount()));
+            if (invoice.getQuotation() != null) {
+                converted++;
+            }
+            if (lastInvoiceDate == null || invoice.getInvoiceDate().isAfter(lastInvoiceDate)) {
+                lastInvoiceDate = invoice.getInvoiceDate();
+            }
+        }
+
+        companyRepository.incrementInvoiceCount(companyId, (long) invoices.size());
+
+        BigDecimal outstandingTotal = outstanding.toBigDecimal();
+        BigDecimal discountTotal = discount.toBigDecimal();
+        BigDecimal taxTotal = tax.toBigDecimal();
+        long convertedCount = converted;
+        LocalDate latest = lastInvoiceDate;
+        applyOrSeed(companyId, () -> companyMetricsRepository.applyInvoicesCreated(
+                companyId, invoices.size(), outstandingTotal, discountTotal, taxTotal, convertedCount, latest));
+    }
+
+    /**
+     * Apply a newly saved settlement and the status change it caused on its invoice
+     */
+    @Transactional
+    public void recordSettlementCreated(Settlement settlement, InvoiceStatus previousStatus) {
+        Invoice invoice = settlement.getInvoice();
+        Long companyId = invoice.getCompany().getCompanyId();
+
+        long[] statusDelta = new long[InvoiceStatus.values().length];
+        if (previousStatus != invoice.getStatus()) {
+            statusDelta[previousStatus.ordinal()]--;
+            statusDelta[invoice.getStatus().ordinal()]++;
+        }
+
+        applyOrSeed(companyId, () -> companyMetricsRepository.applySettlementCreated(
+                companyId,
+                settlement.getAmountPaid(),
+                statusDelta[InvoiceStatus.PENDING.ordinal()],
+                statusDelta[InvoiceStatus.PARTIALLY_PAID.ordinal()],
+                statusDelta[InvoiceStatus.PAID.ordinal()],
+                statusDelta[InvoiceStatus.OVERDUE.ordinal()],
+                statusDelta[InvoiceStatus.CANCELLED.ordinal()]));
+    }
+
+    /**
+     * Apply invoice status changes that came without a payment; statusDelta is indexed by InvoiceStatus ordinal
+     */
+    @Transactional
+    public void recordStatusChanges(Long companyId, long[] statusDelta) {
+        applyOrSeed(companyId, () -> companyMetricsRepository.applyStatusChanges(
+                companyId,
+                statusDelta[InvoiceStatus.PENDING.ordinal()],
+                statusDelta[InvoiceStatus.PARTIALLY_PAID.ordinal()],
+                statusDelta[InvoiceStatus.PAID.ordinal()],
+                statusDelta[InvoiceStatus.OVERDUE.ordinal()],
+                statusDelta[InvoiceStatus.CANCELLED.ordinal()]));
+    }
+
+    /**
+     * Get the metrics row for a company, building it on first access
+     */
+    @Transactional
+    public CompanyMetrics getMetrics(Long companyId) {
+        return companyMetricsRepository.findById(companyId)
+                .orElseGet(() -> rebuildMetrics(companyId));
+    }
+
+    /**
+     * Recompute the metrics row from the invoice and settlement tables. The row is created if missing and
+     * locked first, so concurrent callers queue behind the rebuild instead of inserting the same row twice.
+     */
+    @Transactional
+    public CompanyMetrics rebuildMetrics(Long companyId) {
+        log.info("Rebuilding company metrics for company {}", companyId);
+
+        companyMetricsRepository.insertIfAbsent(companyId);
+        CompanyMetrics metrics = companyMetricsRepository.findByIdForUpdate(companyId)
+                .orElseThrow(() -> new IllegalStateException("No metrics row for company " + companyId));
+
+        Object[] totals = invoiceRepository.getInvoiceTotalsByCompany(companyId).get(0);
+        metrics.setInvoiceCount(((Number) totals[0]).longValue());
+        metrics.setTotalRevenue((BigDecimal) totals[1]);
+        metrics.setOutstandingAmount((BigDecimal) totals[2]);
+        metrics.setTotalDiscounts((BigDecimal) totals[3]);
+        metrics.setTotalTax((BigDecimal) totals[4]);
+        metrics.setConvertedInvoiceCount(((Number) totals[5]).longValue());
+        metrics.setLastInvoiceDate((LocalDate) totals[6]);
+        metrics.setSettlementCount(settlementRepository.countByInvoiceCompanyCompanyId(companyId));
+
+        long[] statusCounts = new long[InvoiceStatus.values().length];
+        for (Object[] row : invoiceRepository.getInvoiceCountByStatus(companyId)) {
+            statusCounts[((InvoiceStatus) row[0]).ordinal()] = ((Number) row[1]).longValue();
+        }
+        metrics.setPendingCount(statusCounts[InvoiceStatus.PENDING.ordinal()]);
+        metrics.setPartiallyPaidCount(statusCounts[InvoiceStatus.PARTIALLY_PAID.ordinal()]);
+        metrics.setPaidCount(statusCounts[InvoiceStatus.PAID.ordinal()]);
+        metrics.setOverdueCount(statusCounts[InvoiceStatus.OVERDUE.ordinal()]);
+        metrics.setCancelledCount(statusCounts[InvoiceStatus.CANCELLED.ordinal()]);
+        metrics.setUpdatedAt(LocalDateTime.now());
+
+        return companyMetricsRepository.save(metrics);
+    }
+
+    /**
+     * Apply a delta to the company's row. With no row yet, one is inserted: the transaction that inserts it
+     * fills it from the tables, which already include its own rows, so its delta is not applied again. A
+     * transaction that loses the insert waits for the winner to commit and then applies its delta as usual.
+     */
+    private void applyOrSeed(Long companyId, IntSupplier applyDelta) {
+        if (applyDelta.getAsInt() > 0) {
+            return;
+        }
+        if (companyMetricsRepository.insertIfAbsent(companyId) > 0) {
+            rebuildMetrics(companyId);
+        } else {
+            applyDelta.getAsInt();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.xeine.services;
 
 import com.xeine.dto.request.CompanyUpdateRequest;
 import com.xeine.dto.response.CompanyResponseDTO;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.CompanyNotFoundException;
 import com.xeine.exception.DuplicateResourceException;
 import com.xeine.models.Company;
@@ -29,6 +30,9 @@ public class CompanyService {
     @Autowired
     private ImageUploadService imageUploadService;
 
+    @Autowired
+    private ReportCacheService reportCacheService;
+
     public CompanyResponseDTO getCompanyById(Long companyId) {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new CompanyNotFoundException("Company not found with ID: " + companyId));
@@ -79,6 +83,9 @@ public class CompanyService {
 
         // Save updated company
         Company updatedCompany = companyRepository.save(existingCompany);
+        // The company name is on every report row; the company report also shows its contact details
+        reportCacheService.invalidate(companyId,
+                ReportType.INVOICES, ReportType.QUOTATIONS, ReportType.PRODUCTS, ReportType.COMPANY);
 
         log.info("Successfully updated company with ID: {}", companyId);
         return convertToResponseDTO(updatedCompany);
@@ -1,7 +1,9 @@
 package com.xeine.services;
 
 import com.xeine.dto.request.CustomerRequestDTO;
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.CustomerResponseDTO;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.CompanyNotFoundException;
 import com.xeine.exception.CustomerNotFoundException;
 import com.xeine.exception.DuplicateResourceException;
@@ -9,6 +11,8 @@ import com.xeine.models.Company;
 import com.xeine.models.Customer;
 import com.xeine.repository.CompanyRepository;
 import com.xeine.repository.CustomerRepository;
+import com.xeine.utils.pagination.KeysetCursor;
+import com.xeine.utils.pagination.KeysetPages;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +20,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +38,12 @@ public class CustomerService {
     @Autowired
     private ImageUploadService imageUploadService;
 
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
     /**
      * Get all customers
      */
@@ -45,20 +56,25 @@ public class CustomerService {
     }
 
     /**
-     * Get customers by company ID
+     * Get one page of a company's customers, newest first
      */
     @Transactional(readOnly = true)
-    public List<CustomerResponseDTO> getCustomersByCompany(Long companyId) {
+    public CursorPageDTO<CustomerResponseDTO> getCustomersByCompany(Long companyId, String cursor, Integer size,
+                                                                    boolean includeTotal) {
 
         // Verify company exists
         if (!companyRepository.existsById(companyId)) {
             throw new CompanyNotFoundException("Company not found with ID: " + companyId);
         }
 
-        return customerRepository.findByCompanyCompanyId(companyId)
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPages.pageSize(size);
+        List<Customer> customers = after == null
+                ? customerRepository.findListPage(companyId, KeysetPages.lookAhead(pageSize))
+                : customerRepository.findListPageAfter(companyId, after.createdAt(), after.id(), KeysetPages.lookAhead(pageSize));
+        return KeysetPages.page(customers, pageSize,
+                customer -> new KeysetCursor(customer.getCreatedAt(), customer.getCustomerId()), this::toDTO,
+                includeTotal, () -> customerRepository.countByCompanyCompanyId(companyId));
     }
 
     /**
@@ -125,6 +141,7 @@ public class CustomerService {
         System.out.println("🔵 Before save - customer.getCustomerImage(): '" + customer.getCustomerImage() + "'");
 
         Customer savedCustomer = customerRepository.save(customer);
+        reportCacheService.invalidate(company.getCompanyId(), ReportType.COMPANY);
 
         return toDTO(savedCustomer);
     }
@@ -145,6 +162,8 @@ public class CustomerService {
                 .orElseThrow(() -> new CompanyNotFoundException("Company not found with ID: " + dto.getCompanyId()));
 
         // Update customer fields
+        String previousName = customer.getCustomerName();
+        Long previousCompanyId = customer.getCompany().getCompanyId();
         customer.setCustomerName(dto.getCustomerName());
         customer.setEmail(dto.getEmail());
         customer.setMobile(dto.getMobile());
@@ -155,6 +174,10 @@ public class CustomerService {
         customer.setUpdatedAt(LocalDateTime.now());
 
         Customer updatedCustomer = customerRepository.save(customer);
+        invalidateCustomerReports(previousCompanyId, !Objects.equals(previousName, updatedCustomer.getCustomerName()));
+        if (!previousCompanyId.equals(company.getCompanyId())) {
+            invalidateCustomerReports(company.getCompanyId(), false);
+        }
 
 
         return toDTO(updatedCustomer);
@@ -195,6 +218,8 @@ public class CustomerService {
         }
 
         // Update customer fields
+        String previousName = customer.getCustomerName();
+        Long previousCompanyId = customer.getCompany().getCompanyId();
         customer.setCustomerName(dto.getCustomerName());
         customer.setEmail(dto.getEmail());
         customer.setMobile(dto.getMobile());
@@ -205,6 +230,10 @@ public class CustomerService {
         customer.setUpdatedAt(LocalDateTime.now());
 
         Customer updatedCustomer = customerRepository.save(customer);
+        invalidateCustomerReports(previousCompanyId, !Objects.equals(previousName, updatedCustomer.getCustomerName()));
+        if (!previousCompanyId.equals(company.getCompanyId())) {
+            invalidateCustomerReports(company.getCompanyId(), false);
+        }
 
 
         return toDTO(updatedCustomer);
@@ -299,6 +328,7 @@ public class CustomerService {
         }
 
         customerRepository.delete(customer);
+        reportCacheService.invalidate(customer.getCompany().getCompanyId(), ReportType.COMPANY);
 
     }
 
@@ -367,6 +397,18 @@ public class CustomerService {
     /**
      * Convert Customer entity to DTO
      */
+    /**
+     * Drop the company's cached reports that show customer details; a rename also changes what its invoices and
+     * quotations are found by
+     */
+    private void invalidateCustomerReports(Long companyId, boolean renamed) {
+        reportCacheService.invalidate(companyId,
+                ReportType.INVOICES, ReportType.QUOTATIONS, ReportType.AGING, ReportType.COMPANY);
+        if (renamed) {
+            documentSearchService.rebuild(companyId);
+        }
+    }
+
     private CustomerResponseDTO toDTO(Customer customer) {
 
         System.out.println("🔵 Input customer.getCustomerImage(): '" + customer.getCustomerImage() + "'");
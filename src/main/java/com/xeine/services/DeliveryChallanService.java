@@ -1,18 +1,21 @@
 package com.xeine.services;
 
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.DeliveryChallanResponseDTO;
 import com.xeine.dto.response.DeliveryChallanItemResponseDTO;
+import com.xeine.enums.DocumentType;
 import com.xeine.models.*;
 import com.xeine.repository.DeliveryChallanRepository;
 import com.xeine.repository.InvoiceRepository;
 import com.xeine.exception.InvoiceNotFoundException;
+import com.xeine.utils.pagination.KeysetCursor;
+import com.xeine.utils.pagination.KeysetPages;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +29,9 @@ public class DeliveryChallanService {
     @Autowired
     private InvoiceRepository invoiceRepository;
 
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
     /**
      * Create simple delivery challan from invoice
      */
@@ -46,9 +52,6 @@ public class DeliveryChallanService {
         // Create new delivery challan
         DeliveryChallan deliveryChallan = new DeliveryChallan();
 
-        // Generate challan number
-        deliveryChallan.setChallanNumber(generateChallanNumber(invoice.getCompany().getCompanyId()));
-
         // Copy data from invoice
         deliveryChallan.copyFromInvoice(invoice);
 
@@ -59,6 +62,10 @@ public class DeliveryChallanService {
             deliveryChallan.setDeliveryDate(LocalDate.now());
         }
 
+        // Next number in the company's challan series for the fiscal year of the delivery date
+        deliveryChallan.setChallanNumber(documentNumberService.next(DocumentType.DELIVERY_CHALLAN,
+                invoice.getCompany().getCompanyId(), deliveryChallan.getDeliveryDate()));
+
         // Set simple fields from request
         deliveryChallan.setPaymentMode(deliveryChallanRequest.getPaymentMode());
         deliveryChallan.setNotes(deliveryChallanRequest.getNotes());
@@ -113,19 +120,28 @@ public class DeliveryChallanService {
     }
 
     /**
-     * Get all delivery challans for a company
+     * Get one page of a company's delivery challans, newest first
      */
-    public List<DeliveryChallanResponseDTO> getDeliveryChallansByCompany(Long companyId) {
+    public CursorPageDTO<DeliveryChallanResponseDTO> getDeliveryChallansByCompany(Long companyId, String cursor,
+                                                                                  Integer size, boolean includeTotal) {
         log.info("Retrieving delivery challans for company: {}", companyId);
 
-        List<DeliveryChallan> deliveryChallans = deliveryChallanRepository.findByInvoice_Company_CompanyIdOrderByCreatedAtDesc(companyId);
-
-        List<DeliveryChallanResponseDTO> responseDTOs = deliveryChallans.stream()
-                .map(this::convertToResponseDTO)
-                .toList();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPages.pageSize(size);
+        List<Long> ids = after == null
+                ? deliveryChallanRepository.findListPageIds(companyId, KeysetPages.lookAhead(pageSize))
+                : deliveryChallanRepository.findListPageIdsAfter(companyId, after.createdAt(), after.id(), KeysetPages.lookAhead(pageSize));
+        CursorPageDTO<DeliveryChallanResponseDTO> page = KeysetPages.pageByIds(ids, pageSize,
+                deliveryChallanRepository::findWithItemsByIds, DeliveryChallan::getDeliveryChallanId,
+                challan -> new KeysetCursor(challan.getCreatedAt(), challan.getDeliveryChallanId()),
+                this::convertToResponseDTO, includeTotal, () -> countDeliveryChallansByCompany(companyId));
+
+        log.info("Retrieved {} delivery challans for company: {}", page.getItems().size(), companyId);
+        return page;
+    }
 
-        log.info("Retrieved {} delivery challans for company: {}", responseDTOs.size(), companyId);
-        return responseDTOs;
+    public long countDeliveryChallansByCompany(Long companyId) {
+        return deliveryChallanRepository.countByInvoice_Company_CompanyId(companyId);
     }
 
     /**
@@ -191,15 +207,6 @@ public class DeliveryChallanService {
         log.info("Successfully deleted delivery challan: {}", challan.getChallanNumber());
     }
 
-    /**
-     * Generate unique challan number
-     */
-    private String generateChallanNumber(Long companyId) {
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = deliveryChallanRepository.count() + 1;
-        return String.format("DC%d-%s-%04d", companyId, dateStr, count);
-    }
-
     /**
      * Convert DeliveryChallan entity to ResponseDTO
      */
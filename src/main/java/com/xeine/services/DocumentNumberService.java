@@ -0,0 +1,188 @@
+package com.xeine.services;
+
+import com.xeine.enums.DocumentType;
+import com.xeine.repository.DocumentNumberPoolRepository;
+import com.xeine.repository.DocumentSequenceRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gapless sequential document numbers per (company, document type, fiscal year), e.g. INV/26-27/00042.
+ * <p>
+ * Each series has a counter row in document_sequences. When a series has no free numbers, the next
+ * numbering.block-size numbers are reserved from the counter in a short transaction of their own and stored as
+ * rows of document_number_pool, so the counter row is locked once per block rather than once per document. A
+ * document takes the lowest free number by deleting its pool row inside the document's own transaction, skipping
+ * rows other transactions hold. If that transaction rolls back, or the node dies before it commits, the delete is
+ * undone and the number is issued again; a number is therefore either on a committed document or still in the
+ * pool, on any number of nodes. Numbers can be issued slightly out of date order when a lower number comes back
+ * to the pool after higher ones were issued; set the block size to 1 and numbers are also issued in order, at the
+ * cost of concurrent documents of one series waiting for each other.
+ * <p>
+ * Formats support {FY} (26-27), {FYYYY} (2026-27), {COMPANY} (company ID) and {SEQ} or {SEQ:n} (zero-padded
+ * to n digits).
+ */
+@Service
+@Slf4j
+public class DocumentNumberService {
+
+    private static final Pattern TOKEN = Pattern.compile("\\{(FY|FYYYY|COMPANY|SEQ)(?::(\\d{1,2}))?}");
+    // Numbers of a refilled block can all be taken by concurrent documents before this one gets to them
+    private static final int MAX_REFILLS = 5;
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    @Autowired
+    private DocumentNumberPoolRepository documentNumberPoolRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${numbering.block-size:20}")
+    private int blockSize;
+
+    @Value("${numbering.fiscal-year-start-month:4}")
+    private int fiscalYearStartMonth;
+
+    @Value("${numbering.format.invoice:INV/{FY}/{SEQ:5}}")
+    private String invoiceFormat;
+
+    @Value("${numbering.format.quotation:QUOT/{FY}/{SEQ:5}}")
+    private String quotationFormat;
+
+    // Challan numbers are unique across companies, so the format must include {COMPANY}
+    @Value("${numbering.format.delivery-challan:DC{COMPANY}/{FY}/{SEQ:5}}")
+    private String deliveryChallanFormat;
+
+    private record SeriesKey(Long companyId, DocumentType documentType, int fiscalYear) {
+    }
+
+    private final Map<DocumentType, String> formats = new EnumMap<>(DocumentType.class);
+
+    private TransactionTemplate documentTransaction;
+    private TransactionTemplate reserveTransaction;
+
+    @PostConstruct
+    void init() {
+        if (blockSize < 1) {
+            throw new IllegalStateException("numbering.block-size must be at least 1");
+        }
+        if (fiscalYearStartMonth < 1 || fiscalYearStartMonth > 12) {
+            throw new IllegalStateException("numbering.fiscal-year-start-month must be between 1 and 12");
+        }
+        formats.put(DocumentType.INVOICE, requireSequence(invoiceFormat, "invoice"));
+        formats.put(DocumentType.QUOTATION, requireSequence(quotationFormat, "quotation"));
+        formats.put(DocumentType.DELIVERY_CHALLAN, requireSequence(deliveryChallanFormat, "delivery-challan"));
+        if (!deliveryChallanFormat.contains("{COMPANY}")) {
+            throw new IllegalStateException("numbering.format.delivery-challan must contain {COMPANY}");
+        }
+
+        // A number is only gapless if it is taken in the transaction that saves the document
+        documentTransaction = new TransactionTemplate(transactionManager);
+        documentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+
+        // The counter row is committed and unlocked right away, independent of the document's transaction
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Issue the next number of the series the document date falls in. Must be called in the transaction that
+     * saves the document; the number goes back to the pool if that transaction rolls back.
+     */
+    public String next(DocumentType documentType, Long companyId, LocalDate documentDate) {
+        int fiscalYear = fiscalYearOf(documentDate != null ? documentDate : LocalDate.now());
+        SeriesKey key = new SeriesKey(companyId, documentType, fiscalYear);
+        Long value = documentTransaction.execute(status -> take(key));
+        return format(formats.get(documentType), companyId, fiscalYear, value);
+    }
+
+    int fiscalYearOf(LocalDate date) {
+        return date.getMonthValue() >= fiscalYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    private long take(SeriesKey key) {
+        for (int attempt = 0; attempt <= MAX_REFILLS; attempt++) {
+            List<Object[]> free = documentNumberPoolRepository.lockLowestFree(
+                    key.companyId(), key.documentType().name(), key.fiscalYear());
+            if (!free.isEmpty()) {
+                documentNumberPoolRepository.deleteEntry(((Number) free.get(0)[0]).longValue());
+                return ((Number) free.get(0)[1]).longValue();
+            }
+            if (attempt < MAX_REFILLS) {
+                reserveBlock(key);
+            }
+        }
+        throw new IllegalStateException("Could not issue a number for " + key);
+    }
+
+    // Move the next block of the counter into the pool
+    private void reserveBlock(SeriesKey key) {
+        long blockEnd = reserveTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (documentSequenceRepository.reserveBlock(key.companyId(), key.documentType(), key.fiscalYear(),
+                    blockSize, now) == 0) {
+                documentSequenceRepository.insertIfAbsent(key.companyId(), key.documentType().name(),
+                        key.fiscalYear(), now);
+                documentSequenceRepository.reserveBlock(key.companyId(), key.documentType(), key.fiscalYear(),
+                        blockSize, now);
+            }
+            long end = documentSequenceRepository.findNextValue(key.companyId(), key.documentType(), key.fiscalYear())
+                    .orElseThrow(() -> new IllegalStateException("Document sequence row missing for " + key));
+            for (long value = end - blockSize; value < end; value++) {
+                documentNumberPoolRepository.insertFree(key.companyId(), key.documentType().name(),
+                        key.fiscalYear(), value);
+            }
+            return end;
+        });
+        log.debug("Reserved {} numbers up to {} for {}", blockSize, blockEnd - 1, key);
+    }
+
+    private String format(String pattern, Long companyId, int fiscalYear, long value) {
+        Matcher matcher = TOKEN.matcher(pattern);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String replacement = switch (matcher.group(1)) {
+                case "FY" -> fiscalYearLabel(fiscalYear, false);
+                case "FYYYY" -> fiscalYearLabel(fiscalYear, true);
+                case "COMPANY" -> String.valueOf(companyId);
+                default -> matcher.group(2) != null
+                        ? String.format("%0" + matcher.group(2) + "d", value)
+                        : String.valueOf(value);
+            };
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private String fiscalYearLabel(int fiscalYear, boolean fullStartYear) {
+        String start = fullStartYear ? String.valueOf(fiscalYear) : String.format("%02d", fiscalYear % 100);
+        if (fiscalYearStartMonth == 1) {
+            return start;
+        }
+        return start + "-" + String.format("%02d", (fiscalYear + 1) % 100);
+    }
+
+    private static String requireSequence(String format, String name) {
+        if (!format.contains("{SEQ")) {
+            throw new IllegalStateException("numbering.format." + name + " must contain {SEQ} or {SEQ:n}");
+        }
+        return format;
+    }
+}
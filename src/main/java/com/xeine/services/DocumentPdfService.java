@@ -0,0 +1,677 @@
+package com.xeine.services;
+
+import com.xeine.exception.BusinessValidationException;
+import com.xeine.exception.InvoiceNotFoundException;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.DeliveryChallan;
+import com.xeine.models.DeliveryChallanItem;
+import com.xeine.models.Invoice;
+import com.xeine.models.InvoiceItem;
+import com.xeine.repository.DeliveryChallanRepository;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.utils.pdf.PdfFont;
+import com.xeine.utils.pdf.PdfFonts;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Renders invoices and delivery challans as A4 PDFs, streamed straight to the response.
+ * <p>
+ * Documents are first read into a {@link PdfDocument} inside a short read-only transaction and then laid out
+ * without touching the database, with PDFBox. The company letterhead is laid out once per company and cached,
+ * so repeated and bulk renders only measure and wrap the document body. Text is drawn with the TrueType fonts
+ * in pdf.font.regular and pdf.font.bold, by default the DejaVu Sans fonts shipped on the classpath, read once
+ * at startup and embedded into each file as subsets; characters they do not cover print as "?". Startup fails if
+ * the fonts cannot be read. Bulk mode reads invoices in batches and renders them into one file buffered in a
+ * temporary file, so memory use does not grow with the number of invoices. Bulk runs log their rendering
+ * throughput in documents per CPU-second, i.e. per core.
+ */
+@Service
+@Slf4j
+public class DocumentPdfService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    private static final float LEFT = 40;
+    private static final float RIGHT = PDRectangle.A4.getWidth() - 40;
+    private static final float TOP = PDRectangle.A4.getHeight() - 40;
+    private static final float LETTERHEAD_WIDTH = 330;
+    private static final float LETTERHEAD_RULE = TOP - 64;
+    private static final float BODY_TOP = LETTERHEAD_RULE - 18;
+    private static final float BOTTOM = 64;
+    private static final float FOOTER = 30;
+    private static final float LINE_HEIGHT = 12;
+    private static final float ROW_HEIGHT = 15;
+
+    // Item table columns: number and description are left-aligned, the rest right-aligned at these edges
+    private static final float COL_DESCRIPTION = LEFT + 22;
+    private static final float DESCRIPTION_WIDTH = 206;
+    private static final float COL_QUANTITY = 318;
+    private static final float COL_UNIT_PRICE = 388;
+    private static final float COL_TAX_RATE = 434;
+    private static final float COL_TAX = 492;
+    private static final float COL_AMOUNT = RIGHT;
+    private static final float COL_DETAIL_LABEL = 360;
+    private static final float COL_TOTAL_LABEL = 470;
+
+    /**
+     * Company block at the top of every page; also the key of the letterhead cache
+     */
+    public record Letterhead(Long companyId, String name, String address, String locality, String contact,
+                             String gstNumber) {
+    }
+
+    public record Field(String label, String value, boolean emphasis) {
+    }
+
+    public record Line(String description, String quantity, String unitPrice, String taxRate, String taxAmount,
+                       String amount) {
+    }
+
+    /**
+     * Everything needed to draw one document, already formatted and with its text prepared for the fonts
+     */
+    public record PdfDocument(String fileName, Letterhead letterhead, String title, String number,
+                              String partyHeading, List<String> partyLines, List<Field> details, List<Line> lines,
+                              List<Field> totals, String notes, List<Field> signatures) {
+    }
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private DeliveryChallanRepository deliveryChallanRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${pdf.template-cache.max-entries:256}")
+    private int maxCachedLetterheads;
+
+    @Value("${pdf.bulk.max-documents:500}")
+    private int maxBulkDocuments;
+
+    @Value("${pdf.bulk.batch-size:50}")
+    private int bulkBatchSize;
+
+    @Value("${pdf.font.regular:classpath:fonts/DejaVuSans.ttf}")
+    private Resource regularFont;
+
+    @Value("${pdf.font.bold:classpath:fonts/DejaVuSans-Bold.ttf}")
+    private Resource boldFont;
+
+    // Access-ordered LRU of laid-out letterheads, guarded by itself
+    private final LinkedHashMap<Letterhead, LetterheadLayout> letterheads = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private TransactionTemplate readOnlyTransaction;
+    private PdfFonts fonts;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        fonts = loadFonts();
+    }
+
+    private PdfFonts loadFonts() {
+        try {
+            PdfFonts loaded = PdfFonts.load(read(regularFont), read(boldFont));
+            log.info("PDF fonts: {} and {}", loaded.regular().getName(), loaded.bold().getName());
+            return loaded;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load PDF fonts " + regularFont.getDescription() + " and "
+                    + boldFont.getDescription(), e);
+        }
+    }
+
+    private static byte[] read(Resource font) throws IOException {
+        if (!font.exists()) {
+            throw new IllegalStateException("PDF font not found: " + font.getDescription());
+        }
+        try (InputStream in = font.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    public PdfDocument loadInvoice(Long invoiceId, Long companyId) {
+        return readOnlyTransaction.execute(status -> invoiceRepository.findDetailByIdAndCompany(invoiceId, companyId)
+                .map(this::toDocument)
+                .orElseThrow(() -> new InvoiceNotFoundException("Invoice not found with ID: " + invoiceId)));
+    }
+
+    public PdfDocument loadDeliveryChallan(Long challanId) {
+        return readOnlyTransaction.execute(status -> deliveryChallanRepository.findWithItemsByIds(List.of(challanId))
+                .stream()
+                .findFirst()
+                .map(this::toDocument)
+                .orElseThrow(() -> new RuntimeException("Delivery Challan not found with ID: " + challanId)));
+    }
+
+    /**
+     * Check a bulk request up front, before the response starts streaming. Returns the ids without duplicates,
+     * in request order.
+     */
+    public List<Long> requireInvoices(Long companyId, Collection<Long> invoiceIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(invoiceIds));
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) {
+            throw new BusinessValidationException("At least one invoice ID is required");
+        }
+        if (ids.size() > maxBulkDocuments) {
+            throw new BusinessValidationException("At most " + maxBulkDocuments + " invoices can be printed at once");
+        }
+        long found = invoiceRepository.countByIdInAndCompanyCompanyId(ids, companyId);
+        if (found != ids.size()) {
+            throw new InvoiceNotFoundException((ids.size() - found) + " of the requested invoices were not found");
+        }
+        return ids;
+    }
+
+    public void write(PdfDocument document, OutputStream out) throws IOException {
+        try (PDDocument pdf = new PDDocument(); PdfFile file = new PdfFile(pdf)) {
+            render(document, file);
+            pdf.save(new UnclosedOutputStream(out));
+        }
+    }
+
+    /**
+     * Write the invoices into one file, in the given order, each starting on a new page
+     */
+    public void writeInvoices(Long companyId, List<Long> invoiceIds, OutputStream out) throws IOException {
+        long renderCpuNanos = 0;
+        long started = System.nanoTime();
+        int rendered = 0;
+        int pages;
+
+        try (PDDocument pdf = new PDDocument(IOUtils.createTempFileOnlyStreamCache()); PdfFile file = new PdfFile(pdf)) {
+            for (int from = 0; from < invoiceIds.size(); from += bulkBatchSize) {
+                List<Long> batch = invoiceIds.subList(from, Math.min(from + bulkBatchSize, invoiceIds.size()));
+                List<PdfDocument> documents = readOnlyTransaction.execute(status -> {
+                    Map<Long, Invoice> byId = invoiceRepository.findDetailsByIdsAndCompany(batch, companyId).stream()
+                            .collect(Collectors.toMap(Invoice::getId, invoice -> invoice));
+                    // Deleted since the request was checked: skip rather than fail halfway through the file
+                    return batch.stream().map(byId::get).filter(Objects::nonNull).map(this::toDocument).toList();
+                });
+
+                long cpuBefore = threadCpuNanos();
+                for (PdfDocument document : documents) {
+                    render(document, file);
+                    rendered++;
+                }
+                renderCpuNanos += threadCpuNanos() - cpuBefore;
+            }
+
+            // Subsetting the fonts and compressing happen on save, so they count as rendering
+            long cpuBefore = threadCpuNanos();
+            pdf.save(new UnclosedOutputStream(out));
+            renderCpuNanos += threadCpuNanos() - cpuBefore;
+            pages = pdf.getNumberOfPages();
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Rendered {} invoices ({} pages) for company {} in {} ms, {} documents per CPU-second",
+                rendered, pages, companyId, elapsedMs,
+                renderCpuNanos > 0 ? String.format("%.0f", rendered * 1e9 / renderCpuNanos) : "n/a");
+    }
+
+    private void render(PdfDocument document, PdfFile file) throws IOException {
+        LetterheadLayout letterhead = letterheadLayout(document.letterhead());
+        List<Page> pages = new ArrayList<>();
+
+        Page page = newPage(document, letterhead, file, pages);
+        float y = drawParties(document, page);
+        y = drawTableHeader(page, y);
+        int index = 1;
+        for (Line line : document.lines()) {
+            if (y < BOTTOM + ROW_HEIGHT) {
+                page = newPage(document, letterhead, file, pages);
+                y = drawTableHeader(page, BODY_TOP);
+            }
+            drawLine(page, y, index++, line);
+            y -= ROW_HEIGHT;
+        }
+        page.line(LEFT, y + ROW_HEIGHT - 4, RIGHT, y + ROW_HEIGHT - 4, 0.5f);
+        y -= 6;
+
+        if (y - document.totals().size() * ROW_HEIGHT < BOTTOM) {
+            page = newPage(document, letterhead, file, pages);
+            y = BODY_TOP;
+        }
+        for (Field total : document.totals()) {
+            PdfFont font = total.emphasis() ? fonts.bold() : fonts.regular();
+            page.textRight(font, 9, COL_TOTAL_LABEL, y, total.label());
+            page.textRight(font, 9, COL_AMOUNT, y, total.value());
+            y -= ROW_HEIGHT;
+        }
+
+        if (!document.notes().isEmpty()) {
+            y -= 8;
+            if (y - 2 * LINE_HEIGHT < BOTTOM) {
+                page = newPage(document, letterhead, file, pages);
+                y = BODY_TOP;
+            }
+            page.text(fonts.bold(), 9, LEFT, y, "Notes");
+            y -= LINE_HEIGHT;
+            for (String noteLine : fonts.regular().wrap(document.notes(), 9, RIGHT - LEFT)) {
+                if (y < BOTTOM) {
+                    page = newPage(document, letterhead, file, pages);
+                    y = BODY_TOP;
+                }
+                page.text(fonts.regular(), 9, LEFT, y, noteLine);
+                y -= LINE_HEIGHT;
+            }
+        }
+
+        if (!document.signatures().isEmpty()) {
+            if (y - 56 < BOTTOM) {
+                page = newPage(document, letterhead, file, pages);
+                y = BODY_TOP;
+            }
+            float signatureLine = y - 40;
+            float width = (RIGHT - LEFT - 40) / document.signatures().size();
+            float x = LEFT;
+            for (Field signature : document.signatures()) {
+                if (!signature.value().isEmpty()) {
+                    page.text(fonts.regular(), 9, x, signatureLine + 4, fonts.regular().truncate(signature.value(), 9, width));
+                }
+                page.line(x, signatureLine, x + width, signatureLine, 0.5f);
+                page.text(fonts.regular(), 8, x, signatureLine - 11, signature.label());
+                x += width + 40;
+            }
+        }
+
+        // The page count is only known now, so every page's content stream stays open until here
+        String footer = document.title() + " " + document.number();
+        for (int i = 0; i < pages.size(); i++) {
+            Page content = pages.get(i);
+            content.text(fonts.regular(), 8, LEFT, FOOTER, footer);
+            content.textRight(fonts.regular(), 8, RIGHT, FOOTER, "Page " + (i + 1) + " of " + pages.size());
+            content.close();
+        }
+    }
+
+    private Page newPage(PdfDocument document, LetterheadLayout letterhead, PdfFile file, List<Page> pages)
+            throws IOException {
+        Page page = file.addPage();
+        drawLetterhead(page, letterhead);
+        page.textRight(fonts.bold(), 14, RIGHT, TOP, document.title());
+        page.textRight(fonts.regular(), 10, RIGHT, TOP - 16, document.number());
+        if (!pages.isEmpty()) {
+            page.textRight(fonts.regular(), 8, RIGHT, TOP - 30, "(continued)");
+        }
+        pages.add(page);
+        return page;
+    }
+
+    // Customer block on the left and document details on the right; returns where the item table starts
+    private float drawParties(PdfDocument document, Page page) throws IOException {
+        float y = BODY_TOP;
+        page.text(fonts.bold(), 9, LEFT, y, document.partyHeading());
+        for (String line : document.partyLines()) {
+            y -= LINE_HEIGHT;
+            page.text(fonts.regular(), 9, LEFT, y, fonts.regular().truncate(line, 9, COL_DETAIL_LABEL - LEFT - 20));
+        }
+
+        float detailY = BODY_TOP;
+        for (Field detail : document.details()) {
+            page.text(fonts.regular(), 9, COL_DETAIL_LABEL, detailY, detail.label());
+            page.textRight(detail.emphasis() ? fonts.bold() : fonts.regular(), 9, RIGHT, detailY, detail.value());
+            detailY -= LINE_HEIGHT;
+        }
+        return Math.min(y - LINE_HEIGHT, detailY) - 14;
+    }
+
+    private float drawTableHeader(Page page, float y) throws IOException {
+        page.fillRect(LEFT, y - 5, RIGHT - LEFT, 17, 0.9f);
+        page.text(fonts.bold(), 9, LEFT + 2, y, "#");
+        page.text(fonts.bold(), 9, COL_DESCRIPTION, y, "Description");
+        page.textRight(fonts.bold(), 9, COL_QUANTITY, y, "Qty");
+        page.textRight(fonts.bold(), 9, COL_UNIT_PRICE, y, "Unit Price");
+        page.textRight(fonts.bold(), 9, COL_TAX_RATE, y, "Tax %");
+        page.textRight(fonts.bold(), 9, COL_TAX, y, "Tax");
+        page.textRight(fonts.bold(), 9, COL_AMOUNT - 2, y, "Amount");
+        return y - 20;
+    }
+
+    private void drawLine(Page page, float y, int index, Line line) throws IOException {
+        page.text(fonts.regular(), 9, LEFT + 2, y, String.valueOf(index));
+        page.text(fonts.regular(), 9, COL_DESCRIPTION, y, line.description());
+        page.textRight(fonts.regular(), 9, COL_QUANTITY, y, line.quantity());
+        page.textRight(fonts.regular(), 9, COL_UNIT_PRICE, y, line.unitPrice());
+        page.textRight(fonts.regular(), 9, COL_TAX_RATE, y, line.taxRate());
+        page.textRight(fonts.regular(), 9, COL_TAX, y, line.taxAmount());
+        page.textRight(fonts.regular(), 9, COL_AMOUNT - 2, y, line.amount());
+    }
+
+    private void drawLetterhead(Page page, LetterheadLayout letterhead) throws IOException {
+        page.text(fonts.bold(), 16, LEFT, TOP, letterhead.name());
+        float y = TOP - 16;
+        for (String line : letterhead.lines()) {
+            page.text(fonts.regular(), 9, LEFT, y, line);
+            y -= LINE_HEIGHT;
+        }
+        page.line(LEFT, LETTERHEAD_RULE, RIGHT, LETTERHEAD_RULE, 0.75f);
+    }
+
+    private LetterheadLayout letterheadLayout(Letterhead letterhead) {
+        synchronized (letterheads) {
+            LetterheadLayout layout = letterheads.get(letterhead);
+            if (layout != null) {
+                return layout;
+            }
+        }
+        LetterheadLayout layout = layOutLetterhead(letterhead);
+        synchronized (letterheads) {
+            letterheads.put(letterhead, layout);
+            Iterator<Letterhead> it = letterheads.keySet().iterator();
+            while (letterheads.size() > maxCachedLetterheads && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        return layout;
+    }
+
+    private LetterheadLayout layOutLetterhead(Letterhead letterhead) {
+        List<String> lines = new ArrayList<>(fonts.regular().wrap(letterhead.address(), 9, LETTERHEAD_WIDTH));
+        while (lines.size() > 2) {
+            lines.remove(lines.size() - 1);
+        }
+        Stream.of(letterhead.locality(), letterhead.contact(), letterhead.gstNumber())
+                .filter(line -> !line.isEmpty())
+                .forEach(lines::add);
+        List<String> fitted = lines.subList(0, Math.min(4, lines.size())).stream()
+                .map(line -> fonts.regular().truncate(line, 9, LETTERHEAD_WIDTH))
+                .toList();
+        return new LetterheadLayout(fonts.bold().truncate(letterhead.name(), 16, LETTERHEAD_WIDTH), fitted);
+    }
+
+    private PdfDocument toDocument(Invoice invoice) {
+        Company company = invoice.getCompany();
+        Letterhead letterhead = new Letterhead(company.getCompanyId(), text(company.getCompanyName()),
+                text(company.getAddress()),
+                join(", ", company.getCity(), company.getState(), company.getCountry()),
+                contact(company.getMobile(), company.getEmail()),
+                labelled("GSTIN: ", company.getGstNumber()));
+
+        Customer customer = invoice.getCustomer();
+        List<String> party = new ArrayList<>();
+        party.add(text(customer.getCustomerName()));
+        party.addAll(fonts.regular().wrap(text(customer.getAddress()), 9, COL_DETAIL_LABEL - LEFT - 20));
+        party.add(contact(customer.getMobile(), customer.getEmail()));
+        party.add(labelled("GSTIN: ", customer.getGstNumber()));
+        party.removeIf(String::isEmpty);
+
+        List<Field> details = new ArrayList<>();
+        details.add(new Field("Invoice No", text(invoice.getInvoiceNumber()), true));
+        details.add(new Field("Invoice Date", date(invoice.getInvoiceDate()), false));
+        details.add(new Field("Due Date", date(invoice.getDueDate()), false));
+        if (invoice.getQuotation() != null) {
+            details.add(new Field("Quotation", text(invoice.getQuotation().getQuotationNumber()), false));
+        }
+        details.add(new Field("Status", invoice.getStatus() != null ? invoice.getStatus().name() : "", false));
+
+        List<Line> lines = new ArrayList<>(invoice.getInvoiceItems().size());
+        for (InvoiceItem item : invoice.getInvoiceItems()) {
+            String description = item.getProduct() != null ? item.getProduct().getProductName() : item.getDescription();
+            lines.add(line(description, item.getQuantity(), item.getUnitPrice(), item.getTaxRate(),
+                    item.getTaxAmount(), item.getLineTotal()));
+        }
+
+        List<Field> totals = new ArrayList<>();
+        totals.add(new Field("Subtotal", amount(invoice.getSubtotal()), false));
+        totals.add(new Field("Tax", amount(invoice.getTaxAmount()), false));
+        if (isPositive(invoice.getDiscountAmount())) {
+            totals.add(new Field("Discount", "-" + amount(invoice.getDiscountAmount()), false));
+        }
+        totals.add(new Field("Total", amount(invoice.getTotalAmount()), true));
+        if (isPositive(invoice.getPaidAmount())) {
+            totals.add(new Field("Paid", amount(invoice.getPaidAmount()), false));
+            totals.add(new Field("Balance Due", amount(invoice.getOutstandingAmount()), true));
+        }
+
+        return new PdfDocument(fileName(invoice.getInvoiceNumber()), letterhead, "TAX INVOICE",
+                text(invoice.getInvoiceNumber()), "Bill To", party, details, lines, totals,
+                text(invoice.getNotes()), List.of());
+    }
+
+    private PdfDocument toDocument(DeliveryChallan challan) {
+        // Company and customer details were copied onto the challan when it was issued
+        Letterhead letterhead = new Letterhead(challan.getInvoice().getCompany().getCompanyId(),
+                text(challan.getCompanyName()), text(challan.getCompanyAddress()), "",
+                contact(challan.getCompanyMobile(), challan.getCompanyEmail()),
+                labelled("GSTIN: ", challan.getCompanyGstNumber()));
+
+        List<String> party = new ArrayList<>();
+        party.add(text(challan.getCustomerName()));
+        party.addAll(fonts.regular().wrap(text(challan.getCustomerAddress()), 9, COL_DETAIL_LABEL - LEFT - 20));
+        party.add(contact(challan.getCustomerMobile(), challan.getCustomerEmail()));
+        party.removeIf(String::isEmpty);
+
+        List<Field> details = new ArrayList<>();
+        details.add(new Field("Challan No", text(challan.getChallanNumber()), true));
+        details.add(new Field("Delivery Date", date(challan.getDeliveryDate()), false));
+        details.add(new Field("Invoice No", text(challan.getInvoiceNumber()), false));
+        details.add(new Field("Invoice Date", date(challan.getInvoiceDate()), false));
+        if (challan.getPaymentMode() != null && !challan.getPaymentMode().isBlank()) {
+            details.add(new Field("Payment Mode", text(challan.getPaymentMode()), false));
+        }
+
+        List<Line> lines = new ArrayList<>(challan.getDeliveryChallanItems().size());
+        for (DeliveryChallanItem item : challan.getDeliveryChallanItems()) {
+            lines.add(line(item.getProductName(), item.getQuantity(), item.getUnitPrice(), item.getTaxRate(),
+                    item.getTaxAmount(), item.getLineTotal()));
+        }
+
+        List<Field> totals = List.of(
+                new Field("Subtotal", amount(challan.getSubtotal()), false),
+                new Field("Tax", amount(challan.getTaxAmount()), false),
+                new Field("Total", amount(challan.getTotalAmount()), true));
+
+        List<Field> signatures = List.of(
+                new Field("Delivered by", text(challan.getDeliveredBy()), false),
+                new Field("Received by", text(challan.getReceivedBy()), false));
+
+        return new PdfDocument(fileName(challan.getChallanNumber()), letterhead, "DELIVERY CHALLAN",
+                text(challan.getChallanNumber()), "Deliver To", party, details, lines, totals,
+                text(challan.getNotes()), signatures);
+    }
+
+    private Line line(String description, BigDecimal quantity, BigDecimal unitPrice, BigDecimal taxRate,
+                             BigDecimal taxAmount, BigDecimal lineTotal) {
+        return new Line(fonts.regular().truncate(text(description), 9, DESCRIPTION_WIDTH),
+                quantity != null ? quantity.stripTrailingZeros().toPlainString() : "",
+                amount(unitPrice),
+                taxRate != null ? taxRate.stripTrailingZeros().toPlainString() + "%" : "",
+                amount(taxAmount),
+                amount(lineTotal));
+    }
+
+    private String text(String value) {
+        return value != null ? fonts.prepare(value.strip()) : "";
+    }
+
+    private String labelled(String label, String value) {
+        return value != null && !value.isBlank() ? label + text(value) : "";
+    }
+
+    private String contact(String mobile, String email) {
+        return join("  |  ", labelled("Phone: ", mobile), labelled("Email: ", email));
+    }
+
+    private String join(String separator, String... parts) {
+        return Stream.of(parts)
+                .filter(part -> part != null && !part.isBlank())
+                .map(this::text)
+                .collect(Collectors.joining(separator));
+    }
+
+    private static String date(LocalDate date) {
+        return date != null ? DATE_FORMAT.format(date) : "";
+    }
+
+    private static boolean isPositive(BigDecimal value) {
+        return value != null && value.signum() > 0;
+    }
+
+    /**
+     * Two decimals with Indian digit grouping, e.g. 12,34,567.50
+     */
+    private static String amount(BigDecimal value) {
+        if (value == null) {
+            return "";
+        }
+        String plain = value.setScale(2, RoundingMode.HALF_UP).abs().toPlainString();
+        int point = plain.length() - 3;
+        StringBuilder result = new StringBuilder(plain.length() + 8);
+        for (int i = 0; i < point; i++) {
+            int remaining = point - i;
+            if (i > 0 && (remaining == 3 || (remaining > 3 && (remaining - 3) % 2 == 0))) {
+                result.append(',');
+            }
+            result.append(plain.charAt(i));
+        }
+        result.append(plain, point, plain.length());
+        return value.signum() < 0 ? "-" + result : result.toString();
+    }
+
+    private static String fileName(String number) {
+        String base = number != null ? number.replaceAll("[^A-Za-z0-9._-]+", "-") : "document";
+        return base + ".pdf";
+    }
+
+    private long threadCpuNanos() {
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    // Company name and address lines, measured and cut to the letterhead width
+    private record LetterheadLayout(String name, List<String> lines) {
+    }
+
+    // One PDF being written, with the fonts loaded into it; close after saving to give the fonts back
+    private final class PdfFile implements AutoCloseable {
+        private final PDDocument document;
+        private final TrueTypeFont regularFile;
+        private final TrueTypeFont boldFile;
+        private final PDType0Font regular;
+        private final PDType0Font bold;
+
+        private PdfFile(PDDocument document) throws IOException {
+            this.document = document;
+            this.regularFile = fonts.regular().borrow();
+            this.boldFile = fonts.bold().borrow();
+            this.regular = PDType0Font.load(document, regularFile, true);
+            this.bold = PDType0Font.load(document, boldFile, true);
+        }
+
+        private PDType0Font font(PdfFont font) {
+            return font == fonts.bold() ? bold : regular;
+        }
+
+        private Page addPage() throws IOException {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            return new Page(new PDPageContentStream(document, page), this);
+        }
+
+        @Override
+        public void close() {
+            fonts.regular().release(regularFile);
+            fonts.bold().release(boldFile);
+        }
+    }
+
+    // Drawing on one page; text is measured with the shared fonts and shown with the file's copy of them
+    private record Page(PDPageContentStream content, PdfFile file) {
+
+        void text(PdfFont font, float size, float x, float y, String text) throws IOException {
+            if (text.isEmpty()) {
+                return;
+            }
+            content.beginText();
+            content.setFont(file.font(font), size);
+            content.newLineAtOffset(x, y);
+            // Prepared text keeps line breaks for wrapping; on a single line they are spaces
+            content.showText(text.indexOf('\n') < 0 ? text : text.replace('\n', ' '));
+            content.endText();
+        }
+
+        void textRight(PdfFont font, float size, float right, float y, String text) throws IOException {
+            text(font, size, right - font.width(text, size), y, text);
+        }
+
+        void line(float x1, float y1, float x2, float y2, float width) throws IOException {
+            content.setLineWidth(width);
+            content.moveTo(x1, y1);
+            content.lineTo(x2, y2);
+            content.stroke();
+        }
+
+        void fillRect(float x, float y, float width, float height, float gray) throws IOException {
+            content.setNonStrokingColor(gray);
+            content.addRect(x, y, width, height);
+            content.fill();
+            content.setNonStrokingColor(0f);
+        }
+
+        void close() throws IOException {
+            content.close();
+        }
+    }
+
+    // PDDocument.save closes the stream it writes to; the caller owns the response stream
+    private static final class UnclosedOutputStream extends FilterOutputStream {
+
+        private UnclosedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
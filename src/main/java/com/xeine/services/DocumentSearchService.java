@@ -0,0 +1,540 @@
+package com.xeine.services;
+
+import com.xeine.dto.response.InvoiceListItemDTO;
+import com.xeine.dto.response.QuotationListItemDTO;
+import com.xeine.dto.response.SearchPageDTO;
+import com.xeine.enums.DocumentType;
+import com.xeine.exception.BusinessValidationException;
+import com.xeine.models.Invoice;
+import com.xeine.models.Quotation;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.QuotationRepository;
+import com.xeine.utils.pagination.KeysetPages;
+import com.xeine.utils.search.NgramIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Ranked text search over a company's invoices and quotations by number, customer name and notes, served from
+ * per-company {@link NgramIndex}es instead of LIKE '%term%' table scans.
+ * <p>
+ * An index is loaded in the background on first use, from the local copy under search.index.dir if there is one
+ * and otherwise from the database. Until it is ready, searches never wait for it: they are answered from a small
+ * index of the newest search.fallback.max-documents documents, read per search and marked partial. A loaded index
+ * is kept current by document writes on this node and rebuilt from the database in the background after
+ * search.index.max-age-seconds to pick up writes from other nodes and customer renames; searches keep using the
+ * old index until the rebuilt one is swapped in. Every index built from the database is written to the local
+ * copy. Indexes are evicted least recently used once their postings exceed search.index.max-postings, and the
+ * next search loads them again the same way.
+ */
+@Service
+@Slf4j
+public class DocumentSearchService {
+
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int REBUILD_QUEUE_CAPACITY = 1000;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private QuotationRepository quotationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${search.index.max-postings:50000000}")
+    private long maxPostings;
+
+    @Value("${search.index.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @Value("${search.index.max-notes-length:300}")
+    private int maxNotesLength;
+
+    @Value("${search.index.rebuild-threads:1}")
+    private int rebuildThreads;
+
+    // Blank keeps indexes in memory only
+    @Value("${search.index.dir:${java.io.tmpdir}/xeine-search-index}")
+    private String indexDir;
+
+    @Value("${search.max-results:1000}")
+    private int maxResults;
+
+    @Value("${search.fallback.max-documents:2000}")
+    private int maxFallbackDocuments;
+
+    private record IndexKey(Long companyId, DocumentType type) {
+    }
+
+    // A put, or a remove when fields is null
+    private record Write(long documentId, String[] fields) {
+        private void applyTo(NgramIndex index) {
+            if (fields == null) {
+                index.remove(documentId);
+            } else {
+                index.put(documentId, fields);
+            }
+        }
+    }
+
+    private static final class Holder {
+        private final IndexKey key;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // The next three fields are guarded by lock; index is null until the first load finishes
+        private NgramIndex index;
+        private long loadedAtNanos;
+        // Writes made while a load or rebuild runs, replayed onto its index; null when none is pending
+        private List<Write> pending;
+        // Guarded by the service
+        private long retainedPostings;
+
+        private Holder(IndexKey key) {
+            this.key = key;
+        }
+    }
+
+    // Access-ordered for LRU eviction. Both fields are guarded by 'this'.
+    private final LinkedHashMap<IndexKey, Holder> holders = new LinkedHashMap<>(16, 0.75f, true);
+    private long retainedPostings;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!indexDir.isBlank()) {
+            Files.createDirectories(Paths.get(indexDir));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(rebuildThreads, rebuildThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REBUILD_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "search-index-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Stop rebuilding and write the current indexes to disk, so the next start serves them right away
+     */
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        List<Holder> retained;
+        synchronized (this) {
+            retained = new ArrayList<>(holders.values());
+        }
+        for (Holder holder : retained) {
+            holder.lock.readLock().lock();
+            try {
+                if (holder.index != null) {
+                    writeToDisk(holder.key, holder.index);
+                }
+            } finally {
+                holder.lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * One page of the company's invoices matching every word of the query, best match first
+     */
+    public SearchPageDTO<InvoiceListItemDTO> searchInvoices(Long companyId, String q, Integer page, Integer size) {
+        return search(new IndexKey(companyId, DocumentType.INVOICE), q, page, size,
+                ids -> invoiceRepository.findListItemsByIds(companyId, ids), InvoiceListItemDTO::getInvoiceId);
+    }
+
+    /**
+     * One page of the company's quotations matching every word of the query, best match first
+     */
+    public SearchPageDTO<QuotationListItemDTO> searchQuotations(Long companyId, String q, Integer page, Integer size) {
+        return search(new IndexKey(companyId, DocumentType.QUOTATION), q, page, size,
+                ids -> quotationRepository.findListItemsByIds(companyId, ids), QuotationListItemDTO::getQuotationId);
+    }
+
+    /**
+     * Index a created or updated invoice once the surrounding transaction commits
+     */
+    public void recordInvoice(Invoice invoice) {
+        // Copy the values now; the entity is not safe to read after the transaction ends
+        IndexKey key = new IndexKey(invoice.getCompany().getCompanyId(), DocumentType.INVOICE);
+        Write write = new Write(invoice.getId(), fields(invoice.getInvoiceNumber(),
+                invoice.getCustomer().getCustomerName(), invoice.getNotes()));
+        afterCommit(() -> apply(key, write));
+    }
+
+    /**
+     * Index a created or updated quotation once the surrounding transaction commits
+     */
+    public void recordQuotation(Quotation quotation) {
+        IndexKey key = new IndexKey(quotation.getCompany().getCompanyId(), DocumentType.QUOTATION);
+        Write write = Boolean.TRUE.equals(quotation.getDeleted())
+                ? new Write(quotation.getQuotationId(), null)
+                : new Write(quotation.getQuotationId(), fields(quotation.getQuotationNumber(),
+                        quotation.getCustomer().getCustomerName(), quotation.getNotes()));
+        afterCommit(() -> apply(key, write));
+    }
+
+    /**
+     * Drop a deleted quotation from the index once the surrounding transaction commits
+     */
+    public void removeQuotation(Long companyId, Long quotationId) {
+        IndexKey key = new IndexKey(companyId, DocumentType.QUOTATION);
+        Write write = new Write(quotationId, null);
+        afterCommit(() -> apply(key, write));
+    }
+
+    /**
+     * Rebuild the company's indexes in the background once the surrounding transaction commits, for changes
+     * that touch many documents at once, such as renaming a customer
+     */
+    public void rebuild(Long companyId) {
+        afterCommit(() -> {
+            for (DocumentType type : new DocumentType[]{DocumentType.INVOICE, DocumentType.QUOTATION}) {
+                Holder holder;
+                synchronized (this) {
+                    holder = holders.get(new IndexKey(companyId, type));
+                }
+                if (holder != null) {
+                    scheduleRebuild(holder);
+                }
+            }
+        });
+    }
+
+    private <T> SearchPageDTO<T> search(IndexKey key, String q, Integer page, Integer size,
+                                        Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        String query = q == null ? "" : q.trim();
+        if (query.length() < MIN_QUERY_LENGTH || query.length() > MAX_QUERY_LENGTH) {
+            throw new BusinessValidationException("Search text must be between " + MIN_QUERY_LENGTH
+                    + " and " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (!NgramIndex.isSearchable(query)) {
+            throw new BusinessValidationException("Search text needs a word of at least "
+                    + MIN_QUERY_LENGTH + " letters or digits");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new BusinessValidationException("Page must not be negative");
+        }
+        int pageSize = KeysetPages.pageSize(size);
+        long offset = (long) pageNumber * pageSize;
+        int limit = (int) Math.min(offset + pageSize, maxResults);
+
+        long start = System.nanoTime();
+        Holder holder = holderFor(key);
+        NgramIndex.Hits hits = null;
+        boolean stale;
+        holder.lock.readLock().lock();
+        try {
+            if (holder.index != null) {
+                hits = holder.index.search(query, limit);
+            }
+            // A first load that failed or was not queued is retried by the next search
+            stale = holder.pending == null && (holder.index == null
+                    || System.nanoTime() - holder.loadedAtNanos >= TimeUnit.SECONDS.toNanos(maxAgeSeconds));
+        } finally {
+            holder.lock.readLock().unlock();
+        }
+        if (stale) {
+            scheduleRebuild(holder);
+        }
+        boolean partial = hits == null;
+        if (partial) {
+            hits = fallbackIndex(key).search(query, limit);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (long i = offset; i < hits.docIds().length; i++) {
+            ids.add(hits.docIds()[(int) i]);
+        }
+        List<T> items = ids.isEmpty() ? List.of() : inIdOrder(ids, loader.apply(ids), idOf);
+        log.debug("Searched {} of company {} for '{}': {} matches in {} ms{}", key.type(), key.companyId(), query,
+                hits.total(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                partial ? " (newest documents only, index loading)" : "");
+        return new SearchPageDTO<>(items, pageNumber, pageSize, hits.total(),
+                offset + pageSize < Math.min(hits.total(), maxResults), partial);
+    }
+
+    private Holder holderFor(IndexKey key) {
+        Holder holder;
+        synchronized (this) {
+            holder = holders.get(key);
+            if (holder != null) {
+                return holder;
+            }
+            holder = new Holder(key);
+            holders.put(key, holder);
+        }
+        // Writes from now on are kept for the load, which runs in the background like a rebuild
+        scheduleRebuild(holder);
+        return holder;
+    }
+
+    private void scheduleRebuild(Holder holder) {
+        holder.lock.writeLock().lock();
+        try {
+            if (holder.pending != null) {
+                return;
+            }
+            holder.pending = new ArrayList<>();
+        } finally {
+            holder.lock.writeLock().unlock();
+        }
+
+        try {
+            executor.execute(() -> rebuild(holder));
+        } catch (RejectedExecutionException e) {
+            log.debug("Search index rebuild queue full; {} of company {} stays as is",
+                    holder.key.type(), holder.key.companyId());
+            holder.lock.writeLock().lock();
+            try {
+                holder.pending = null;
+            } finally {
+                holder.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void rebuild(Holder holder) {
+        boolean firstLoad;
+        holder.lock.readLock().lock();
+        try {
+            firstLoad = holder.index == null;
+        } finally {
+            holder.lock.readLock().unlock();
+        }
+
+        NgramIndex rebuilt = firstLoad ? readFromDisk(holder.key) : null;
+        boolean fromDisk = rebuilt != null;
+        try {
+            if (rebuilt == null) {
+                rebuilt = build(holder.key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild search index of {} for company {}: {}",
+                    holder.key.type(), holder.key.companyId(), e.getMessage());
+            holder.lock.writeLock().lock();
+            try {
+                // Keep serving the old index and try again after another max age; a first load is retried by
+                // the next search
+                holder.pending = null;
+                holder.loadedAtNanos = System.nanoTime();
+            } finally {
+                holder.lock.writeLock().unlock();
+            }
+            return;
+        }
+        if (!fromDisk) {
+            writeToDisk(holder.key, rebuilt);
+        }
+
+        holder.lock.writeLock().lock();
+        try {
+            // Puts and removes are idempotent, so writes the rebuild already saw can be replayed safely
+            for (Write write : holder.pending) {
+                write.applyTo(rebuilt);
+            }
+            holder.index = rebuilt;
+            holder.loadedAtNanos = System.nanoTime();
+            holder.pending = null;
+        } finally {
+            holder.lock.writeLock().unlock();
+        }
+        updateRetainedPostings(holder, rebuilt.postingCount());
+        if (fromDisk) {
+            // The local copy misses writes from other nodes and any since it was written
+            scheduleRebuild(holder);
+        }
+    }
+
+    // Index of the newest documents only, for searches while the full index loads
+    private NgramIndex fallbackIndex(IndexKey key) {
+        PageRequest newest = PageRequest.of(0, maxFallbackDocuments);
+        return readOnlyTransaction.execute(status -> {
+            NgramIndex result = new NgramIndex(3);
+            List<Object[]> rows = key.type() == DocumentType.INVOICE
+                    ? invoiceRepository.findRecentSearchFields(key.companyId(), newest)
+                    : quotationRepository.findRecentSearchFields(key.companyId(), newest);
+            // Oldest first, so slots are in ID order as in a full index
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Object[] row = rows.get(i);
+                result.put((Long) row[0], fields((String) row[1], (String) row[2], (String) row[3]));
+            }
+            return result;
+        });
+    }
+
+    private NgramIndex build(IndexKey key) {
+        long start = System.currentTimeMillis();
+        NgramIndex index = readOnlyTransaction.execute(status -> {
+            NgramIndex result = new NgramIndex(3);
+            try (Stream<Object[]> rows = key.type() == DocumentType.INVOICE
+                    ? invoiceRepository.streamSearchFields(key.companyId())
+                    : quotationRepository.streamSearchFields(key.companyId())) {
+                rows.forEach(row -> result.put((Long) row[0],
+                        fields((String) row[1], (String) row[2], (String) row[3])));
+            }
+            return result;
+        });
+        log.debug("Built search index of {} for company {}: {} documents, {} postings in {} ms", key.type(),
+                key.companyId(), index.size(), index.postingCount(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private void apply(IndexKey key, Write write) {
+        Holder holder;
+        synchronized (this) {
+            holder = holders.get(key);
+        }
+        if (holder == null) {
+            return;
+        }
+        holder.lock.writeLock().lock();
+        try {
+            if (holder.index != null) {
+                write.applyTo(holder.index);
+            }
+            if (holder.pending != null) {
+                holder.pending.add(write);
+            }
+        } finally {
+            holder.lock.writeLock().unlock();
+        }
+    }
+
+    private String[] fields(String number, String customerName, String notes) {
+        if (notes != null && notes.length() > maxNotesLength) {
+            notes = notes.substring(0, maxNotesLength);
+        }
+        return new String[]{number, customerName, notes};
+    }
+
+    private NgramIndex readFromDisk(IndexKey key) {
+        if (indexDir.isBlank()) {
+            return null;
+        }
+        Path path = indexPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            return NgramIndex.readFrom(in);
+        } catch (IOException e) {
+            log.warn("Could not read search index file {}; rebuilding it: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(IndexKey key, NgramIndex index) {
+        if (indexDir.isBlank()) {
+            return;
+        }
+        Path target = indexPath(key);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                index.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write search index file {}: {}", target, e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Overwritten by the next write
+            }
+        }
+    }
+
+    private Path indexPath(IndexKey key) {
+        return Paths.get(indexDir, String.valueOf(key.companyId()), key.type().name().toLowerCase() + ".idx");
+    }
+
+    private synchronized void updateRetainedPostings(Holder holder, long postings) {
+        if (holders.get(holder.key) != holder) {
+            return;
+        }
+        retainedPostings += postings - holder.retainedPostings;
+        holder.retainedPostings = postings;
+        Iterator<Map.Entry<IndexKey, Holder>> it = holders.entrySet().iterator();
+        while (retainedPostings > maxPostings && it.hasNext()) {
+            Map.Entry<IndexKey, Holder> eldest = it.next();
+            retainedPostings -= eldest.getValue().retainedPostings;
+            it.remove();
+            log.debug("Evicted search index of {} for company {}", eldest.getKey().type(), eldest.getKey().companyId());
+        }
+    }
+
+    private static <T> List<T> inIdOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : rows) {
+            byId.put(idOf.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    private static void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
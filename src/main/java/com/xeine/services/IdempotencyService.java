@@ -0,0 +1,234 @@
+package com.xeine.services;
+
+import com.xeine.enums.IdempotencyStatus;
+import com.xeine.models.IdempotencyRecord;
+import com.xeine.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Store behind the Idempotency-Key header. The idempotency_keys table is the source of truth across nodes;
+ * completed responses are also kept in a small in-memory LRU so repeats are replayed without a query.
+ * Duplicates arriving while the first request is still running wait for its response (up to
+ * idempotency.wait-ms) instead of running the work again.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public enum Outcome {
+        // First request for the key: run it, then call complete or abandon
+        PROCEED,
+        // Same request seen before: send the stored response
+        REPLAY,
+        // The key was used before with a different request
+        MISMATCH,
+        // The first request is still running and did not finish in time
+        IN_PROGRESS
+    }
+
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body, long expiresAtNanos) {
+    }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    @Value("${idempotency.poll-ms:200}")
+    private long pollMs;
+
+    // A record left in progress longer than this is assumed abandoned by a crashed node
+    @Value("${idempotency.stale-seconds:120}")
+    private long staleSeconds;
+
+    @Value("${idempotency.cache.max-entries:1000}")
+    private int maxCachedResponses;
+
+    // Requests running on this node, so local duplicates can wait for the response
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // Access-ordered LRU of completed responses, guarded by itself
+    private final LinkedHashMap<String, StoredResponse> recentResponses = new LinkedHashMap<>(64, 0.75f, true);
+
+    public Claim begin(String recordKey, String requestHash) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        while (true) {
+            StoredResponse cached = cachedResponse(recordKey);
+            if (cached != null) {
+                return replayOrMismatch(cached, requestHash);
+            }
+
+            CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(recordKey, claim);
+            if (running != null) {
+                StoredResponse response = await(running, deadline);
+                if (response != null) {
+                    return replayOrMismatch(response, requestHash);
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                }
+                // The running request failed and released the key; try to claim it
+                continue;
+            }
+
+            Claim result;
+            try {
+                result = claimInDatabase(recordKey, requestHash);
+            } catch (RuntimeException e) {
+                release(recordKey, null);
+                throw e;
+            }
+            if (result != null) {
+                if (result.outcome() != Outcome.PROCEED) {
+                    release(recordKey, result.response());
+                }
+                return result;
+            }
+
+            // Running on another node: poll until it finishes or we run out of time
+            release(recordKey, null);
+            if (System.nanoTime() - deadline >= 0) {
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+        }
+    }
+
+    /**
+     * Store the response of a request that was allowed to proceed
+     */
+    public void complete(String recordKey, String requestHash, int status, String contentType, byte[] body) {
+        StoredResponse response = null;
+        try {
+            idempotencyRecordRepository.complete(recordKey, status, contentType, body);
+            response = new StoredResponse(requestHash, status, contentType, body,
+                    System.nanoTime() + TimeUnit.HOURS.toNanos(ttlHours));
+            remember(recordKey, response);
+        } finally {
+            release(recordKey, response);
+        }
+    }
+
+    /**
+     * Forget a request that failed, so a retry with the same key runs it again
+     */
+    public void abandon(String recordKey) {
+        try {
+            idempotencyRecordRepository.deleteInProgress(recordKey);
+        } finally {
+            release(recordKey, null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    // Returns null when another node holds the key and it has not completed yet
+    private Claim claimInDatabase(String recordKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        if (idempotencyRecordRepository.insertIfAbsent(recordKey, requestHash, now, expiresAt) == 1
+                || idempotencyRecordRepository.takeOver(recordKey, requestHash, now, now.minusSeconds(staleSeconds), expiresAt) == 1) {
+            return new Claim(Outcome.PROCEED, null);
+        }
+
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(recordKey);
+        if (existing.isEmpty()) {
+            // Deleted in between by a failed first attempt; the caller retries the claim
+            return null;
+        }
+        IdempotencyRecord record = existing.get();
+        if (!record.getRequestHash().equals(requestHash)) {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        if (record.getStatus() != IdempotencyStatus.COMPLETED) {
+            return null;
+        }
+        long remainingNanos = TimeUnit.SECONDS.toNanos(
+                Math.max(0, Duration.between(now, record.getExpiresAt()).getSeconds()));
+        StoredResponse response = new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                record.getContentType(), record.getResponseBody(), System.nanoTime() + remainingNanos);
+        remember(recordKey, response);
+        return new Claim(Outcome.REPLAY, response);
+    }
+
+    private Claim replayOrMismatch(StoredResponse response, String requestHash) {
+        return response.requestHash().equals(requestHash)
+                ? new Claim(Outcome.REPLAY, response)
+                : new Claim(Outcome.MISMATCH, null);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running, long deadline) {
+        try {
+            return running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void release(String recordKey, StoredResponse response) {
+        CompletableFuture<StoredResponse> claim = inFlight.remove(recordKey);
+        if (claim != null) {
+            claim.complete(response);
+        }
+    }
+
+    private StoredResponse cachedResponse(String recordKey) {
+        synchronized (recentResponses) {
+            StoredResponse response = recentResponses.get(recordKey);
+            if (response != null && response.expiresAtNanos() - System.nanoTime() <= 0) {
+                recentResponses.remove(recordKey);
+                return null;
+            }
+            return response;
+        }
+    }
+
+    private void remember(String recordKey, StoredResponse response) {
+        synchronized (recentResponses) {
+            recentResponses.put(recordKey, response);
+            Iterator<String> it = recentResponses.keySet().iterator();
+            while (recentResponses.size() > maxCachedResponses && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.xeine.services;
+
+import com.xeine.dto.response.InvoiceSummaryDTO;
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.exception.ReportException;
+import com.xeine.models.Invoice;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.utils.analytics.InvoiceColumns;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-company columnar snapshots of invoices for dashboard aggregations. A snapshot is loaded on first use,
+ * kept current by invoice and settlement writes on this node, and reloaded after analytics.invoices.max-age-seconds
+ * to pick up writes from other nodes. Snapshots are evicted least recently used once the retained rows exceed
+ * analytics.invoices.max-rows.
+ */
+@Service
+@Slf4j
+public class InvoiceAnalyticsService {
+
+    private static final int MAX_DAILY_SERIES_DAYS = 366;
+    private static final InvoiceStatus[] STATUSES = InvoiceStatus.values();
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.invoices.max-rows:1000000}")
+    private long maxRows;
+
+    @Value("${analytics.invoices.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private static final class Snapshot {
+        private final InvoiceColumns columns;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final long loadedAtNanos;
+        // Rows counted against the budget while the snapshot is retained; guarded by the service like the map
+        private int retainedRows;
+
+        private Snapshot(InvoiceColumns columns, long loadedAtNanos) {
+            this.columns = columns;
+            this.loadedAtNanos = loadedAtNanos;
+            this.retainedRows = columns.size();
+        }
+    }
+
+    // Access-ordered for LRU eviction. All three fields are guarded by 'this'.
+    private final LinkedHashMap<Long, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped on every write, so a snapshot loaded concurrently with a write is not kept
+    private final Map<Long, Long> generationByCompany = new HashMap<>();
+    private long retainedRows;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Invoice count, amounts and status counts for invoices dated in [from, to], optionally for one customer.
+     * Missing from falls back to the period start and missing to to today.
+     */
+    public InvoiceSummaryDTO getInvoiceSummary(Long companyId, String period, LocalDate from, LocalDate to, Long customerId) {
+        if (from == null) {
+            from = reportService.getStartDate(period);
+        }
+        if (to == null) {
+            to = LocalDate.now();
+        }
+        if (from.isAfter(to)) {
+            throw new ReportException("Invalid date range: from " + from + " is after to " + to);
+        }
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        long[] dailyTotals = toDay - fromDay < MAX_DAILY_SERIES_DAYS ? new long[toDay - fromDay + 1] : null;
+        InvoiceColumns.Aggregate aggregate = new InvoiceColumns.Aggregate(STATUSES.length);
+
+        Snapshot snapshot = snapshotFor(companyId);
+        snapshot.lock.readLock().lock();
+        try {
+            snapshot.columns.aggregate(fromDay, toDay, customerId != null ? customerId : -1L, aggregate, dailyTotals);
+        } finally {
+            snapshot.lock.readLock().unlock();
+        }
+
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        for (InvoiceStatus status : STATUSES) {
+            if (aggregate.countByStatus[status.ordinal()] > 0) {
+                statusCounts.put(status.name(), aggregate.countByStatus[status.ordinal()]);
+            }
+        }
+        Map<LocalDate, BigDecimal> dailyTotalsByDate = null;
+        if (dailyTotals != null) {
+            dailyTotalsByDate = new TreeMap<>();
+            for (int i = 0; i < dailyTotals.length; i++) {
+                dailyTotalsByDate.put(from.plusDays(i), fromMinor(dailyTotals[i]));
+            }
+        }
+        return new InvoiceSummaryDTO(companyId, from, to, customerId, aggregate.count,
+                fromMinor(aggregate.totalMinor), fromMinor(aggregate.paidMinor), fromMinor(aggregate.outstandingMinor),
+                statusCounts, dailyTotalsByDate);
+    }
+
+    /**
+     * Apply a created or updated invoice to the company's snapshot once the surrounding transaction commits
+     */
+    public void recordInvoice(Invoice invoice) {
+        // Copy the values now; the entity is not safe to read after the transaction ends
+        Long companyId = invoice.getCompany().getCompanyId();
+        long invoiceId = invoice.getId();
+        int epochDay = (int) invoice.getInvoiceDate().toEpochDay();
+        long customerId = invoice.getCustomer().getCustomerId();
+        int statusOrdinal = invoice.getStatus().ordinal();
+        long total = toMinor(invoice.getTotalAmount());
+        long paid = toMinor(invoice.getPaidAmount());
+        long outstanding = toMinor(invoice.getOutstandingAmount());
+
+        Runnable apply = () -> {
+            Snapshot snapshot;
+            synchronized (this) {
+                generationByCompany.merge(companyId, 1L, Long::sum);
+                snapshot = snapshots.get(companyId);
+            }
+            if (snapshot != null) {
+                int added;
+                snapshot.lock.writeLock().lock();
+                try {
+                    int size = snapshot.columns.size();
+                    snapshot.columns.upsert(invoiceId, epochDay, customerId, statusOrdinal, total, paid, outstanding);
+                    added = snapshot.columns.size() - size;
+                } finally {
+                    snapshot.lock.writeLock().unlock();
+                }
+                if (added > 0) {
+                    // A new invoice grows the snapshot; count it unless the snapshot was dropped meanwhile
+                    synchronized (this) {
+                        if (snapshots.get(companyId) == snapshot) {
+                            snapshot.retainedRows += added;
+                            retainedRows += added;
+                            evictOverBudget();
+                        }
+                    }
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Drop the company's snapshot once the surrounding transaction commits, for bulk updates that change
+     * invoices without loading them. The next summary reloads it.
+     */
+    public void invalidate(Long companyId) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                generationByCompany.merge(companyId, 1L, Long::sum);
+                removeSnapshot(companyId);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private Snapshot snapshotFor(Long companyId) {
+        long generation;
+        synchronized (this) {
+            Snapshot snapshot = snapshots.get(companyId);
+            if (snapshot != null) {
+                if (System.nanoTime() - snapshot.loadedAtNanos < TimeUnit.SECONDS.toNanos(maxAgeSeconds)) {
+                    return snapshot;
+                }
+                removeSnapshot(companyId);
+            }
+            generation = generationByCompany.getOrDefault(companyId, 0L);
+        }
+
+        Snapshot loaded = new Snapshot(load(companyId), System.nanoTime());
+
+        synchronized (this) {
+            // A company larger than the whole budget is served from a one-off snapshot and not retained
+            if (generationByCompany.getOrDefault(companyId, 0L) == generation && loaded.retainedRows <= maxRows) {
+                removeSnapshot(companyId);
+                snapshots.put(companyId, loaded);
+                retainedRows += loaded.retainedRows;
+                evictOverBudget();
+            }
+        }
+        return loaded;
+    }
+
+    private InvoiceColumns load(Long companyId) {
+        long start = System.currentTimeMillis();
+        InvoiceColumns columns = readOnlyTransaction.execute(status -> {
+            InvoiceColumns result = new InvoiceColumns(1024);
+            try (Stream<Object[]> rows = invoiceRepository.streamAnalyticsColumns(companyId)) {
+                rows.forEach(row -> result.upsert(
+                        (Long) row[0],
+                        (int) ((LocalDate) row[1]).toEpochDay(),
+                        (Long) row[2],
+                        ((InvoiceStatus) row[3]).ordinal(),
+                        toMinor((BigDecimal) row[4]),
+                        toMinor((BigDecimal) row[5]),
+                        toMinor((BigDecimal) row[6])));
+            }
+            return result;
+        });
+        log.debug("Loaded invoice analytics snapshot for company {}: {} rows in {} ms",
+                companyId, columns.size(), System.currentTimeMillis() - start);
+        return columns;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, Snapshot>> it = snapshots.entrySet().iterator();
+        while (retainedRows > maxRows && it.hasNext()) {
+            Map.Entry<Long, Snapshot> eldest = it.next();
+            retainedRows -= eldest.getValue().retainedRows;
+            it.remove();
+            log.debug("Evicted invoice analytics snapshot for company {}", eldest.getKey());
+        }
+    }
+
+    private void removeSnapshot(Long companyId) {
+        Snapshot removed = snapshots.remove(companyId);
+        if (removed != null) {
+            retainedRows -= removed.retainedRows;
+        }
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
@@ -0,0 +1,505 @@
+package com.xeine.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xeine.dto.request.InvoiceCreateRequest;
+import com.xeine.dto.request.InvoiceItemCreateRequest;
+import com.xeine.dto.response.InvoiceImportErrorDTO;
+import com.xeine.dto.response.InvoiceImportResultDTO;
+import com.xeine.enums.ReportType;
+import com.xeine.exception.BusinessValidationException;
+import com.xeine.exception.CompanyNotFoundException;
+import com.xeine.exception.InsufficientInventoryException;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.Invoice;
+import com.xeine.models.Product;
+import com.xeine.repository.CompanyRepository;
+import com.xeine.repository.CustomerRepository;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk invoice import from a JSON array of invoice requests or a CSV stream with one line per invoice item.
+ * Input is read incrementally and imported in chunks of invoices.import.chunk-size invoices. Each chunk loads its
+ * customers and products with one query each and is written in its own transaction with batched inserts.
+ * Invalid rows are reported and skipped without stopping the rest of the import. A chunk that finds stock taken by
+ * a concurrent invoice is written again without the rows for the products that ran short.
+ */
+@Service
+@Slf4j
+public class InvoiceImportService {
+
+    // CSV lines with the same invoice_ref, one after another, form one invoice
+    private static final String COL_REF = "invoice_ref";
+    private static final String COL_CUSTOMER = "customer_id";
+    private static final String COL_INVOICE_DATE = "invoice_date";
+    private static final String COL_DUE_DATE = "due_date";
+    private static final String COL_DISCOUNT = "discount_percentage";
+    private static final String COL_DISCOUNT_REASON = "discount_reason";
+    private static final String COL_NOTES = "notes";
+    private static final String COL_PRODUCT = "product_id";
+    private static final String COL_QUANTITY = "quantity";
+    private static final String COL_DESCRIPTION = "description";
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of(COL_REF, COL_CUSTOMER, COL_PRODUCT, COL_QUANTITY);
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CompanyMetricsService companyMetricsService;
+
+    @Autowired
+    private InvoiceAnalyticsService invoiceAnalyticsService;
+
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${invoices.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${invoices.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record ImportRow(long row, String invoiceRef, InvoiceCreateRequest request, String error) {
+    }
+
+    /**
+     * Import a JSON array of invoice create requests. Each element's companyId is replaced by the given company.
+     */
+    public InvoiceImportResultDTO importJson(Long companyId, InputStream in) throws IOException {
+        ImportRun run = new ImportRun(requireCompany(companyId));
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BusinessValidationException("Expected a JSON array of invoices");
+            }
+            long row = 0;
+            try {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    row++;
+                    JsonNode node = objectMapper.readTree(parser);
+                    try {
+                        run.accept(new ImportRow(row, null, objectMapper.treeToValue(node, InvoiceCreateRequest.class), null));
+                    } catch (JsonProcessingException e) {
+                        run.accept(new ImportRow(row, null, null, "Invalid invoice: " + e.getOriginalMessage()));
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Malformed JSON: nothing after this point can be read, but earlier rows are still imported
+                run.accept(new ImportRow(row + 1, null, null, "Malformed JSON, import stopped here: " + e.getOriginalMessage()));
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Import a CSV stream with a header line. Each line is one invoice item; consecutive lines with the same
+     * invoice_ref make up one invoice, whose customer, dates, discount and notes are taken from its first line.
+     */
+    public InvoiceImportResultDTO importCsv(Long companyId, InputStream in) throws IOException {
+        ImportRun run = new ImportRun(requireCompany(companyId));
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BusinessValidationException("CSV input is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsvLine(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new BusinessValidationException("Missing CSV columns: " + String.join(", ", missing));
+        }
+
+        long lineNumber = 1;
+        long firstLine = 0;
+        String currentRef = null;
+        InvoiceCreateRequest current = null;
+        String currentError = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            String ref = field(fields, columns, COL_REF);
+            if (current == null || ref == null || !ref.equals(currentRef)) {
+                if (current != null) {
+                    run.accept(new ImportRow(firstLine, currentRef, currentError == null ? current : null, currentError));
+                }
+                firstLine = lineNumber;
+                currentRef = ref;
+                current = new InvoiceCreateRequest();
+                current.setItems(new ArrayList<>());
+                currentError = null;
+                try {
+                    readInvoiceFields(current, fields, columns);
+                } catch (RuntimeException e) {
+                    currentError = "Line " + lineNumber + ": " + e.getMessage();
+                }
+            }
+            if (currentError == null) {
+                try {
+                    current.getItems().add(readItem(fields, columns));
+                } catch (RuntimeException e) {
+                    currentError = "Line " + lineNumber + ": " + e.getMessage();
+                }
+            }
+        }
+        if (current != null) {
+            run.accept(new ImportRow(firstLine, currentRef, currentError == null ? current : null, currentError));
+        }
+        return run.finish();
+    }
+
+    private Long requireCompany(Long companyId) {
+        companyRepository.findActiveById(companyId)
+                .orElseThrow(() -> new CompanyNotFoundException("Company not found with ID: " + companyId));
+        return companyId;
+    }
+
+    /**
+     * Collects rows into chunks and the outcome of every chunk
+     */
+    private final class ImportRun {
+        private final Long companyId;
+        private final List<ImportRow> pending = new ArrayList<>();
+        private final List<InvoiceImportErrorDTO> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedCount;
+        private long failedCount;
+
+        private ImportRun(Long companyId) {
+            this.companyId = companyId;
+        }
+
+        private void accept(ImportRow row) {
+            totalRows++;
+            pending.add(row);
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private InvoiceImportResultDTO finish() {
+            flush();
+            log.info("Invoice import for company {}: {} rows, {} imported, {} failed",
+                    companyId, totalRows, importedCount, failedCount);
+            return new InvoiceImportResultDTO(totalRows, importedCount, failedCount, errors);
+        }
+
+        private void fail(ImportRow row, String message) {
+            failedCount++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new InvoiceImportErrorDTO(row.row(), row.invoiceRef(), message));
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<ImportRow> candidates = new ArrayList<>();
+            for (ImportRow row : pending) {
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    fail(row, error);
+                } else {
+                    candidates.add(row);
+                }
+            }
+            pending.clear();
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            List<ImportRow> remaining = candidates;
+            while (!remaining.isEmpty()) {
+                List<ImportRow> chunk = remaining;
+                Map<ImportRow, String> rejected = new IdentityHashMap<>();
+                try {
+                    Integer imported = transactionTemplate.execute(status -> writeChunk(companyId, chunk, rejected));
+                    importedCount += imported != null ? imported : 0;
+                    chunk.stream().filter(rejected::containsKey).forEach(row -> fail(row, rejected.get(row)));
+                    return;
+                } catch (InsufficientInventoryException e) {
+                    if (e.getProductIds().isEmpty()) {
+                        failChunk(chunk, rejected, e);
+                        return;
+                    }
+                    // Stock was taken by a concurrent invoice: fail the rows for the short products and write the
+                    // rest again
+                    List<ImportRow> retry = new ArrayList<>(chunk.size());
+                    for (ImportRow row : chunk) {
+                        if (usesAny(row, e.getProductIds())) {
+                            fail(row, "Not imported, " + e.getMessage());
+                        } else {
+                            retry.add(row);
+                        }
+                    }
+                    log.info("Invoice import chunk for company {} ran short of products {}, retrying {} of {} rows",
+                            companyId, e.getProductIds(), retry.size(), chunk.size());
+                    remaining = retry;
+                } catch (RuntimeException e) {
+                    failChunk(chunk, rejected, e);
+                    return;
+                }
+            }
+        }
+
+        // The chunk rolled back as a whole
+        private void failChunk(List<ImportRow> chunk, Map<ImportRow, String> rejected, RuntimeException e) {
+            log.warn("Invoice import chunk for company {} failed: {}", companyId, e.getMessage());
+            for (ImportRow row : chunk) {
+                fail(row, rejected.getOrDefault(row, "Not imported, chunk failed: " + e.getMessage()));
+            }
+        }
+
+        private String validate(InvoiceCreateRequest request) {
+            request.setCompanyId(companyId);
+            Set<ConstraintViolation<InvoiceCreateRequest>> violations = validator.validate(request);
+            if (violations.isEmpty()) {
+                return null;
+            }
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+    }
+
+    /**
+     * Write one chunk of valid rows; rows that reference unknown customers or products, that exceed the stock left
+     * by earlier rows or that fail to build are put in rejected and skipped. Returns the number of invoices written.
+     * Throws InsufficientInventoryException naming the products a concurrent invoice left short.
+     */
+    private int writeChunk(Long companyId, List<ImportRow> rows, Map<ImportRow, String> rejected) {
+        Company company = companyRepository.findActiveById(companyId)
+                .orElseThrow(() -> new CompanyNotFoundException("Company not found with ID: " + companyId));
+
+        Set<Long> customerIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (ImportRow row : rows) {
+            customerIds.add(row.request().getCustomerId());
+            row.request().getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        Map<Long, Customer> customersById = new HashMap<>();
+        customerRepository.findByIdsAndCompany(new ArrayList<>(customerIds), companyId)
+                .forEach(customer -> customersById.put(customer.getCustomerId(), customer));
+        Map<Long, Product> productsById = new HashMap<>();
+        productRepository.findByIdsAndCompany(new ArrayList<>(productIds), companyId)
+                .forEach(product -> productsById.put(product.getProductId(), product));
+
+        // Stock left for later rows of this chunk
+        Map<Long, Integer> availableStock = new HashMap<>();
+        List<Invoice> invoices = new ArrayList<>(rows.size());
+        List<Product> stockProducts = new ArrayList<>();
+        List<BigDecimal> stockQuantities = new ArrayList<>();
+
+        for (ImportRow row : rows) {
+            InvoiceCreateRequest request = row.request();
+            Customer customer = customersById.get(request.getCustomerId());
+            if (customer == null) {
+                rejected.put(row, "Customer not found with ID: " + request.getCustomerId());
+                continue;
+            }
+
+            List<Product> products = new ArrayList<>(request.getItems().size());
+            Set<Long> missingIds = new LinkedHashSet<>();
+            Map<Product, Integer> requestedByProduct = new LinkedHashMap<>();
+            for (InvoiceItemCreateRequest item : request.getItems()) {
+                Product product = productsById.get(item.getProductId());
+                if (product == null) {
+                    missingIds.add(item.getProductId());
+                    continue;
+                }
+                products.add(product);
+                requestedByProduct.merge(product, item.getQuantity().intValue(), Integer::sum);
+            }
+            if (!missingIds.isEmpty()) {
+                rejected.put(row, "Products not found with IDs: "
+                        + missingIds.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            List<String> outOfStockItems = new ArrayList<>();
+            for (Map.Entry<Product, Integer> entry : requestedByProduct.entrySet()) {
+                Product product = entry.getKey();
+                int available = availableStock.computeIfAbsent(product.getProductId(),
+                        id -> product.getStockQuantity() != null ? product.getStockQuantity() : 0);
+                if (entry.getValue() > available) {
+                    outOfStockItems.add(String.format("Product '%s' - Requested: %d, Available: %d",
+                            product.getProductName(), entry.getValue(), available));
+                }
+            }
+            if (!outOfStockItems.isEmpty()) {
+                rejected.put(row, "Insufficient inventory for the following items: " + String.join("; ", outOfStockItems));
+                continue;
+            }
+
+            try {
+                invoices.add(invoiceService.buildDirectInvoice(request, company, customer, products));
+            } catch (RuntimeException e) {
+                rejected.put(row, "Invoice could not be built: " + e.getMessage());
+                continue;
+            }
+            requestedByProduct.forEach((product, quantity) -> availableStock.merge(product.getProductId(), -quantity, Integer::sum));
+            for (int i = 0; i < products.size(); i++) {
+                stockProducts.add(products.get(i));
+                stockQuantities.add(request.getItems().get(i).getQuantity());
+            }
+        }
+
+        if (invoices.isEmpty()) {
+            return 0;
+        }
+
+        invoiceRepository.saveAll(invoices);
+        invoiceService.deductStock(stockProducts, stockQuantities);
+        companyMetricsService.recordInvoicesCreated(companyId, invoices);
+        invoices.forEach(invoiceAnalyticsService::recordInvoice);
+        invoices.forEach(documentSearchService::recordInvoice);
+        reportCacheService.invalidate(companyId,
+                ReportType.INVOICES, ReportType.COMPANY, ReportType.PRODUCTS, ReportType.AGING);
+
+        // Write the batch now and drop the chunk's entities so memory stays flat across chunks
+        entityManager.flush();
+        entityManager.clear();
+        return invoices.size();
+    }
+
+    private static boolean usesAny(ImportRow row, Set<Long> productIds) {
+        return row.request().getItems().stream().anyMatch(item -> productIds.contains(item.getProductId()));
+    }
+
+    private void readInvoiceFields(InvoiceCreateRequest request, List<String> fields, Map<String, Integer> columns) {
+        String customerId = field(fields, columns, COL_CUSTOMER);
+        request.setCustomerId(customerId != null ? Long.valueOf(customerId) : null);
+        String invoiceDate = field(fields, columns, COL_INVOICE_DATE);
+        request.setInvoiceDate(invoiceDate != null ? LocalDate.parse(invoiceDate) : null);
+        String dueDate = field(fields, columns, COL_DUE_DATE);
+        request.setDueDate(dueDate != null ? LocalDate.parse(dueDate) : null);
+        String discount = field(fields, columns, COL_DISCOUNT);
+        request.setDiscountPercentage(discount != null ? new BigDecimal(discount) : BigDecimal.ZERO);
+        request.setDiscountReason(field(fields, columns, COL_DISCOUNT_REASON));
+        request.setNotes(field(fields, columns, COL_NOTES));
+    }
+
+    private InvoiceItemCreateRequest readItem(List<String> fields, Map<String, Integer> columns) {
+        InvoiceItemCreateRequest item = new InvoiceItemCreateRequest();
+        String productId = field(fields, columns, COL_PRODUCT);
+        item.setProductId(productId != null ? Long.valueOf(productId) : null);
+        String quantity = field(fields, columns, COL_QUANTITY);
+        item.setQuantity(quantity != null ? new BigDecimal(quantity) : null);
+        item.setDescription(field(fields, columns, COL_DESCRIPTION));
+        return item;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Split one CSV line; fields may be quoted with "" as an escaped quote. Quoted line breaks are not supported.
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
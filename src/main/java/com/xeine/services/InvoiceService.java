@@ -3,26 +3,39 @@ package com.xeine.services;
 import com.xeine.dto.request.ConvertQuotationToInvoiceRequest;
 import com.xeine.dto.request.InvoiceCreateRequest;
 import com.xeine.dto.request.InvoiceItemCreateRequest;
+import com.xeine.dto.response.CursorPageDTO;
+import com.xeine.dto.response.InvoiceListItemDTO;
 import com.xeine.dto.response.InvoiceResponseDTO;
 import com.xeine.dto.response.InvoiceItemResponseDTO;
+import com.xeine.enums.DocumentType;
 import com.xeine.enums.InvoiceStatus;
 import com.xeine.enums.QuotationStatus;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.*;
 import com.xeine.models.*;
 import com.xeine.repository.*;
+import com.xeine.utils.money.Money;
+import com.xeine.utils.money.Rate;
+import com.xeine.utils.pagination.KeysetCursor;
+import com.xeine.utils.pagination.KeysetPages;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,6 +57,24 @@ public class InvoiceService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private LineItemProductResolver lineItemProductResolver;
+
+    @Autowired
+    private CompanyMetricsService companyMetricsService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private InvoiceAnalyticsService invoiceAnalyticsService;
+
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
     /**
      * Create invoice directly (without quotation) - WITH INVENTORY MANAGEMENT
      */
@@ -66,15 +97,8 @@ public class InvoiceService {
         // 4. NEW: Check inventory availability BEFORE creating invoice
         validateInventoryAvailability(request.getItems(), products);
 
-        // 5. Create invoice
-        Invoice invoice = createDirectInvoice(request, company, customer);
-
-        // 6. Create invoice items and calculate totals
-        List<InvoiceItem> invoiceItems = createInvoiceItemsFromRequest(request.getItems(), invoice, products);
-        invoice.setInvoiceItems(invoiceItems);
-
-        // 7. Calculate and set financial totals
-        calculateInvoiceTotals(invoice, request.getDiscountPercentage());
+        // 5-7. Create invoice with its items and financial totals
+        Invoice invoice = buildDirectInvoice(request, company, customer, products);
 
         // 8. Save invoice first
         Invoice savedInvoice = invoiceRepository.save(invoice);
@@ -82,6 +106,13 @@ public class InvoiceService {
         // 9. NEW: Update inventory after successful invoice creation
         updateInventoryForInvoiceItems(request.getItems(), products);
 
+        // 10. Update company totals
+        companyMetricsService.recordInvoiceCreated(savedInvoice);
+        invoiceAnalyticsService.recordInvoice(savedInvoice);
+        documentSearchService.recordInvoice(savedInvoice);
+        reportCacheService.invalidate(savedInvoice.getCompany().getCompanyId(),
+                ReportType.INVOICES, ReportType.COMPANY, ReportType.PRODUCTS, ReportType.QUOTATIONS, ReportType.AGING);
+
         log.info("Successfully created invoice {} directly with inventory updated", savedInvoice.getInvoiceNumber());
 
         return convertToResponseDTO(savedInvoice);
@@ -136,6 +167,13 @@ public class InvoiceService {
         // 9. NEW: Update inventory after successful invoice creation
         updateInventoryForQuotationItems(quotation.getQuotationItems());
 
+        // 10. Update company totals
+        companyMetricsService.recordInvoiceCreated(savedInvoice);
+        invoiceAnalyticsService.recordInvoice(savedInvoice);
+        documentSearchService.recordInvoice(savedInvoice);
+        reportCacheService.invalidate(savedInvoice.getCompany().getCompanyId(),
+                ReportType.INVOICES, ReportType.COMPANY, ReportType.PRODUCTS, ReportType.QUOTATIONS, ReportType.AGING);
+
         log.info("Successfully converted quotation {} to invoice {} with inventory updated",
                 quotation.getQuotationNumber(), savedInvoice.getInvoiceNumber());
 
@@ -150,16 +188,20 @@ public class InvoiceService {
     private void validateInventoryAvailability(List<InvoiceItemCreateRequest> itemRequests, List<Product> products) {
         List<String> outOfStockItems = new ArrayList<>();
 
+        // A product may appear on several lines, so check the combined quantity
+        Map<Product, Integer> requestedByProduct = new LinkedHashMap<>();
         for (int i = 0; i < itemRequests.size(); i++) {
-            InvoiceItemCreateRequest itemRequest = itemRequests.get(i);
-            Product product = products.get(i);
+            requestedByProduct.merge(products.get(i), itemRequests.get(i).getQuantity().intValue(), Integer::sum);
+        }
 
-            int requestedQuantity = itemRequest.getQuantity().intValue();
+        for (Map.Entry<Product, Integer> entry : requestedByProduct.entrySet()) {
+            Product product = entry.getKey();
+            int requestedQuantity = entry.getValue();
 
             if (!product.hasSufficientStock(requestedQuantity)) {
                 int availableStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
                 outOfStockItems.add(String.format(
-
+                        "Product '%s' - Requested: %d, Available: %d",
                         product.getProductName(),
                         requestedQuantity,
                         availableStock
@@ -187,7 +229,7 @@ public class InvoiceService {
             if (!product.hasSufficientStock(requestedQuantity)) {
                 int availableStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
                 outOfStockItems.add(String.format(
-                        "Product '%s' (Code: %s) - Requested: %d, Available: %d",
+                        "Product '%s' - Requested: %d, Available: %d",
                         product.getProductName(),
                         requestedQuantity,
                         availableStock
@@ -206,61 +248,75 @@ public class InvoiceService {
      * Update inventory for direct invoice items
      */
     private void updateInventoryForInvoiceItems(List<InvoiceItemCreateRequest> itemRequests, List<Product> products) {
-        List<Product> productsToUpdate = new ArrayList<>();
-
-        for (int i = 0; i < itemRequests.size(); i++) {
-            InvoiceItemCreateRequest itemRequest = itemRequests.get(i);
-            Product product = products.get(i);
-
-            int quantityToReduce = itemRequest.getQuantity().intValue();
-            int previousStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-
-            // Use Product's helper method to reduce stock
-            product.reduceStock(quantityToReduce);
-            productsToUpdate.add(product);
-
-
-
+        List<BigDecimal> quantities = new ArrayList<>(itemRequests.size());
+        for (InvoiceItemCreateRequest itemRequest : itemRequests) {
+            quantities.add(itemRequest.getQuantity());
         }
-
-        // Batch save all updated products
-        productRepository.saveAll(productsToUpdate);
+        deductStock(products, quantities);
     }
 
     /**
      * Update inventory for quotation items
      */
     private void updateInventoryForQuotationItems(List<QuotationItem> quotationItems) {
-        List<Product> productsToUpdate = new ArrayList<>();
-
+        List<Product> products = new ArrayList<>(quotationItems.size());
+        List<BigDecimal> quantities = new ArrayList<>(quotationItems.size());
         for (QuotationItem quotationItem : quotationItems) {
-            Product product = quotationItem.getProduct();
-
-            int quantityToReduce = quotationItem.getQuantity().intValue();
-            int previousStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-
-            // Use Product's helper method to reduce stock
-            product.reduceStock(quantityToReduce);
-            productsToUpdate.add(product);
-
-            log.info("Updated inventory for product {} ({}): {} -> {} (reduced by {})",
-                    product.getProductName(),
-
-                    previousStock,
-                    product.getStockQuantity(),
-                    quantityToReduce);
-
-
+            products.add(quotationItem.getProduct());
+            quantities.add(quotationItem.getQuantity());
         }
-
-        // Batch save all updated products
-        productRepository.saveAll(productsToUpdate);
+        deductStock(products, quantities);
     }
 
+    /**
+     * Deduct stock with one conditional UPDATE per product, issued in product ID order so concurrent invoices
+     * lock rows in the same order and cannot deadlock. If any product no longer has enough stock the exception
+     * rolls back the whole invoice. The loaded Product entities are left untouched, so flushing them cannot
+     * overwrite the database value.
+     */
+    void deductStock(List<Product> products, List<BigDecimal> quantities) {
+        Map<Long, Integer> quantityByProductId = new TreeMap<>();
+        Map<Long, Product> productsById = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            quantityByProductId.merge(product.getProductId(), quantities.get(i).intValue(), Integer::sum);
+            productsById.put(product.getProductId(), product);
+        }
 
+        LocalDateTime now = LocalDateTime.now();
+        List<String> outOfStockItems = new ArrayList<>();
+        Set<Long> outOfStockIds = new LinkedHashSet<>();
+        for (Map.Entry<Long, Integer> entry : quantityByProductId.entrySet()) {
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue(), now) == 0) {
+                outOfStockItems.add(String.format("Product '%s' - Requested: %d",
+                        productsById.get(entry.getKey()).getProductName(), entry.getValue()));
+                outOfStockIds.add(entry.getKey());
+            } else {
+                log.debug("Reduced stock of product {} by {}", entry.getKey(), entry.getValue());
+            }
+        }
 
+        if (!outOfStockItems.isEmpty()) {
+            throw new InsufficientInventoryException(
+                    "Insufficient inventory for the following items: " + String.join("; ", outOfStockItems),
+                    outOfStockIds
+            );
+        }
+    }
 
+    /**
+     * Build an unsaved direct invoice with its items and totals. Products are given in item order.
+     */
+    Invoice buildDirectInvoice(InvoiceCreateRequest request, Company company, Customer customer, List<Product> products) {
+        Invoice invoice = createDirectInvoice(request, company, customer);
+        invoice.setInvoiceItems(createInvoiceItemsFromRequest(request.getItems(), invoice, products));
+        calculateInvoiceTotals(invoice, request.getDiscountPercentage());
 
+        // Next number in the company's invoice series for the fiscal year of the invoice date, taken last so an
+        // invoice that fails to build does not leave a gap
+        invoice.setInvoiceNumber(documentNumberService.next(DocumentType.INVOICE, company.getCompanyId(), invoice.getInvoiceDate()));
+        return invoice;
+    }
 
     /**
      * Create invoice entity for direct creation
@@ -268,9 +324,6 @@ public class InvoiceService {
     private Invoice createDirectInvoice(InvoiceCreateRequest request, Company company, Customer customer) {
         Invoice invoice = new Invoice();
 
-        // Generate unique invoice number
-        invoice.setInvoiceNumber("INV" + UUID.randomUUID());
-
         // Set basic information
         invoice.setCompany(company);
         invoice.setCustomer(customer);
@@ -305,13 +358,12 @@ public class InvoiceService {
     }
 
     private List<Product> validateAndGetProducts(List<InvoiceItemCreateRequest> itemRequests, Long companyId) {
-        List<Product> products = new ArrayList<>();
+        Map<Long, Product> productsById = lineItemProductResolver.resolve(
+                itemRequests, InvoiceItemCreateRequest::getProductId, companyId);
 
+        List<Product> products = new ArrayList<>(itemRequests.size());
         for (InvoiceItemCreateRequest itemRequest : itemRequests) {
-            Product product = productRepository.findActiveByIdAndCompany(itemRequest.getProductId(), companyId)
-                    .orElseThrow(() -> new ProductNotFoundException(
-                            "Product not found with ID: " + itemRequest.getProductId()));
-            products.add(product);
+            products.add(productsById.get(itemRequest.getProductId()));
         }
 
         return products;
@@ -340,16 +392,15 @@ public class InvoiceService {
             invoiceItem.setTaxRate(product.getTaxRate() != null ? product.getTaxRate() : BigDecimal.ZERO);
 
             // Calculate line total before tax
-            BigDecimal lineSubtotal = itemRequest.getQuantity().multiply(product.getSellingPrice());
+            Money lineSubtotal = Money.of(product.getSellingPrice()).times(Rate.of(itemRequest.getQuantity()));
 
             // Calculate tax amount
-            BigDecimal taxAmount = lineSubtotal.multiply(invoiceItem.getTaxRate())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            invoiceItem.setTaxAmount(taxAmount);
+            Money taxAmount = lineSubtotal.percent(Rate.of(invoiceItem.getTaxRate()));
+            invoiceItem.setTaxAmount(taxAmount.toBigDecimal());
 
             // Calculate line total (including tax)
-            BigDecimal lineTotal = lineSubtotal.add(taxAmount);
-            invoiceItem.setLineTotal(lineTotal);
+            Money lineTotal = lineSubtotal.plus(taxAmount);
+            invoiceItem.setLineTotal(lineTotal.toBigDecimal());
 
             // Set description
             invoiceItem.setDescription(itemRequest.getDescription() != null ?
@@ -362,30 +413,30 @@ public class InvoiceService {
     }
 
     private void calculateInvoiceTotals(Invoice invoice, BigDecimal discountPercentage) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
+        Money subtotal = Money.ZERO;
+        Money totalTax = Money.ZERO;
 
         for (InvoiceItem item : invoice.getInvoiceItems()) {
-            BigDecimal lineSubtotal = item.getQuantity().multiply(item.getUnitPrice());
-            subtotal = subtotal.add(lineSubtotal);
-            totalTax = totalTax.add(item.getTaxAmount());
+            Money lineSubtotal = Money.of(item.getUnitPrice()).times(Rate.of(item.getQuantity()));
+            subtotal = subtotal.plus(lineSubtotal);
+            totalTax = totalTax.plus(Money.of(item.getTaxAmount()));
         }
 
-        invoice.setSubtotal(subtotal);
-        invoice.setTaxAmount(totalTax);
+        invoice.setSubtotal(subtotal.toBigDecimal());
+        invoice.setTaxAmount(totalTax.toBigDecimal());
 
         // Calculate total before discount
-        BigDecimal totalBeforeDiscount = subtotal.add(totalTax);
-        invoice.setTotalBeforeDiscount(totalBeforeDiscount);
+        Money totalBeforeDiscount = subtotal.plus(totalTax);
+        invoice.setTotalBeforeDiscount(totalBeforeDiscount.toBigDecimal());
 
-        BigDecimal discountAmount = BigDecimal.ZERO;
-        if (discountPercentage != null && discountPercentage.compareTo(BigDecimal.ZERO) > 0) {
-            discountAmount = totalBeforeDiscount.multiply(discountPercentage)
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        Money discountAmount = Money.ZERO;
+        Rate discountRate = Rate.of(discountPercentage);
+        if (discountRate.isPositive()) {
+            discountAmount = totalBeforeDiscount.percent(discountRate);
         }
-        invoice.setDiscountAmount(discountAmount);
+        invoice.setDiscountAmount(discountAmount.toBigDecimal());
 
-        BigDecimal totalAmount = totalBeforeDiscount.subtract(discountAmount);
+        BigDecimal totalAmount = totalBeforeDiscount.minus(discountAmount).toBigDecimal();
         invoice.setTotalAmount(totalAmount);
 
         invoice.setOutstandingAmount(totalAmount);
@@ -394,9 +445,6 @@ public class InvoiceService {
     private Invoice createInvoiceFromQuotation(Quotation quotation, ConvertQuotationToInvoiceRequest request) {
         Invoice invoice = new Invoice();
 
-        // Generate unique invoice number
-        invoice.setInvoiceNumber("INV" + UUID.randomUUID());
-
         // Copy basic information from quotation
         invoice.setCompany(quotation.getCompany());
         invoice.setCustomer(quotation.getCustomer());
@@ -407,6 +455,9 @@ public class InvoiceService {
         invoice.setDueDate(request.getDueDate() != null ?
                 request.getDueDate() : LocalDate.now().plusDays(30));
 
+        invoice.setInvoiceNumber(documentNumberService.next(DocumentType.INVOICE,
+                quotation.getCompany().getCompanyId(), invoice.getInvoiceDate()));
+
         invoice.setSubtotal(quotation.getSubtotal());
         invoice.setTaxAmount(quotation.getTaxAmount());
         invoice.setDiscountPercentage(quotation.getDiscountPercentage());
@@ -456,17 +507,43 @@ public class InvoiceService {
     }
 
     public InvoiceResponseDTO getInvoiceById(Long invoiceId, Long companyId) {
-        Invoice invoice = invoiceRepository.findActiveByIdAndCompany(invoiceId, companyId)
+        Invoice invoice = invoiceRepository.findDetailByIdAndCompany(invoiceId, companyId)
                 .orElseThrow(() -> new InvoiceNotFoundException("Invoice not found with ID: " + invoiceId));
 
         return convertToResponseDTO(invoice);
     }
 
-    public List<InvoiceResponseDTO> getAllInvoicesByCompany(Long companyId) {
-        List<Invoice> invoices = invoiceRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId);
-        return invoices.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    /**
+     * One page of the company's invoices, newest first, as list rows without items, optionally only those in
+     * one stored status. The cursor comes from the previous page's nextCursor.
+     */
+    public CursorPageDTO<InvoiceListItemDTO> getAllInvoicesByCompany(Long companyId, String status, String cursor,
+                                                                     Integer size, boolean includeTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPages.pageSize(size);
+        if (status != null && !status.isBlank()) {
+            InvoiceStatus invoiceStatus = parseStatus(status);
+            List<InvoiceListItemDTO> rows = after == null
+                    ? invoiceRepository.findListPageByStatus(companyId, invoiceStatus, KeysetPages.lookAhead(pageSize))
+                    : invoiceRepository.findListPageByStatusAfter(companyId, invoiceStatus, after.createdAt(), after.id(),
+                    KeysetPages.lookAhead(pageSize));
+            return KeysetPages.page(rows, pageSize, row -> new KeysetCursor(row.getCreatedAt(), row.getInvoiceId()),
+                    Function.identity(), includeTotal,
+                    () -> invoiceRepository.countByCompanyCompanyIdAndStatus(companyId, invoiceStatus));
+        }
+        List<InvoiceListItemDTO> rows = after == null
+                ? invoiceRepository.findListPage(companyId, KeysetPages.lookAhead(pageSize))
+                : invoiceRepository.findListPageAfter(companyId, after.createdAt(), after.id(), KeysetPages.lookAhead(pageSize));
+        return KeysetPages.page(rows, pageSize, row -> new KeysetCursor(row.getCreatedAt(), row.getInvoiceId()),
+                Function.identity(), includeTotal, () -> invoiceRepository.countByCompanyCompanyId(companyId));
+    }
+
+    private InvoiceStatus parseStatus(String status) {
+        try {
+            return InvoiceStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessValidationException("Invalid status value: " + status);
+        }
     }
 
     public InvoiceResponseDTO getInvoiceByQuotationId(Long quotationId, Long companyId) {
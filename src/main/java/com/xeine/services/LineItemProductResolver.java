@@ -0,0 +1,56 @@
+package com.xeine.services;
+
+import com.xeine.exception.ProductNotFoundException;
+import com.xeine.models.Product;
+import com.xeine.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the products referenced by a document's line items (invoice, quotation, purchase order) in one query
+ */
+@Service
+public class LineItemProductResolver {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Active products of the company for the given line items, keyed by product ID. Lines that repeat a product
+     * share one entry (and one managed entity). Throws ProductNotFoundException naming every ID that is missing,
+     * inactive or belongs to another company.
+     */
+    public <T> Map<Long, Product> resolve(List<T> items, Function<T, Long> productIdOf, Long companyId) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (T item : items) {
+            productIds.add(productIdOf.apply(item));
+        }
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findByIdsAndCompany(new ArrayList<>(productIds), companyId)) {
+            productsById.put(product.getProductId(), product);
+        }
+
+        if (productsById.size() < productIds.size()) {
+            List<Long> missingIds = productIds.stream()
+                    .filter(id -> !productsById.containsKey(id))
+                    .toList();
+            throw new ProductNotFoundException(missingIds.size() == 1
+                    ? "Product not found with ID: " + missingIds.get(0)
+                    : "Products not found with IDs: " + missingIds.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+        }
+        return productsById;
+    }
+}
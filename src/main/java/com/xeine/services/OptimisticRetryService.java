@@ -0,0 +1,101 @@
+package com.xeine.services;
+
+import com.xeine.dto.response.RetryStatsDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write in its own transaction and runs it again when it loses a version check, lock or deadlock to a
+ * concurrent transaction. Only for operations that are safe to repeat once the failed attempt has rolled back.
+ * Waits between attempts grow exponentially up to retry.max-backoff-ms, with full jitter.
+ */
+@Service
+@Slf4j
+public class OptimisticRetryService {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${retry.initial-backoff-ms:20}")
+    private long initialBackoffMs;
+
+    @Value("${retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+
+    private final Map<String, Counters> countersByOperation = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T inTransaction(String operation, Supplier<T> action) {
+        Counters counters = countersByOperation.computeIfAbsent(operation, name -> new Counters());
+        counters.calls.increment();
+
+        // Inside a caller's transaction a failed attempt has already doomed that transaction, so retrying here cannot help
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    counters.exhausted.increment();
+                    log.warn("{} failed after {} attempts due to concurrent updates", operation, attempt);
+                    throw e;
+                }
+                counters.retries.increment();
+                long backoffMs = backoffMillis(attempt);
+                log.debug("{} hit a concurrent update on attempt {}, retrying in {} ms", operation, attempt, backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public List<RetryStatsDTO> getStats() {
+        return countersByOperation.entrySet().stream()
+                .map(entry -> new RetryStatsDTO(entry.getKey(), entry.getValue().calls.sum(),
+                        entry.getValue().retries.sum(), entry.getValue().exhausted.sum()))
+                .sorted(Comparator.comparing(RetryStatsDTO::getOperation))
+                .toList();
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.xeine.services;
+
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.enums.ReportType;
+import com.xeine.repository.InvoiceRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves open invoices past their due date to OVERDUE, so the stored status can be filtered and counted.
+ * Invoices are swept in chunks by ascending id; each chunk is locked, updated with one bulk UPDATE and applied
+ * to the company metrics in its own short transaction. The chunk is locked with SKIP LOCKED, so sweeps on
+ * several nodes share the work instead of waiting on or double-counting each other's rows.
+ */
+@Service
+@Slf4j
+public class OverdueInvoiceService {
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private CompanyMetricsService companyMetricsService;
+
+    @Autowired
+    private InvoiceAnalyticsService invoiceAnalyticsService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${invoices.overdue.chunk-size:500}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private record Chunk(int locked, long lastId, int updated) {
+    }
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs hourly rather than once after midnight, so a missed run (restart, outage) is caught up quickly;
+     * a run with nothing to do is a single index probe.
+     */
+    @Scheduled(fixedDelayString = "${invoices.overdue.interval-ms:3600000}",
+            initialDelayString = "${invoices.overdue.initial-delay-ms:60000}")
+    public void sweepOverdueInvoices() {
+        int marked = markOverdueInvoices(LocalDate.now());
+        if (marked > 0) {
+            log.info("Marked {} invoices overdue", marked);
+        }
+    }
+
+    /**
+     * Mark every open invoice due before the given date as OVERDUE; returns the number of invoices changed
+     */
+    public int markOverdueInvoices(LocalDate today) {
+        long afterId = 0;
+        int marked = 0;
+        while (true) {
+            long from = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> sweepChunk(today, from));
+            marked += chunk.updated();
+            if (chunk.locked() < chunkSize) {
+                return marked;
+            }
+            afterId = chunk.lastId();
+        }
+    }
+
+    private Chunk sweepChunk(LocalDate today, long afterId) {
+        List<Object[]> rows = invoiceRepository.lockOverdueCandidates(today, afterId, chunkSize);
+        if (rows.isEmpty()) {
+            return new Chunk(0, afterId, 0);
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        Map<Long, long[]> statusDeltaByCompany = new HashMap<>();
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+            Long companyId = ((Number) row[1]).longValue();
+            InvoiceStatus previous = InvoiceStatus.valueOf((String) row[2]);
+            long[] statusDelta = statusDeltaByCompany.computeIfAbsent(companyId,
+                    id -> new long[InvoiceStatus.values().length]);
+            statusDelta[previous.ordinal()]--;
+            statusDelta[InvoiceStatus.OVERDUE.ordinal()]++;
+        }
+
+        // The rows are locked, so every one of them still qualifies and is updated
+        int updated = invoiceRepository.markOverdue(ids);
+
+        statusDeltaByCompany.forEach((companyId, statusDelta) -> {
+            companyMetricsService.recordStatusChanges(companyId, statusDelta);
+            invoiceAnalyticsService.invalidate(companyId);
+            reportCacheService.invalidate(companyId, ReportType.INVOICES, ReportType.AGING, ReportType.COMPANY);
+        });
+        return new Chunk(rows.size(), ids.get(ids.size() - 1), updated);
+    }
+}
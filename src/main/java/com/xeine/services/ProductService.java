@@ -3,13 +3,17 @@ package com.xeine.services;
 
 import com.xeine.dto.request.ProductCreateRequest;
 import com.xeine.dto.request.ProductUpdateRequest;
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.ProductResponseDTO;
 import com.xeine.enums.BusinessType;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.*;
 import com.xeine.models.Company;
 import com.xeine.models.Product;
 import com.xeine.repository.CompanyRepository;
 import com.xeine.repository.ProductRepository;
+import com.xeine.utils.pagination.KeysetCursor;
+import com.xeine.utils.pagination.KeysetPages;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -36,6 +40,12 @@ public class ProductService {
     @Autowired
     private ImageUploadService imageUploadService;
 
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Transactional
     public ProductResponseDTO createProduct(ProductCreateRequest request) {
         log.info("Creating product/service: {} for company: {}", request.getProductName(), request.getCompanyId());
@@ -99,6 +109,7 @@ public class ProductService {
         validatePricing(product.getCostPrice(), product.getSellingPrice());
 
         Product savedProduct = productRepository.save(product);
+        reportCacheService.invalidate(request.getCompanyId(), ReportType.PRODUCTS, ReportType.COMPANY);
         log.info("Successfully created product with ID: {}", savedProduct.getProductId());
 
         return convertToResponseDTO(savedProduct);
@@ -147,6 +158,8 @@ public class ProductService {
 
         existingProduct.setUpdatedAt(LocalDateTime.now());
         Product updatedProduct = productRepository.save(existingProduct);
+        // Product names and types also appear on invoice and quotation reports
+        reportCacheService.invalidate(companyId);
 
         log.info("Successfully updated product with ID: {}", productId);
         return convertToResponseDTO(updatedProduct);
@@ -160,11 +173,16 @@ public class ProductService {
         return convertToResponseDTO(product);
     }
 
-    public List<ProductResponseDTO> getAllProductsByCompany(Long companyId) {
-        List<Product> products = productRepository.findByCompanyCompanyIdAndIsActiveTrue(companyId);
-        return products.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<ProductResponseDTO> getAllProductsByCompany(Long companyId, String cursor, Integer size,
+                                                                     boolean includeTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPages.pageSize(size);
+        List<Product> products = after == null
+                ? productRepository.findActiveListPage(companyId, KeysetPages.lookAhead(pageSize))
+                : productRepository.findActiveListPageAfter(companyId, after.createdAt(), after.id(), KeysetPages.lookAhead(pageSize));
+        return KeysetPages.page(products, pageSize,
+                product -> new KeysetCursor(product.getCreatedAt(), product.getProductId()), this::convertToResponseDTO,
+                includeTotal, () -> productRepository.countByCompanyCompanyIdAndIsActiveTrue(companyId));
     }
 
 
@@ -185,8 +203,11 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public ProductResponseDTO updateStockQuantity(Long productId, Long companyId, Integer newQuantity) {
+        return optimisticRetryService.inTransaction("updateStockQuantity", () -> doUpdateStockQuantity(productId, companyId, newQuantity));
+    }
+
+    private ProductResponseDTO doUpdateStockQuantity(Long productId, Long companyId, Integer newQuantity) {
         Product product = productRepository.findActiveByIdAndCompany(productId, companyId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + productId));
 
@@ -202,6 +223,7 @@ public class ProductService {
         product.setUpdatedAt(LocalDateTime.now());
 
         Product updatedProduct = productRepository.save(product);
+        reportCacheService.invalidate(companyId, ReportType.PRODUCTS);
         return convertToResponseDTO(updatedProduct);
     }
 
@@ -214,6 +236,7 @@ public class ProductService {
         product.setIsActive(false);
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.save(product);
+        reportCacheService.invalidate(companyId, ReportType.PRODUCTS, ReportType.COMPANY);
 
         log.info("Successfully soft deleted product with ID: {}", productId);
     }
@@ -278,6 +301,7 @@ public class ProductService {
         product.setUpdatedAt(LocalDateTime.now());
 
         Product updatedProduct = productRepository.save(product);
+        reportCacheService.invalidate(companyId, ReportType.PRODUCTS);
         return convertToResponseDTO(updatedProduct);
     }
 
@@ -1,19 +1,25 @@
 package com.xeine.services;
 
 import com.xeine.dto.request.*;
+import com.xeine.dto.response.CursorPageDTO;
+import com.xeine.dto.response.PurchaseOrderListItemDTO;
 import com.xeine.dto.response.PurchaseOrderResponseDTO;
 import com.xeine.dto.response.PurchaseOrderItemResponseDTO;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.*;
 import com.xeine.models.*;
 import com.xeine.repository.*;
+import com.xeine.utils.pagination.KeysetCursor;
+import com.xeine.utils.pagination.KeysetPages;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -26,13 +32,22 @@ public class PurchaseOrderService {
     private CompanyRepository companyRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private LineItemProductResolver lineItemProductResolver;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
 
     /**
      * Create a new purchase order
      */
-    @Transactional
     public PurchaseOrderResponseDTO createPurchaseOrder(PurchaseOrderCreateRequest request) {
+        return optimisticRetryService.inTransaction("createPurchaseOrder", () -> doCreatePurchaseOrder(request));
+    }
+
+    private PurchaseOrderResponseDTO doCreatePurchaseOrder(PurchaseOrderCreateRequest request) {
         log.info("Creating purchase order with PO number: {} for company: {} and vendor: {}",
                 request.getPoNumber(), request.getCompanyId(), request.getVendorName());
 
@@ -62,6 +77,8 @@ public class PurchaseOrderService {
         calculatePurchaseOrderTotal(purchaseOrder);
 
         PurchaseOrder savedPurchaseOrder = purchaseOrderRepository.save(purchaseOrder);
+        // Received quantities are added to the stock the product report shows
+        reportCacheService.invalidate(company.getCompanyId(), ReportType.PRODUCTS);
         log.info("Successfully created purchase order with ID: {} and number: {}",
                 savedPurchaseOrder.getPurchaseOrderId(), savedPurchaseOrder.getPoNumber());
 
@@ -71,8 +88,11 @@ public class PurchaseOrderService {
     /**
      * Update purchase order
      */
-    @Transactional
     public PurchaseOrderResponseDTO updatePurchaseOrder(Long poId, Long companyId, PurchaseOrderUpdateRequest request) {
+        return optimisticRetryService.inTransaction("updatePurchaseOrder", () -> doUpdatePurchaseOrder(poId, companyId, request));
+    }
+
+    private PurchaseOrderResponseDTO doUpdatePurchaseOrder(Long poId, Long companyId, PurchaseOrderUpdateRequest request) {
         log.info("Updating purchase order ID: {} for company: {}", poId, companyId);
 
         PurchaseOrder existingPO = purchaseOrderRepository.findByIdAndCompany(poId, companyId)
@@ -91,6 +111,7 @@ public class PurchaseOrderService {
 
             // Add new items and update stock
             processPurchaseOrderItems(existingPO, request.getItems());
+            reportCacheService.invalidate(companyId, ReportType.PRODUCTS);
         }
 
         // Recalculate total
@@ -132,19 +153,30 @@ public class PurchaseOrderService {
     }
 
     /**
-     * Get all purchase orders for a company
+     * Get one page of a company's purchase orders, newest first, as list rows without items
      */
-    public List<PurchaseOrderResponseDTO> getAllPurchaseOrdersByCompany(Long companyId) {
-        log.info("Retrieving all purchase orders for company: {}", companyId);
-
-        List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findAllByCompanyId(companyId);
-
-        List<PurchaseOrderResponseDTO> responseDTOs = purchaseOrders.stream()
-                .map(this::convertToResponseDTO)
-                .toList();
+    public CursorPageDTO<PurchaseOrderListItemDTO> getAllPurchaseOrdersByCompany(Long companyId, String cursor,
+                                                                                 Integer size, boolean includeTotal) {
+        log.info("Retrieving purchase orders for company: {}", companyId);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPages.pageSize(size);
+        List<PurchaseOrderListItemDTO> rows = after == null
+                ? purchaseOrderRepository.findListPage(companyId, KeysetPages.lookAhead(pageSize))
+                : purchaseOrderRepository.findListPageAfter(companyId, after.createdAt(), after.id(), KeysetPages.lookAhead(pageSize));
+        CursorPageDTO<PurchaseOrderListItemDTO> page = KeysetPages.page(rows, pageSize,
+                row -> new KeysetCursor(row.getCreatedAt(), row.getPurchaseOrderId()), Function.identity(),
+                includeTotal, () -> purchaseOrderRepository.countActiveByCompanyId(companyId));
+
+        log.info("Retrieved {} purchase orders for company: {}", page.getItems().size(), companyId);
+        return page;
+    }
 
-        log.info("Retrieved {} purchase orders for company: {}", responseDTOs.size(), companyId);
-        return responseDTOs;
+    /**
+     * Number of purchase orders of a company and their total value
+     */
+    public Object[] getPurchaseOrderTotals(Long companyId) {
+        return purchaseOrderRepository.getTotalsByCompanyId(companyId).get(0);
     }
 
     /**
@@ -166,8 +198,14 @@ public class PurchaseOrderService {
     /**
      * Delete purchase order (soft delete)
      */
-    @Transactional
     public void deletePurchaseOrder(Long poId, Long companyId) {
+        optimisticRetryService.inTransaction("deletePurchaseOrder", () -> {
+            doDeletePurchaseOrder(poId, companyId);
+            return null;
+        });
+    }
+
+    private void doDeletePurchaseOrder(Long poId, Long companyId) {
         log.info("Soft deleting purchase order ID: {} for company: {}", poId, companyId);
 
         PurchaseOrder purchaseOrder = purchaseOrderRepository.findByIdAndCompany(poId, companyId)
@@ -181,6 +219,7 @@ public class PurchaseOrderService {
         if (deletedCount == 0) {
             throw new BusinessValidationException("Failed to delete purchase order with ID: " + poId);
         }
+        reportCacheService.invalidate(companyId, ReportType.PRODUCTS);
 
         log.info("Successfully soft deleted purchase order with ID: {}", poId);
     }
@@ -209,11 +248,12 @@ public class PurchaseOrderService {
     // Private helper methods
 
     private void processPurchaseOrderItems(PurchaseOrder purchaseOrder, List<PurchaseOrderItemRequest> itemRequests) {
+        // Validate all products exist and belong to company
+        Map<Long, Product> productsById = lineItemProductResolver.resolve(
+                itemRequests, PurchaseOrderItemRequest::getProductId, purchaseOrder.getCompany().getCompanyId());
+
         for (PurchaseOrderItemRequest itemRequest : itemRequests) {
-            // Validate product exists and belongs to company
-            Product product = productRepository.findActiveByIdAndCompany(
-                            itemRequest.getProductId(), purchaseOrder.getCompany().getCompanyId())
-                    .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + itemRequest.getProductId()));
+            Product product = productsById.get(itemRequest.getProductId());
 
             PurchaseOrderItem item = new PurchaseOrderItem();
             item.setPurchaseOrder(purchaseOrder);
@@ -4,12 +4,20 @@ package com.xeine.services;
 import com.xeine.dto.request.QuotationCreateRequest;
 import com.xeine.dto.request.QuotationItemRequest;
 import com.xeine.dto.request.QuotationUpdateRequest;
+import com.xeine.dto.response.CursorPageDTO;
 import com.xeine.dto.response.QuotationItemResponseDTO;
+import com.xeine.dto.response.QuotationListItemDTO;
 import com.xeine.dto.response.QuotationResponseDTO;
+import com.xeine.enums.DocumentType;
 import com.xeine.enums.QuotationStatus;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.*;
 import com.xeine.models.*;
 import com.xeine.repository.*;
+import com.xeine.utils.money.Money;
+import com.xeine.utils.money.Rate;
+import com.xeine.utils.pagination.KeysetCursor;
+import com.xeine.utils.pagination.KeysetPages;
 import jakarta.validation.constraints.Min;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,9 +25,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,7 +44,13 @@ public class QuotationService {
     @Autowired
     private CustomerRepository customerRepository;
     @Autowired
-    private ProductRepository productRepository;
+    private LineItemProductResolver lineItemProductResolver;
+    @Autowired
+    private ReportCacheService reportCacheService;
+    @Autowired
+    private DocumentNumberService documentNumberService;
+    @Autowired
+    private DocumentSearchService documentSearchService;
 
 
     @Transactional
@@ -56,10 +71,10 @@ public class QuotationService {
 
         // Create quotation
         Quotation quotation = new Quotation();
-        quotation.setQuotationNumber(generateQuotationNumber(company.getCompanyId()));
         quotation.setCompany(company);
         quotation.setCustomer(customer);
         quotation.setQuotationDate(request.getQuotationDate());
+        quotation.setQuotationNumber(documentNumberService.next(DocumentType.QUOTATION, company.getCompanyId(), request.getQuotationDate()));
         quotation.setDiscountPercentage(request.getDiscountPercentage() != null ? request.getDiscountPercentage() : BigDecimal.ZERO);
         quotation.setDiscountReason(request.getDiscountReason());
         quotation.setNotes(request.getNotes());
@@ -73,6 +88,8 @@ public class QuotationService {
         calculateQuotationTotals(quotation);
 
         Quotation savedQuotation = quotationRepository.save(quotation);
+        reportCacheService.invalidate(company.getCompanyId(), ReportType.QUOTATIONS, ReportType.COMPANY);
+        documentSearchService.recordQuotation(savedQuotation);
         log.info("Successfully created quotation with ID: {} and number: {}", savedQuotation.getQuotationId(), savedQuotation.getQuotationNumber());
 
         return convertToResponseDTO(savedQuotation);
@@ -120,6 +137,8 @@ public class QuotationService {
 
         existingQuotation.setUpdatedAt(LocalDateTime.now());
         Quotation updatedQuotation = quotationRepository.save(existingQuotation);
+        reportCacheService.invalidate(companyId, ReportType.QUOTATIONS, ReportType.COMPANY);
+        documentSearchService.recordQuotation(updatedQuotation);
 
         log.info("Successfully updated quotation with ID: {}", quotationId);
         return convertToResponseDTO(updatedQuotation);
@@ -155,11 +174,18 @@ public class QuotationService {
     }
 
 
-    public List<QuotationResponseDTO> getAllQuotationsByCompany(Long companyId) {
-        List<Quotation> quotations = quotationRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId);
-        return quotations.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    /**
+     * One page of the company's quotations, newest first, as list rows without items
+     */
+    public CursorPageDTO<QuotationListItemDTO> getAllQuotationsByCompany(Long companyId, String cursor, Integer size,
+                                                                         boolean includeTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPages.pageSize(size);
+        List<QuotationListItemDTO> rows = after == null
+                ? quotationRepository.findListPage(companyId, KeysetPages.lookAhead(pageSize))
+                : quotationRepository.findListPageAfter(companyId, after.createdAt(), after.id(), KeysetPages.lookAhead(pageSize));
+        return KeysetPages.page(rows, pageSize, row -> new KeysetCursor(row.getCreatedAt(), row.getQuotationId()),
+                Function.identity(), includeTotal, () -> quotationRepository.countByCompanyCompanyId(companyId));
     }
 
     /**
@@ -198,6 +224,8 @@ public class QuotationService {
         if (deletedCount == 0) {
             throw new BusinessValidationException("Failed to delete quotation with ID: " + quotationId);
         }
+        reportCacheService.invalidate(companyId, ReportType.QUOTATIONS, ReportType.COMPANY);
+        documentSearchService.removeQuotation(companyId, quotationId);
 
         log.info("Successfully soft deleted quotation with ID: {} and number: {}",
                 quotationId, quotation.getQuotationNumber());
@@ -247,16 +275,13 @@ public class QuotationService {
         return dto;
     }
 
-    public static String generateQuotationNumber(Long id) {
-        return "QUOT-" + System.currentTimeMillis() + "-" + id;
-    }
-
     private void processQuotationItems(Quotation quotation, List<QuotationItemRequest> itemRequests) {
+        // Validate all products exist and belong to company
+        Map<Long, Product> productsById = lineItemProductResolver.resolve(
+                itemRequests, QuotationItemRequest::getProductId, quotation.getCompany().getCompanyId());
+
         for (QuotationItemRequest itemRequest : itemRequests) {
-            // Validate product exists and belongs to company
-            Product product = productRepository.findActiveByIdAndCompany(
-                            itemRequest.getProductId(), quotation.getCompany().getCompanyId())
-                    .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + itemRequest.getProductId()));
+            Product product = productsById.get(itemRequest.getProductId());
 
 
             QuotationItem item = new QuotationItem();
@@ -268,12 +293,12 @@ public class QuotationService {
             item.setDescription(itemRequest.getDescription());
 
             // Calculate amounts
-            BigDecimal lineSubtotal = itemRequest.getQuantity().multiply(itemRequest.getUnitPrice());
-            BigDecimal lineTaxAmount = lineSubtotal.multiply(itemRequest.getTaxRate()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            BigDecimal lineTotal = lineSubtotal.add(lineTaxAmount);
+            Money lineSubtotal = Money.of(itemRequest.getUnitPrice()).times(Rate.of(itemRequest.getQuantity()));
+            Money lineTaxAmount = lineSubtotal.percent(Rate.of(itemRequest.getTaxRate()));
+            Money lineTotal = lineSubtotal.plus(lineTaxAmount);
 
-            item.setTaxAmount(lineTaxAmount);
-            item.setLineTotal(lineTotal);
+            item.setTaxAmount(lineTaxAmount.toBigDecimal());
+            item.setLineTotal(lineTotal.toBigDecimal());
 
             quotation.getQuotationItems().add(item);
         }
@@ -281,36 +306,33 @@ public class QuotationService {
     }
 
     private void calculateQuotationTotals(Quotation quotation) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
+        Money subtotal = Money.ZERO;
+        Money totalTax = Money.ZERO;
 
         // Sum up all line items
         for (QuotationItem item : quotation.getQuotationItems()) {
-            BigDecimal itemSubtotal = item.getQuantity().multiply(item.getUnitPrice());
-            subtotal = subtotal.add(itemSubtotal);
-            totalTax = totalTax.add(item.getTaxAmount());
+            Money itemSubtotal = Money.of(item.getUnitPrice()).times(Rate.of(item.getQuantity()));
+            subtotal = subtotal.plus(itemSubtotal);
+            totalTax = totalTax.plus(Money.of(item.getTaxAmount()));
         }
 
-        quotation.setSubtotal(subtotal);
-        quotation.setTaxAmount(totalTax);
+        quotation.setSubtotal(subtotal.toBigDecimal());
+        quotation.setTaxAmount(totalTax.toBigDecimal());
 
         // Calculate total before discount
-        BigDecimal totalBeforeDiscount = subtotal.add(totalTax);
-        quotation.setTotalBeforeDiscount(totalBeforeDiscount);
+        Money totalBeforeDiscount = subtotal.plus(totalTax);
+        quotation.setTotalBeforeDiscount(totalBeforeDiscount.toBigDecimal());
 
         // Calculate discount amount
-        BigDecimal discountAmount = BigDecimal.ZERO;
-        if (quotation.getDiscountPercentage() != null &&
-                quotation.getDiscountPercentage().compareTo(BigDecimal.ZERO) > 0) {
-            discountAmount = totalBeforeDiscount
-                    .multiply(quotation.getDiscountPercentage())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        Money discountAmount = Money.ZERO;
+        Rate discountRate = Rate.of(quotation.getDiscountPercentage());
+        if (discountRate.isPositive()) {
+            discountAmount = totalBeforeDiscount.percent(discountRate);
         }
-        quotation.setDiscountAmount(discountAmount);
+        quotation.setDiscountAmount(discountAmount.toBigDecimal());
 
 
-        BigDecimal totalAmount = totalBeforeDiscount.subtract(discountAmount);
-        quotation.setTotalAmount(totalAmount);
+        quotation.setTotalAmount(totalBeforeDiscount.minus(discountAmount).toBigDecimal());
     }
 
     public QuotationResponseDTO getQuotationById(Long quotationId, Long companyId) {
@@ -0,0 +1,158 @@
+package com.xeine.services;
+
+import com.xeine.dto.response.ReportCacheStatsDTO;
+import com.xeine.enums.ReportType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of computed reports keyed by (company, report type, period).
+ * Entries expire after a TTL and the least recently used entry is dropped once the cache is full.
+ * Services that change report inputs call {@link #invalidate} so only the affected company's reports are dropped.
+ */
+@Service
+@Slf4j
+public class ReportCacheService {
+
+    @Value("${reports.cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${reports.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private record CacheKey(Long companyId, ReportType type, String period) {
+    }
+
+    private record CacheEntry(Object value, long expiresAtNanos) {
+    }
+
+    // Access-ordered, so iteration starts at the least recently used entry. All state below is guarded by 'this'.
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, Set<CacheKey>> keysByCompany = new HashMap<>();
+    // Bumped on every invalidation; a report computed before the bump is not stored
+    private final Map<Long, Long> generationByCompany = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Return the cached report, or compute it with the loader and cache the result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long companyId, ReportType type, String period, Supplier<T> loader) {
+        CacheKey key = new CacheKey(companyId, type, period == null ? "" : period.trim().toLowerCase());
+        long generation;
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAtNanos() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return (T) entry.value();
+                }
+                removeEntry(key);
+                evictions.increment();
+            }
+            generation = generationByCompany.getOrDefault(companyId, 0L);
+        }
+
+        misses.increment();
+        T value = loader.get();
+
+        synchronized (this) {
+            if (generationByCompany.getOrDefault(companyId, 0L) == generation) {
+                entries.put(key, new CacheEntry(value, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+                keysByCompany.computeIfAbsent(companyId, id -> new HashSet<>()).add(key);
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drop the given report types for a company. Inside a transaction this happens after commit,
+     * so a report rebuilt from uncommitted data cannot be cached.
+     */
+    public void invalidate(Long companyId, ReportType... types) {
+        Set<ReportType> typeSet = types.length == 0 ? EnumSet.allOf(ReportType.class) : EnumSet.of(types[0], types);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCompany(companyId, typeSet);
+                }
+            });
+        } else {
+            evictCompany(companyId, typeSet);
+        }
+    }
+
+    public synchronized ReportCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new ReportCacheStatsDTO(hitCount, missCount, total > 0 ? (double) hitCount / total : 0.0,
+                evictions.sum(), invalidations.sum(), entries.size(), maxEntries, ttlSeconds);
+    }
+
+    private synchronized void evictCompany(Long companyId, Set<ReportType> types) {
+        generationByCompany.merge(companyId, 1L, Long::sum);
+        Set<CacheKey> keys = keysByCompany.get(companyId);
+        if (keys == null) {
+            return;
+        }
+        Iterator<CacheKey> it = keys.iterator();
+        while (it.hasNext()) {
+            CacheKey key = it.next();
+            if (types.contains(key.type())) {
+                entries.remove(key);
+                it.remove();
+                invalidations.increment();
+            }
+        }
+        if (keys.isEmpty()) {
+            keysByCompany.remove(companyId);
+        }
+        log.debug("Invalidated cached {} reports for company {}", types, companyId);
+    }
+
+    private void evictOverflow() {
+        Iterator<CacheKey> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            CacheKey eldest = it.next();
+            it.remove();
+            removeFromIndex(eldest);
+            evictions.increment();
+        }
+    }
+
+    private void removeEntry(CacheKey key) {
+        entries.remove(key);
+        removeFromIndex(key);
+    }
+
+    private void removeFromIndex(CacheKey key) {
+        Set<CacheKey> keys = keysByCompany.get(key.companyId());
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByCompany.remove(key.companyId());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.xeine.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.enums.ReportExportFormat;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.ProductRepository;
+import com.xeine.repository.QuotationRepository;
+import com.xeine.repository.SettlementRepository;
+import com.xeine.utils.export.ReportRowWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams report rows straight from the database to the response as CSV or NDJSON.
+ * Rows are read as scalar projections from a streaming query, so nothing accumulates in the
+ * persistence context and heap use does not grow with the number of rows.
+ */
+@Service
+@Slf4j
+public class ReportExportService {
+
+    private static final List<String> INVOICE_COLUMNS = List.of(
+            "invoiceNumber", "invoiceDate", "dueDate", "customerName", "quotationNumber", "subtotal", "taxAmount",
+            "discountAmount", "totalAmount", "paidAmount", "outstandingAmount", "status", "paymentStatus", "daysOverdue");
+
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+            "productId", "productName", "productType", "hsnCode", "unitOfMeasure", "costPrice", "sellingPrice",
+            "stockQuantity", "taxRate", "totalSold", "totalRevenue", "lastSoldDate");
+
+    private static final List<String> SETTLEMENT_COLUMNS = List.of(
+            "settlementDate", "invoiceNumber", "amountPaid", "paymentMethod", "referenceNumber",
+            "invoiceTotalAmount", "invoicePaidAmount", "invoiceOutstandingAmount", "invoicePaymentStatus");
+
+    private static final List<String> QUOTATION_COLUMNS = List.of(
+            "quotationNumber", "quotationDate", "customerName", "subtotal", "taxAmount", "discountAmount",
+            "totalAmount", "status", "totalItems", "invoiceNumber");
+
+    @Autowired
+    private ReportService reportService;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SettlementRepository settlementRepository;
+    @Autowired
+    private QuotationRepository quotationRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Validate the period up front, before the response starts streaming
+     */
+    public LocalDate resolveStartDate(String period) {
+        return reportService.getStartDate(period);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportInvoiceReport(Long companyId, LocalDate startDate, ReportExportFormat format, OutputStream out) throws IOException {
+        LocalDate today = LocalDate.now();
+        try (ReportRowWriter writer = ReportRowWriter.create(format, INVOICE_COLUMNS, out, objectMapper);
+             Stream<Object[]> rows = invoiceRepository.streamInvoiceReportRows(companyId, startDate)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                LocalDate dueDate = (LocalDate) row[2];
+                BigDecimal paid = (BigDecimal) row[9];
+                BigDecimal outstanding = (BigDecimal) row[10];
+                boolean overdue = dueDate != null && outstanding.compareTo(BigDecimal.ZERO) > 0 && today.isAfter(dueDate);
+                writer.writeRow(row[0], row[1], dueDate, row[3], row[4], row[5], row[6], row[7], row[8], paid, outstanding,
+                        (InvoiceStatus) row[11], paymentStatus(paid, outstanding),
+                        overdue ? ChronoUnit.DAYS.between(dueDate, today) : 0L);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportProductReport(Long companyId, LocalDate startDate, ReportExportFormat format, OutputStream out) throws IOException {
+        // Sales are grouped per product, so this map is bounded by the product catalogue, not by invoice volume
+        Map<Long, Object[]> salesByProductId = new HashMap<>();
+        for (Object[] row : invoiceRepository.getProductSalesBetween(companyId, startDate, LocalDate.now())) {
+            salesByProductId.put((Long) row[0], row);
+        }
+        try (ReportRowWriter writer = ReportRowWriter.create(format, PRODUCT_COLUMNS, out, objectMapper);
+             Stream<Object[]> rows = productRepository.streamProductReportRows(companyId)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                Object[] sales = salesByProductId.get((Long) row[0]);
+                writer.writeRow(row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7], row[8],
+                        sales != null && sales[1] != null ? ((Number) sales[1]).intValue() : 0,
+                        sales != null ? sales[2] : BigDecimal.ZERO,
+                        sales != null ? sales[3] : null);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSettlementReport(Long companyId, LocalDate startDate, ReportExportFormat format, OutputStream out) throws IOException {
+        try (ReportRowWriter writer = ReportRowWriter.create(format, SETTLEMENT_COLUMNS, out, objectMapper);
+             Stream<Object[]> rows = settlementRepository.streamSettlementReportRows(companyId, startDate, LocalDate.now())) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                writer.writeRow(row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7],
+                        paymentStatus((BigDecimal) row[6], (BigDecimal) row[7]));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportQuotationReport(Long companyId, LocalDate startDate, ReportExportFormat format, OutputStream out) throws IOException {
+        try (ReportRowWriter writer = ReportRowWriter.create(format, QUOTATION_COLUMNS, out, objectMapper);
+             Stream<Object[]> rows = quotationRepository.streamQuotationReportRows(companyId, startDate, LocalDate.now())) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                writer.writeRow(it.next());
+            }
+        }
+    }
+
+    private String paymentStatus(BigDecimal paid, BigDecimal outstanding) {
+        if (outstanding.compareTo(BigDecimal.ZERO) == 0) return "Paid";
+        if (paid.compareTo(BigDecimal.ZERO) == 0) return "Unpaid";
+        return "Partially Paid";
+    }
+}
@@ -0,0 +1,332 @@
+package com.xeine.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xeine.dto.request.ReportJobCreateRequest;
+import com.xeine.dto.response.InvoiceResponseDTO;
+import com.xeine.dto.response.ReportJobResponseDTO;
+import com.xeine.enums.ReportJobStatus;
+import com.xeine.enums.ReportType;
+import com.xeine.exception.ReportException;
+import com.xeine.models.ReportJob;
+import com.xeine.repository.ReportJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs heavy reports in the background: submit a job, poll its status, download the JSON result.
+ * Jobs run on a small dedicated pool so they never compete with request threads, and results are
+ * written to local disk and purged after reports.jobs.result-ttl-minutes.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private static final Set<ReportJobStatus> ACTIVE_STATUSES = EnumSet.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING);
+    private static final Set<ReportJobStatus> FINISHED_STATUSES = EnumSet.of(ReportJobStatus.COMPLETED, ReportJobStatus.FAILED);
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reports.jobs.threads:2}")
+    private int threads;
+
+    @Value("${reports.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${reports.jobs.result-ttl-minutes:30}")
+    private long resultTtlMinutes;
+
+    // A job still queued or running after this long is treated as lost (e.g. its node restarted)
+    @Value("${reports.jobs.max-run-minutes:30}")
+    private long maxRunMinutes;
+
+    @Value("${reports.jobs.dir:${java.io.tmpdir}/xeine-report-jobs}")
+    private String resultDir;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(Paths.get(resultDir));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit a report job. An identical request from the same company that is still running,
+     * or finished with an unexpired result, is returned instead of starting a new job.
+     */
+    public synchronized ReportJobResponseDTO submitJob(ReportJobCreateRequest request) {
+        ReportType type = request.getReportType();
+        String period = null;
+        LocalDate from = null;
+        LocalDate to = null;
+        if (type != ReportType.COMPANY && type != ReportType.AGING) {
+            period = request.getPeriod() == null || request.getPeriod().isBlank() ? "week" : request.getPeriod().trim().toLowerCase();
+            // Fail fast on an invalid period rather than in the background
+            reportService.getStartDate(period);
+        }
+        if (type == ReportType.INVOICES) {
+            from = request.getFrom();
+            to = request.getTo();
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new ReportException("Invalid date range: from " + from + " is after to " + to);
+            }
+        }
+
+        String requestKey = type + "|" + period + "|" + from + "|" + to;
+        LocalDateTime now = LocalDateTime.now();
+        List<ReportJob> reusable = reportJobRepository.findReusableJobs(request.getCompanyId(), requestKey,
+                ACTIVE_STATUSES, ReportJobStatus.COMPLETED, now.minusMinutes(maxRunMinutes), now);
+        if (!reusable.isEmpty()) {
+            log.info("Returning existing report job {} for company {}", reusable.get(0).getJobId(), request.getCompanyId());
+            return toDto(reusable.get(0));
+        }
+
+        ReportJob job = new ReportJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setCompanyId(request.getCompanyId());
+        job.setReportType(type);
+        job.setPeriod(period);
+        job.setFromDate(from);
+        job.setToDate(to);
+        job.setRequestKey(requestKey);
+        job.setStatus(ReportJobStatus.QUEUED);
+        job.setCreatedAt(now);
+        ReportJob savedJob = reportJobRepository.save(job);
+
+        try {
+            executor.execute(() -> runJob(savedJob.getJobId()));
+        } catch (RejectedExecutionException e) {
+            markFailed(savedJob, "Report job queue is full");
+            throw new ReportException("Too many report jobs are queued. Please try again later.");
+        }
+
+        log.info("Queued {} report job {} for company {}", type, savedJob.getJobId(), request.getCompanyId());
+        return toDto(savedJob);
+    }
+
+    public ReportJobResponseDTO getJob(String jobId, Long companyId) {
+        return toDto(findJob(jobId, companyId));
+    }
+
+    /**
+     * Get the result file of a completed job
+     */
+    public Resource getJobResult(String jobId, Long companyId) {
+        ReportJob job = findJob(jobId, companyId);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new ReportException("Report job " + jobId + " is not completed. Current status: " + job.getStatus());
+        }
+        Path path = Paths.get(job.getResultPath());
+        if (job.getExpiresAt().isBefore(LocalDateTime.now()) || !Files.exists(path)) {
+            throw new ReportException("Report job " + jobId + " result has expired. Please submit the report again.");
+        }
+        return new FileSystemResource(path);
+    }
+
+    /**
+     * Purge expired results and fail jobs that were abandoned mid-run
+     */
+    @Scheduled(fixedDelayString = "${reports.jobs.cleanup-interval-ms:300000}")
+    @Transactional
+    public void purgeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int stale = reportJobRepository.failStaleJobs(ACTIVE_STATUSES, ReportJobStatus.FAILED,
+                "Report job did not finish in time", now.minusMinutes(maxRunMinutes), now, now.plusMinutes(resultTtlMinutes));
+
+        List<ReportJob> expired = reportJobRepository.findExpiredJobs(FINISHED_STATUSES, now);
+        for (ReportJob job : expired) {
+            deleteResultFile(job);
+        }
+        reportJobRepository.deleteAll(expired);
+
+        if (stale > 0 || !expired.isEmpty()) {
+            log.info("Report job cleanup: {} stale jobs failed, {} expired jobs purged", stale, expired.size());
+        }
+    }
+
+    private void runJob(String jobId) {
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ReportJobStatus.QUEUED) {
+            return;
+        }
+        job.setStatus(ReportJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = reportJobRepository.save(job);
+
+        Path companyDir = Paths.get(resultDir, String.valueOf(job.getCompanyId()));
+        Path target = companyDir.resolve(job.getJobId() + ".json");
+        Path temp = companyDir.resolve(job.getJobId() + ".json.tmp");
+        try {
+            Files.createDirectories(companyDir);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writeResult(job, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            LocalDateTime completedAt = LocalDateTime.now();
+            job.setStatus(ReportJobStatus.COMPLETED);
+            job.setResultPath(target.toString());
+            job.setResultSize(Files.size(target));
+            job.setCompletedAt(completedAt);
+            job.setExpiresAt(completedAt.plusMinutes(resultTtlMinutes));
+            reportJobRepository.save(job);
+            log.info("Report job {} completed ({} bytes)", jobId, job.getResultSize());
+        } catch (Exception e) {
+            log.warn("Report job {} failed: {}", jobId, e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Left for the cleanup of the job directory
+            }
+            markFailed(job, e.getMessage());
+        }
+    }
+
+    private void writeResult(ReportJob job, OutputStream out) throws IOException {
+        Long companyId = job.getCompanyId();
+        switch (job.getReportType()) {
+            case COMPANY -> objectMapper.writeValue(out,
+                    readOnlyTransaction.execute(status -> reportService.getCompanyReport(companyId)));
+            case PRODUCTS -> objectMapper.writeValue(out,
+                    readOnlyTransaction.execute(status -> reportService.getProductReport(companyId, job.getPeriod())));
+            case SETTLEMENTS -> objectMapper.writeValue(out,
+                    readOnlyTransaction.execute(status -> reportService.getSettlementReport(companyId, job.getPeriod())));
+            case QUOTATIONS -> objectMapper.writeValue(out,
+                    readOnlyTransaction.execute(status -> reportService.getQuotationReport(companyId, job.getPeriod())));
+            case AGING -> objectMapper.writeValue(out,
+                    readOnlyTransaction.execute(status -> reportService.getReceivablesAging(companyId, null)));
+            case INVOICES -> writeInvoiceReport(job, out);
+        }
+    }
+
+    /**
+     * Write every page of the invoice report as one JSON array, a page per transaction so
+     * memory stays bounded by the page size rather than the range
+     */
+    private void writeInvoiceReport(ReportJob job, OutputStream out) throws IOException {
+        LocalDate from = job.getFromDate() != null ? job.getFromDate() : reportService.getStartDate(job.getPeriod());
+        LocalDate to = job.getToDate() != null ? job.getToDate() : LocalDate.now();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            LocalDate afterDate = null;
+            Long afterId = null;
+            while (true) {
+                LocalDate pageAfterDate = afterDate;
+                Long pageAfterId = afterId;
+                List<InvoiceResponseDTO> page = readOnlyTransaction.execute(status -> reportService.buildInvoiceReport(
+                        job.getCompanyId(), from, to, pageAfterDate, pageAfterId, ReportService.MAX_PAGE_SIZE));
+                for (InvoiceResponseDTO invoice : page) {
+                    generator.writeObject(invoice);
+                }
+                if (page.size() < ReportService.MAX_PAGE_SIZE) {
+                    break;
+                }
+                InvoiceResponseDTO last = page.get(page.size() - 1);
+                afterDate = last.getInvoiceDate();
+                afterId = last.getInvoiceId();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void markFailed(ReportJob job, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(ReportJobStatus.FAILED);
+        job.setErrorMessage(message != null && message.length() > 500 ? message.substring(0, 500) : message);
+        job.setCompletedAt(now);
+        // Failures are kept for a while so pollers can see them, then purged
+        job.setExpiresAt(now.plusMinutes(resultTtlMinutes));
+        reportJobRepository.save(job);
+    }
+
+    private void deleteResultFile(ReportJob job) {
+        if (job.getResultPath() == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(job.getResultPath()));
+        } catch (IOException e) {
+            log.warn("Could not delete result file {} of report job {}: {}", job.getResultPath(), job.getJobId(), e.getMessage());
+        }
+    }
+
+    private ReportJob findJob(String jobId, Long companyId) {
+        return reportJobRepository.findByJobIdAndCompanyId(jobId, companyId)
+                .orElseThrow(() -> new ReportException("Report job not found with ID: " + jobId));
+    }
+
+    private ReportJobResponseDTO toDto(ReportJob job) {
+        return new ReportJobResponseDTO(
+                job.getJobId(),
+                job.getCompanyId(),
+                job.getReportType(),
+                job.getPeriod(),
+                job.getFromDate(),
+                job.getToDate(),
+                job.getStatus(),
+                job.getResultSize(),
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getCompletedAt(),
+                job.getExpiresAt());
+    }
+}
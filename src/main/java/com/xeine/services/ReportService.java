@@ -1,31 +1,64 @@
 package com.xeine.services;
 
 import com.xeine.dto.response.CompanyReportDTO;
+import com.xeine.dto.response.CustomerAgingDTO;
 import com.xeine.dto.response.InvoiceItemResponseDTO;
 import com.xeine.dto.response.InvoiceResponseDTO;
 import com.xeine.dto.response.ProductResponseDTO;
 import com.xeine.dto.response.QuotationResponseDTO;
+import com.xeine.dto.response.ReceivablesAgingDTO;
 import com.xeine.dto.response.SettlementResponseDTO;
+import com.xeine.enums.BusinessType;
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.ReportException;
+import com.xeine.models.CompanyMetrics;
 import com.xeine.models.Invoice;
 import com.xeine.models.Product;
 import com.xeine.repository.CompanyRepository;
 import com.xeine.repository.CustomerRepository;
+import com.xeine.repository.DailyCustomerSalesRepository;
+import com.xeine.repository.DailyProductSalesRepository;
 import com.xeine.repository.InvoiceRepository;
 import com.xeine.repository.ProductRepository;
 import com.xeine.repository.QuotationRepository;
 import com.xeine.repository.SettlementRepository;
+import com.xeine.utils.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    private static final int TOP_N = 5;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private InvoiceRepository invoiceRepository;
     @Autowired
@@ -38,21 +71,119 @@ public class ReportService {
     private QuotationRepository quotationRepository;
     @Autowired
     private SettlementRepository settlementRepository;
+    @Autowired
+    private CompanyMetricsService companyMetricsService;
+    @Autowired
+    private ReportCacheService reportCacheService;
+    @Autowired
+    private DailyProductSalesRepository dailyProductSalesRepository;
+    @Autowired
+    private DailyCustomerSalesRepository dailyCustomerSalesRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Concurrency of company report sub-queries across all requests; each holds a DB connection while it runs
+    @Value("${reports.fan-out.threads:4}")
+    private int fanOutThreads;
+
+    @Value("${reports.fan-out.timeout-ms:10000}")
+    private long fanOutTimeoutMs;
+
+    private ThreadPoolExecutor fanOutExecutor;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // When the queue is full the caller runs the query itself, degrading to sequential execution
+        fanOutExecutor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fanOutThreads * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-fan-out-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
 
-    public List<InvoiceResponseDTO> getInvoiceReport(Long companyId, String period) {
-        var invoices = invoiceRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId);
-        if (invoices == null || invoices.isEmpty()) {
-            throw new ReportException("No invoices found for the given company.");
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        // Applied as the JDBC query timeout, so queries abandoned by a timed-out report stop on the server too
+        readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(fanOutTimeoutMs)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    /**
+     * Invoice report for [from, to], newest first, one keyset page at a time.
+     * Missing from falls back to the period start and missing to to today. Pass the invoiceDate and invoiceId
+     * of the previous page's last row as afterDate/afterId to get the next page.
+     */
+    public List<InvoiceResponseDTO> getInvoiceReport(Long companyId, String period, LocalDate from, LocalDate to,
+                                                     LocalDate afterDate, Long afterId, Integer size) {
+        LocalDate rangeStart = from != null ? from : getStartDate(period);
+        LocalDate rangeEnd = to != null ? to : LocalDate.now();
+        if (rangeStart.isAfter(rangeEnd)) {
+            throw new ReportException("Invalid date range: from " + rangeStart + " is after to " + rangeEnd);
+        }
+        if ((afterDate == null) != (afterId == null)) {
+            throw new ReportException("afterDate and afterId must be provided together");
         }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
 
-        LocalDate startDate = getStartDate(period);
-        List<InvoiceResponseDTO> result = invoices.stream()
-                .filter(inv -> inv.getInvoiceDate() != null && !inv.getInvoiceDate().isBefore(startDate))
-                .map(this::toDto)
-                .collect(Collectors.toList());
-        if (result.isEmpty()) {
+        String cacheKey = rangeStart + ".." + rangeEnd + "|" + afterDate + ":" + afterId + "|" + pageSize;
+        return reportCacheService.get(companyId, ReportType.INVOICES, cacheKey,
+                () -> buildInvoiceReport(companyId, rangeStart, rangeEnd, afterDate, afterId, pageSize));
+    }
+
+    public CompanyReportDTO getCompanyReport(Long companyId) {
+        return reportCacheService.get(companyId, ReportType.COMPANY, null, () -> buildCompanyReport(companyId));
+    }
+
+    public List<ProductResponseDTO> getProductReport(Long companyId, String period) {
+        return reportCacheService.get(companyId, ReportType.PRODUCTS, period, () -> buildProductReport(companyId, period));
+    }
+
+    public List<SettlementResponseDTO> getSettlementReport(Long companyId, String period) {
+        return reportCacheService.get(companyId, ReportType.SETTLEMENTS, period, () -> buildSettlementReport(companyId, period));
+    }
+
+    public List<QuotationResponseDTO> getQuotationReport(Long companyId, String period) {
+        return reportCacheService.get(companyId, ReportType.QUOTATIONS, period, () -> buildQuotationReport(companyId, period));
+    }
+
+    /**
+     * Outstanding balances per customer in aging buckets as of the given date (default today)
+     */
+    public ReceivablesAgingDTO getReceivablesAging(Long companyId, LocalDate asOf) {
+        LocalDate asOfDate = asOf != null ? asOf : LocalDate.now();
+        return reportCacheService.get(companyId, ReportType.AGING, asOfDate.toString(), () -> buildReceivablesAging(companyId, asOfDate));
+    }
+
+    List<InvoiceResponseDTO> buildInvoiceReport(Long companyId, LocalDate from, LocalDate to,
+                                                LocalDate afterDate, Long afterId, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<Long> ids = afterDate == null
+                ? invoiceRepository.findReportPageIds(companyId, from, to, page)
+                : invoiceRepository.findReportPageIdsAfter(companyId, from, to, afterDate, afterId, page);
+        if (ids.isEmpty()) {
+            // Running past the last page is not an error
+            if (afterDate != null) {
+                return new ArrayList<>();
+            }
             throw new ReportException("No invoices found for the given period.");
         }
+
+        Map<Long, Invoice> invoicesById = new HashMap<>();
+        for (Invoice invoice : invoiceRepository.findForReportByIds(ids)) {
+            invoicesById.put(invoice.getId(), invoice);
+        }
+        List<InvoiceResponseDTO> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(toDto(invoicesById.get(id)));
+        }
         return result;
     }
 
@@ -125,9 +256,30 @@ public class ReportService {
         return dto;
     }
 
-    public CompanyReportDTO getCompanyReport(Long companyId) {
-        var company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new ReportException("Company not found for ID: " + companyId));
+    /**
+     * Builds the company report from independent reads that run concurrently on the fan-out pool,
+     * each in its own read-only transaction, so the report takes about as long as its slowest query
+     */
+    private CompanyReportDTO buildCompanyReport(Long companyId) {
+        var companyFuture = supplyReadOnly(() -> companyRepository.findById(companyId)
+                .orElseThrow(() -> new ReportException("Company not found for ID: " + companyId)));
+        var customerCountFuture = supplyReadOnly(() -> customerRepository.countByCompanyCompanyId(companyId));
+        var productCountFuture = supplyReadOnly(() -> toCountMap(productRepository.getProductCountByType(companyId)));
+        var quotationCountFuture = supplyReadOnly(() -> quotationRepository.countByCompanyCompanyId(companyId));
+        // Not read-only: the metrics row is built on first access
+        var metricsFuture = CompletableFuture.supplyAsync(() -> companyMetricsService.getMetrics(companyId), fanOutExecutor);
+        var revenueTrendFuture = supplyReadOnly(() -> dailyCustomerSalesRepository.getPaidAmountByMonth(companyId));
+        var customersTrendFuture = supplyReadOnly(() -> toMonthCountMap(customerRepository.getNewCustomerCountByMonth(companyId)));
+        var productsTrendFuture = supplyReadOnly(() -> toMonthCountMap(productRepository.getNewProductCountByMonth(companyId)));
+        var topProductsFuture = supplyReadOnly(() -> dailyProductSalesRepository.getTopSellingProducts(companyId, PageRequest.of(0, TOP_N)));
+        var topCustomersFuture = supplyReadOnly(() -> dailyCustomerSalesRepository.getTopCustomersByPaidAmount(companyId, PageRequest.of(0, TOP_N)));
+        var lastCustomerFuture = supplyReadOnly(() -> Optional.ofNullable(customerRepository.getLastCustomerCreatedAt(companyId)));
+
+        awaitAll(companyId, companyFuture, customerCountFuture, productCountFuture, quotationCountFuture, metricsFuture,
+                revenueTrendFuture, customersTrendFuture, productsTrendFuture, topProductsFuture, topCustomersFuture,
+                lastCustomerFuture);
+
+        var company = companyFuture.join();
         CompanyReportDTO dto = new CompanyReportDTO();
         dto.setCompanyId(company.getCompanyId());
         dto.setCompanyName(company.getCompanyName());
@@ -135,91 +287,137 @@ public class ReportService {
         dto.setContactPhone(company.getMobile());
         dto.setAddress(company.getAddress());
         // Customers
-        int totalCustomers = (int) customerRepository.countByCompanyCompanyId(companyId);
-        dto.setTotalCustomers(totalCustomers);
+        dto.setTotalCustomers(customerCountFuture.join().intValue());
         // Products & Services
-        var products = productRepository.findByCompanyCompanyIdAndIsActiveTrue(companyId);
-        int totalProducts = (int) products.stream().filter(p -> p.getProductType().name().equalsIgnoreCase("PRODUCT")).count();
-        int totalServices = (int) products.stream().filter(p -> p.getProductType().name().equalsIgnoreCase("SERVICE")).count();
-        dto.setTotalProducts(totalProducts);
-        dto.setTotalServices(totalServices);
+        Map<String, Integer> productCountByType = productCountFuture.join();
+        dto.setTotalProducts(productCountByType.getOrDefault(BusinessType.PRODUCT.name(), 0));
+        dto.setTotalServices(productCountByType.getOrDefault(BusinessType.SERVICE.name(), 0));
         // Quotations
-        int totalQuotations = quotationRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId).size();
+        int totalQuotations = quotationCountFuture.join().intValue();
         dto.setTotalQuotations(totalQuotations);
-        // Invoices
-        var invoices = invoiceRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId);
-        int totalInvoices = invoices.size();
-        dto.setTotalInvoices(totalInvoices);
-        // Settlements
-        int totalSettlements = settlementRepository.findByInvoiceCompanyCompanyIdOrderByCreatedAtDesc(companyId).size();
-        dto.setTotalSettlements(totalSettlements);
-        // Financials
-        BigDecimal totalRevenue = invoices.stream().map(Invoice::getPaidAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal outstandingPayments = invoices.stream().map(Invoice::getOutstandingAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalDiscounts = invoices.stream().map(Invoice::getDiscountAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalTaxCollected = invoices.stream().map(Invoice::getTaxAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        dto.setTotalRevenue(totalRevenue);
-        dto.setOutstandingPayments(outstandingPayments);
-        dto.setTotalDiscounts(totalDiscounts);
-        dto.setTotalTaxCollected(totalTaxCollected);
+        // Invoices, settlements and financials from the incrementally maintained metrics row
+        CompanyMetrics metrics = metricsFuture.join();
+        dto.setTotalInvoices(metrics.getInvoiceCount().intValue());
+        dto.setTotalSettlements(metrics.getSettlementCount().intValue());
+        dto.setTotalRevenue(metrics.getTotalRevenue());
+        dto.setOutstandingPayments(metrics.getOutstandingAmount());
+        dto.setTotalDiscounts(metrics.getTotalDiscounts());
+        dto.setTotalTaxCollected(metrics.getTotalTax());
         // Conversion Rate
-        long convertedQuotations = invoices.stream().filter(i -> i.getQuotation() != null).count();
+        long convertedQuotations = metrics.getConvertedInvoiceCount();
         dto.setQuotationToInvoiceConversionRate(totalQuotations > 0 ? (convertedQuotations * 100.0 / totalQuotations) : 0.0);
         // Invoice Status Breakdown
-        dto.setInvoiceStatusBreakdown(invoices.stream().collect(Collectors.groupingBy(i -> i.getStatus().name(), Collectors.summingInt(e -> 1))));
-        // Monthly Revenue Trend (last 6 months)
-        dto.setMonthlyRevenueTrend(invoices.stream().collect(Collectors.groupingBy(i -> i.getInvoiceDate().getMonth().name(), Collectors.mapping(i -> i.getPaidAmount(), Collectors.reducing(BigDecimal.ZERO, BigDecimal::add)))));
-        // New Customers Trend (last 6 months)
-        dto.setNewCustomersTrend(customerRepository.findByCompanyCompanyId(companyId).stream().collect(Collectors.groupingBy(c -> c.getCreatedAt().getMonth().name(), Collectors.summingInt(e -> 1))));
-        // New Products Trend (last 6 months)
-        dto.setNewProductsTrend(products.stream().collect(Collectors.groupingBy(p -> p.getCreatedAt().getMonth().name(), Collectors.summingInt(e -> 1))));
+        dto.setInvoiceStatusBreakdown(toStatusBreakdown(metrics));
+        // Monthly Revenue Trend (from the daily customer sales rollup)
+        Map<String, BigDecimal> monthlyRevenueTrend = new HashMap<>();
+        for (Object[] row : revenueTrendFuture.join()) {
+            monthlyRevenueTrend.put(Month.of(((Number) row[0]).intValue()).name(), toBigDecimal(row[1]));
+        }
+        dto.setMonthlyRevenueTrend(monthlyRevenueTrend);
+        // New Customers Trend
+        dto.setNewCustomersTrend(customersTrendFuture.join());
+        // New Products Trend
+        dto.setNewProductsTrend(productsTrendFuture.join());
         // Top Selling Products (by quantity)
-        dto.setTopSellingProducts(invoices.stream().flatMap(i -> i.getInvoiceItems().stream()).collect(Collectors.groupingBy(ii -> ii.getProduct().getProductName(), Collectors.summingInt(ii -> ii.getQuantity().intValue()))).entrySet().stream().sorted((a, b) -> b.getValue() - a.getValue()).limit(5).map(e -> e.getKey()).collect(Collectors.toList()));
+        dto.setTopSellingProducts(topProductsFuture.join().stream()
+                .map(row -> (String) row[0])
+                .collect(Collectors.toList()));
         // Top Customers (by revenue)
-        dto.setTopCustomers(invoices.stream().collect(Collectors.groupingBy(i -> i.getCustomer().getCustomerName(), Collectors.mapping(i -> i.getPaidAmount(), Collectors.reducing(BigDecimal.ZERO, BigDecimal::add)))).entrySet().stream().sorted((a, b) -> b.getValue().compareTo(a.getValue())).limit(5).map(e -> e.getKey()).collect(Collectors.toList()));
+        dto.setTopCustomers(topCustomersFuture.join().stream()
+                .map(row -> (String) row[0])
+                .collect(Collectors.toList()));
         // Last Invoice Date
-        dto.setLastInvoiceDate(invoices.stream().map(i -> i.getInvoiceDate()).max(LocalDate::compareTo).orElse(null));
+        dto.setLastInvoiceDate(metrics.getLastInvoiceDate());
         // Last Customer Added Date
-        dto.setLastCustomerAddedDate(customerRepository.findByCompanyCompanyId(companyId).stream().map(c -> c.getCreatedAt().toLocalDate()).max(LocalDate::compareTo).orElse(null));
+        dto.setLastCustomerAddedDate(lastCustomerFuture.join().map(LocalDateTime::toLocalDate).orElse(null));
         dto.setNotes("This report is auto-generated for company analytics.");
         return dto;
     }
 
-    public List<ProductResponseDTO> getProductReport(Long companyId, String period) {
+    private <T> CompletableFuture<T> supplyReadOnly(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), fanOutExecutor);
+    }
+
+    /**
+     * Wait for all sub-queries within the report timeout. A failed sub-query's exception is rethrown as is.
+     */
+    private void awaitAll(Long companyId, CompletableFuture<?>... futures) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+        try {
+            all.get(fanOutTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            for (CompletableFuture<?> future : futures) {
+                future.cancel(true);
+            }
+            throw new ReportException("Company report for company " + companyId + " timed out after " + fanOutTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportException("Company report was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ReportException("Company report failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private ReceivablesAgingDTO buildReceivablesAging(Long companyId, LocalDate asOf) {
+        List<Object[]> rows = invoiceRepository.getReceivablesAgingByCustomer(
+                companyId, asOf, asOf.minusDays(30), asOf.minusDays(60), asOf.minusDays(90));
+
+        long openInvoiceCount = 0;
+        Money current = Money.ZERO;
+        Money days0To30 = Money.ZERO;
+        Money days31To60 = Money.ZERO;
+        Money days61To90 = Money.ZERO;
+        Money over90Days = Money.ZERO;
+        Money totalOutstanding = Money.ZERO;
+        List<CustomerAgingDTO> customers = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            CustomerAgingDTO customer = new CustomerAgingDTO(
+                    (Long) row[0],
+                    (String) row[1],
+                    ((Number) row[2]).longValue(),
+                    toBigDecimal(row[3]),
+                    toBigDecimal(row[4]),
+                    toBigDecimal(row[5]),
+                    toBigDecimal(row[6]),
+                    toBigDecimal(row[7]),
+                    toBigDecimal(row[8]));
+            customers.add(customer);
+
+            openInvoiceCount += customer.getOpenInvoiceCount();
+            current = current.plus(Money.of(customer.getCurrent()));
+            days0To30 = days0To30.plus(Money.of(customer.getDays0To30()));
+            days31To60 = days31To60.plus(Money.of(customer.getDays31To60()));
+            days61To90 = days61To90.plus(Money.of(customer.getDays61To90()));
+            over90Days = over90Days.plus(Money.of(customer.getOver90Days()));
+            totalOutstanding = totalOutstanding.plus(Money.of(customer.getTotalOutstanding()));
+        }
+        CustomerAgingDTO totals = new CustomerAgingDTO(null, null, openInvoiceCount, current.toBigDecimal(),
+                days0To30.toBigDecimal(), days31To60.toBigDecimal(), days61To90.toBigDecimal(),
+                over90Days.toBigDecimal(), totalOutstanding.toBigDecimal());
+        return new ReceivablesAgingDTO(companyId, asOf, customers, totals);
+    }
+
+    private List<ProductResponseDTO> buildProductReport(Long companyId, String period) {
         List<Product> products = productRepository.findByCompanyCompanyIdAndIsActiveTrue(companyId);
         if (products == null || products.isEmpty()) {
             throw new ReportException("No products/services found for the given company.");
         }
         LocalDate now = LocalDate.now();
         LocalDate startDate = getStartDate(period);
-        List<Invoice> invoices = invoiceRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId)
-                .stream()
-                .filter(inv -> inv.getInvoiceDate() != null && !inv.getInvoiceDate().isBefore(startDate) && !inv.getInvoiceDate().isAfter(now))
-                .toList();
+        // One grouped query for all products, keyed by product ID
+        Map<Long, Object[]> salesByProductId = new HashMap<>();
+        for (Object[] row : invoiceRepository.getProductSalesBetween(companyId, startDate, now)) {
+            salesByProductId.put((Long) row[0], row);
+        }
         List<ProductResponseDTO> productReports = new java.util.ArrayList<>();
         for (Product product : products) {
-            int totalSold = 0;
-            java.math.BigDecimal totalRevenue = java.math.BigDecimal.ZERO;
-            java.time.LocalDate lastSoldDate = null;
-            for (Invoice invoice : invoices) {
-                if (invoice.getInvoiceItems() != null) {
-                    for (var item : invoice.getInvoiceItems()) {
-                        if (item.getProduct() != null && item.getProduct().getProductId().equals(product.getProductId())) {
-                            if (item.getQuantity() != null) {
-                                totalSold += item.getQuantity().intValue();
-                            }
-                            if (item.getLineTotal() != null) {
-                                totalRevenue = totalRevenue.add(item.getLineTotal());
-                            }
-                            if (invoice.getInvoiceDate() != null) {
-                                if (lastSoldDate == null || invoice.getInvoiceDate().isAfter(lastSoldDate)) {
-                                    lastSoldDate = invoice.getInvoiceDate();
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            Object[] sales = salesByProductId.get(product.getProductId());
+            int totalSold = sales != null && sales[1] != null ? ((Number) sales[1]).intValue() : 0;
+            BigDecimal totalRevenue = sales != null ? toBigDecimal(sales[2]) : BigDecimal.ZERO;
+            LocalDate lastSoldDate = sales != null ? (LocalDate) sales[3] : null;
             ProductResponseDTO dto = new ProductResponseDTO();
             dto.setProductId(product.getProductId());
             dto.setProductName(product.getProductName());
@@ -249,7 +447,7 @@ public class ReportService {
             // Reporting fields
             dto.setTotalSold(totalSold);
             dto.setTotalRevenue(totalRevenue);
-            //dto.setLastSoldDate(lastSoldDate);
+            dto.setLastSoldDate(lastSoldDate);
             productReports.add(dto);
         }
         if (productReports.isEmpty()) {
@@ -258,7 +456,7 @@ public class ReportService {
         return productReports;
     }
 
-    public List<SettlementResponseDTO> getSettlementReport(Long companyId, String period) {
+    private List<SettlementResponseDTO> buildSettlementReport(Long companyId, String period) {
         List<SettlementResponseDTO> report;
         LocalDate now = LocalDate.now();
         LocalDate startDate = getStartDate(period);
@@ -299,10 +497,10 @@ public class ReportService {
         return report;
     }
 
-    public List<QuotationResponseDTO> getQuotationReport(Long companyId, String period) {
-        List<QuotationResponseDTO> report = quotationRepository.findByCompanyCompanyIdOrderByCreatedAtDesc(companyId)
+    private List<QuotationResponseDTO> buildQuotationReport(Long companyId, String period) {
+        LocalDate startDate = getStartDate(period);
+        List<QuotationResponseDTO> report = quotationRepository.findForReportByDateRange(companyId, startDate, LocalDate.now())
                 .stream()
-                .filter(q -> q.getQuotationDate() != null && !q.getQuotationDate().isBefore(getStartDate(period)) && !q.getQuotationDate().isAfter(LocalDate.now()))
                 .map(q -> {
                     QuotationResponseDTO dto = new QuotationResponseDTO();
                     dto.setQuotationId(q.getQuotationId());
@@ -339,10 +537,10 @@ public class ReportService {
                     }).collect(Collectors.toList()) : null);
                     // Calculated fields
                     dto.setTotalItems(q.getQuotationItems() != null ? q.getQuotationItems().size() : 0);
-                    // Check if invoice exists for this quotation
-                    var invoiceOpt = invoiceRepository.findByQuotationQuotationIdAndCompanyCompanyId(q.getQuotationId(), companyId);
-                    dto.setHasInvoice(invoiceOpt.isPresent());
-                    dto.setInvoiceNumber(invoiceOpt.map(Invoice::getInvoiceNumber).orElse(null));
+                    // Invoice converted from this quotation (fetched with the quotation)
+                    Invoice invoice = q.getInvoice();
+                    dto.setHasInvoice(invoice != null);
+                    dto.setInvoiceNumber(invoice != null ? invoice.getInvoiceNumber() : null);
                     return dto;
                 })
                 .collect(Collectors.toList());
@@ -352,7 +550,50 @@ public class ReportService {
         return report;
     }
 
-    private LocalDate getStartDate(String period) {
+    // Maps (key, count) rows from a GROUP BY query, using the enum name when the key is an enum
+    private Map<String, Integer> toCountMap(List<Object[]> rows) {
+        Map<String, Integer> result = new HashMap<>();
+        for (Object[] row : rows) {
+            String key = row[0] instanceof Enum<?> e ? e.name() : String.valueOf(row[0]);
+            result.put(key, ((Number) row[1]).intValue());
+        }
+        return result;
+    }
+
+    // Non-zero invoice counts per status, keyed by status name
+    private Map<String, Integer> toStatusBreakdown(CompanyMetrics metrics) {
+        Map<String, Integer> result = new HashMap<>();
+        putIfPositive(result, InvoiceStatus.PENDING, metrics.getPendingCount());
+        putIfPositive(result, InvoiceStatus.PARTIALLY_PAID, metrics.getPartiallyPaidCount());
+        putIfPositive(result, InvoiceStatus.PAID, metrics.getPaidCount());
+        putIfPositive(result, InvoiceStatus.OVERDUE, metrics.getOverdueCount());
+        putIfPositive(result, InvoiceStatus.CANCELLED, metrics.getCancelledCount());
+        return result;
+    }
+
+    private void putIfPositive(Map<String, Integer> map, InvoiceStatus status, Long count) {
+        if (count != null && count > 0) {
+            map.put(status.name(), count.intValue());
+        }
+    }
+
+    // Maps (month number, count) rows to month names
+    private Map<String, Integer> toMonthCountMap(List<Object[]> rows) {
+        Map<String, Integer> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put(Month.of(((Number) row[0]).intValue()).name(), ((Number) row[1]).intValue());
+        }
+        return result;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal bd ? bd : new BigDecimal(value.toString());
+    }
+
+    LocalDate getStartDate(String period) {
         LocalDate now = LocalDate.now();
         if (period == null || period.isBlank()) {
             return now.minusWeeks(1); // default to week if missing
@@ -0,0 +1,195 @@
+package com.xeine.services;
+
+import com.xeine.enums.ReportType;
+import com.xeine.models.DailyCustomerSales;
+import com.xeine.models.DailyProductSales;
+import com.xeine.models.RollupWatermark;
+import com.xeine.repository.DailyCustomerSalesRepository;
+import com.xeine.repository.DailyProductSalesRepository;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.RollupWatermarkRepository;
+import com.xeine.repository.SettlementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Incrementally maintains the daily_product_sales and daily_customer_sales rollups.
+ * Each run applies the invoices and settlements not yet marked rolled up and marks them in the same transaction,
+ * so every row is applied exactly once however late its transaction commits. createdAt is set when a row is built,
+ * not when it commits, so a time window could skip rows and is not used.
+ */
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    private static final String INVOICE_WATERMARK = "sales_rollup_invoice_rows";
+    private static final String SETTLEMENT_WATERMARK = "sales_rollup_settlement_rows";
+    // Time-based watermarks of earlier versions: rows created up to them are already in the rollups
+    private static final String LEGACY_INVOICE_WATERMARK = "sales_rollup_invoices";
+    private static final String LEGACY_SETTLEMENT_WATERMARK = "sales_rollup_settlements";
+    private static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private RollupWatermarkRepository rollupWatermarkRepository;
+
+    @Autowired
+    private DailyProductSalesRepository dailyProductSalesRepository;
+
+    @Autowired
+    private DailyCustomerSalesRepository dailyCustomerSalesRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    /**
+     * Apply unapplied invoices and settlements to the rollups. The watermark rows are locked for the
+     * whole transaction, so concurrent runs on other nodes wait and then find the rows already marked.
+     */
+    @Scheduled(fixedDelayString = "${reports.rollup.interval-ms:60000}")
+    @Transactional
+    public void refreshRollups() {
+        Set<Long> touchedCompanies = new HashSet<>();
+
+        RollupWatermark invoiceWatermark = lockWatermark(INVOICE_WATERMARK, LEGACY_INVOICE_WATERMARK,
+                invoiceRepository::markRolledUpCreatedUpTo);
+        List<Long> invoiceIds;
+        do {
+            invoiceIds = invoiceRepository.findNotRolledUpIds(PageRequest.of(0, BATCH_SIZE));
+            if (!invoiceIds.isEmpty()) {
+                applyInvoices(invoiceIds, touchedCompanies);
+                invoiceRepository.markRolledUp(invoiceIds);
+            }
+        } while (invoiceIds.size() == BATCH_SIZE);
+        advance(invoiceWatermark);
+
+        RollupWatermark settlementWatermark = lockWatermark(SETTLEMENT_WATERMARK, LEGACY_SETTLEMENT_WATERMARK,
+                settlementRepository::markRolledUpCreatedUpTo);
+        List<Long> settlementIds;
+        do {
+            settlementIds = settlementRepository.findNotRolledUpIds(PageRequest.of(0, BATCH_SIZE));
+            if (!settlementIds.isEmpty()) {
+                applySettlements(settlementIds, touchedCompanies);
+                settlementRepository.markRolledUp(settlementIds);
+            }
+        } while (settlementIds.size() == BATCH_SIZE);
+        advance(settlementWatermark);
+
+        // Company report trends are read from the rollups
+        for (Long companyId : touchedCompanies) {
+            reportCacheService.invalidate(companyId, ReportType.COMPANY);
+        }
+        if (!touchedCompanies.isEmpty()) {
+            log.debug("Sales rollups refreshed for {} companies", touchedCompanies.size());
+        }
+    }
+
+    private void applyInvoices(List<Long> invoiceIds, Set<Long> touchedCompanies) {
+        for (Object[] row : invoiceRepository.getProductSalesByIds(invoiceIds)) {
+            Long companyId = (Long) row[0];
+            LocalDate salesDate = (LocalDate) row[1];
+            Long productId = (Long) row[2];
+            BigDecimal quantity = (BigDecimal) row[3];
+            BigDecimal revenue = (BigDecimal) row[4];
+            BigDecimal tax = (BigDecimal) row[5];
+
+            if (dailyProductSalesRepository.addSales(companyId, salesDate, productId, quantity, revenue, tax) == 0) {
+                DailyProductSales rollup = new DailyProductSales();
+                rollup.setCompanyId(companyId);
+                rollup.setSalesDate(salesDate);
+                rollup.setProductId(productId);
+                rollup.setQuantity(quantity);
+                rollup.setRevenue(revenue);
+                rollup.setTaxAmount(tax);
+                dailyProductSalesRepository.save(rollup);
+            }
+            touchedCompanies.add(companyId);
+        }
+
+        for (Object[] row : invoiceRepository.getCustomerSalesByIds(invoiceIds)) {
+            Long companyId = (Long) row[0];
+            LocalDate salesDate = (LocalDate) row[1];
+            Long customerId = (Long) row[2];
+            long invoiceCount = ((Number) row[3]).longValue();
+            BigDecimal revenue = (BigDecimal) row[4];
+            BigDecimal tax = (BigDecimal) row[5];
+            BigDecimal discount = (BigDecimal) row[6];
+
+            if (dailyCustomerSalesRepository.addInvoices(companyId, salesDate, customerId, invoiceCount, revenue, tax, discount) == 0) {
+                DailyCustomerSales rollup = newCustomerRollup(companyId, salesDate, customerId);
+                rollup.setInvoiceCount(invoiceCount);
+                rollup.setRevenue(revenue);
+                rollup.setTaxAmount(tax);
+                rollup.setDiscountAmount(discount);
+                dailyCustomerSalesRepository.save(rollup);
+            }
+            touchedCompanies.add(companyId);
+        }
+    }
+
+    private void applySettlements(List<Long> settlementIds, Set<Long> touchedCompanies) {
+        for (Object[] row : settlementRepository.getCustomerPaymentsByIds(settlementIds)) {
+            Long companyId = (Long) row[0];
+            LocalDate salesDate = (LocalDate) row[1];
+            Long customerId = (Long) row[2];
+            BigDecimal paid = (BigDecimal) row[3];
+
+            if (dailyCustomerSalesRepository.addPayments(companyId, salesDate, customerId, paid) == 0) {
+                DailyCustomerSales rollup = newCustomerRollup(companyId, salesDate, customerId);
+                rollup.setPaidAmount(paid);
+                dailyCustomerSalesRepository.save(rollup);
+            }
+            touchedCompanies.add(companyId);
+        }
+    }
+
+    private DailyCustomerSales newCustomerRollup(Long companyId, LocalDate salesDate, Long customerId) {
+        DailyCustomerSales rollup = new DailyCustomerSales();
+        rollup.setCompanyId(companyId);
+        rollup.setSalesDate(salesDate);
+        rollup.setCustomerId(customerId);
+        return rollup;
+    }
+
+    private RollupWatermark lockWatermark(String name, String legacyName, Function<LocalDateTime, Integer> markCreatedUpTo) {
+        return rollupWatermarkRepository.findByNameForUpdate(name)
+                .orElseGet(() -> {
+                    // First run: every row is unmarked, so the whole history is rolled up, except rows an earlier
+                    // time-based run already applied
+                    rollupWatermarkRepository.findByNameForUpdate(legacyName).ifPresent(legacy -> {
+                        int marked = markCreatedUpTo.apply(legacy.getLastCreatedAt());
+                        log.info("Marked {} rows up to the old rollup watermark {} as rolled up", marked, legacyName);
+                        rollupWatermarkRepository.delete(legacy);
+                    });
+                    RollupWatermark watermark = new RollupWatermark();
+                    watermark.setName(name);
+                    watermark.setLastCreatedAt(INITIAL_WATERMARK);
+                    return rollupWatermarkRepository.saveAndFlush(watermark);
+                });
+    }
+
+    private void advance(RollupWatermark watermark) {
+        LocalDateTime now = LocalDateTime.now();
+        watermark.setLastCreatedAt(now);
+        watermark.setUpdatedAt(now);
+        rollupWatermarkRepository.save(watermark);
+    }
+}
@@ -5,6 +5,7 @@ import com.xeine.dto.request.SettlementCreateRequest;
 import com.xeine.dto.response.SettlementResponseDTO;
 import com.xeine.enums.InvoiceStatus;
 import com.xeine.enums.PaymentMethod;
+import com.xeine.enums.ReportType;
 import com.xeine.exception.*;
 import com.xeine.models.Invoice;
 import com.xeine.models.Settlement;
@@ -13,7 +14,6 @@ import com.xeine.repository.SettlementRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -31,11 +31,26 @@ public class SettlementService {
     @Autowired
     private InvoiceRepository invoiceRepository;
 
+    @Autowired
+    private CompanyMetricsService companyMetricsService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private InvoiceAnalyticsService invoiceAnalyticsService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     /**
      * Create a settlement (payment) for an invoice
      */
-    @Transactional
     public SettlementResponseDTO createSettlement(SettlementCreateRequest request) {
+        return optimisticRetryService.inTransaction("createSettlement", () -> doCreateSettlement(request));
+    }
+
+    private SettlementResponseDTO doCreateSettlement(SettlementCreateRequest request) {
         log.info("Creating settlement for invoice {} with amount {}",
                 request.getInvoiceId(), request.getAmountPaid());
 
@@ -50,6 +65,7 @@ public class SettlementService {
 
         // 3. Create settlement
         Settlement settlement = createSettlementEntity(request, invoice);
+        InvoiceStatus previousStatus = invoice.getStatus();
 
         // 4. Update invoice payment amounts
         updateInvoicePaymentAmounts(invoice, request.getAmountPaid());
@@ -61,6 +77,12 @@ public class SettlementService {
         Settlement savedSettlement = settlementRepository.save(settlement);
         invoiceRepository.save(invoice);
 
+        // 7. Update company totals
+        companyMetricsService.recordSettlementCreated(savedSettlement, previousStatus);
+        invoiceAnalyticsService.recordInvoice(invoice);
+        reportCacheService.invalidate(invoice.getCompany().getCompanyId(),
+                ReportType.SETTLEMENTS, ReportType.INVOICES, ReportType.COMPANY, ReportType.AGING);
+
         log.info("Successfully created settlement {} for invoice {} with amount {}",
                 savedSettlement.getSettlementId(), invoice.getInvoiceNumber(), request.getAmountPaid());
 
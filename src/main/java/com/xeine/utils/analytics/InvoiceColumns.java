@@ -0,0 +1,119 @@
+package com.xeine.utils.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Column-oriented snapshot of one company's invoices: one primitive array per field, rows sorted by invoice ID.
+ * Amounts are held as long minor units (scale 2), dates as epoch days. Not thread-safe; callers guard access.
+ */
+public final class InvoiceColumns {
+
+    private long[] invoiceIds;
+    private int[] invoiceEpochDays;
+    private long[] customerIds;
+    private byte[] statusOrdinals;
+    private long[] totalMinor;
+    private long[] paidMinor;
+    private long[] outstandingMinor;
+    private int size;
+
+    public InvoiceColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        invoiceIds = new long[capacity];
+        invoiceEpochDays = new int[capacity];
+        customerIds = new long[capacity];
+        statusOrdinals = new byte[capacity];
+        totalMinor = new long[capacity];
+        paidMinor = new long[capacity];
+        outstandingMinor = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Insert or replace the row for an invoice. Rows normally arrive in ID order and are appended;
+     * an out-of-order ID (transactions committing out of order) is inserted at its sorted position.
+     */
+    public void upsert(long invoiceId, int epochDay, long customerId, int statusOrdinal,
+                       long total, long paid, long outstanding) {
+        int pos = size > 0 && invoiceIds[size - 1] < invoiceId ? -(size + 1) : Arrays.binarySearch(invoiceIds, 0, size, invoiceId);
+        if (pos < 0) {
+            pos = -pos - 1;
+            ensureCapacity(size + 1);
+            if (pos < size) {
+                shiftRight(pos);
+            }
+            size++;
+        }
+        invoiceIds[pos] = invoiceId;
+        invoiceEpochDays[pos] = epochDay;
+        customerIds[pos] = customerId;
+        statusOrdinals[pos] = (byte) statusOrdinal;
+        totalMinor[pos] = total;
+        paidMinor[pos] = paid;
+        outstandingMinor[pos] = outstanding;
+    }
+
+    /**
+     * Aggregate rows with an invoice day in [fromDay, toDay], optionally for one customer (customerId < 0 for all).
+     * When dailyTotals is given it receives the total amount per day, indexed by (day - fromDay).
+     */
+    public void aggregate(int fromDay, int toDay, long customerId, Aggregate into, long[] dailyTotals) {
+        for (int i = 0; i < size; i++) {
+            int day = invoiceEpochDays[i];
+            if (day < fromDay || day > toDay || (customerId >= 0 && customerIds[i] != customerId)) {
+                continue;
+            }
+            into.count++;
+            into.totalMinor += totalMinor[i];
+            into.paidMinor += paidMinor[i];
+            into.outstandingMinor += outstandingMinor[i];
+            into.countByStatus[statusOrdinals[i]]++;
+            if (dailyTotals != null) {
+                dailyTotals[day - fromDay] += totalMinor[i];
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= invoiceIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, invoiceIds.length + (invoiceIds.length >> 1));
+        invoiceIds = Arrays.copyOf(invoiceIds, capacity);
+        invoiceEpochDays = Arrays.copyOf(invoiceEpochDays, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        statusOrdinals = Arrays.copyOf(statusOrdinals, capacity);
+        totalMinor = Arrays.copyOf(totalMinor, capacity);
+        paidMinor = Arrays.copyOf(paidMinor, capacity);
+        outstandingMinor = Arrays.copyOf(outstandingMinor, capacity);
+    }
+
+    private void shiftRight(int from) {
+        int length = size - from;
+        System.arraycopy(invoiceIds, from, invoiceIds, from + 1, length);
+        System.arraycopy(invoiceEpochDays, from, invoiceEpochDays, from + 1, length);
+        System.arraycopy(customerIds, from, customerIds, from + 1, length);
+        System.arraycopy(statusOrdinals, from, statusOrdinals, from + 1, length);
+        System.arraycopy(totalMinor, from, totalMinor, from + 1, length);
+        System.arraycopy(paidMinor, from, paidMinor, from + 1, length);
+        System.arraycopy(outstandingMinor, from, outstandingMinor, from + 1, length);
+    }
+
+    /**
+     * Running totals of an aggregation, in minor units
+     */
+    public static final class Aggregate {
+        public long count;
+        public long totalMinor;
+        public long paidMinor;
+        public long outstandingMinor;
+        public final long[] countByStatus;
+
+        public Aggregate(int statusCount) {
+            this.countByStatus = new long[statusCount];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.xeine.utils.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xeine.enums.ReportExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes report rows one at a time to an output stream, so an export never holds more than one row in memory.
+ * Values are written in the same order as the column names passed to {@link #create}.
+ */
+public abstract class ReportRowWriter implements Closeable {
+
+    protected final List<String> columns;
+
+    protected ReportRowWriter(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public static ReportRowWriter create(ReportExportFormat format, List<String> columns,
+                                         OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvRowWriter(columns, out);
+            case NDJSON -> new NdjsonRowWriter(columns, out, objectMapper);
+        };
+    }
+
+    public abstract void writeRow(Object... values) throws IOException;
+
+    private static final class CsvRowWriter extends ReportRowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(List<String> columns, OutputStream out) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeLine(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(Object... values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value instanceof BigDecimal bd ? bd.toPlainString()
+                    : value instanceof Enum<?> e ? e.name()
+                    : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class NdjsonRowWriter extends ReportRowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(List<String> columns, OutputStream out, ObjectMapper objectMapper) throws IOException {
+            super(columns);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            // One JSON object per line
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeRow(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.xeine.utils.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money amount held as a long of ten-thousandths. Four places keep a quantity (two places) times a
+ * price (two places) exact, so line subtotals match BigDecimal results; percentages are rounded HALF_UP to cents
+ * as the invoice and quotation calculations always have. Overflow throws ArithmeticException.
+ * Zero is not interned, so instances that do not outlive a calculation are kept in registers by the JIT.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+    public static final Money ZERO = new Money(0L);
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private final long units;
+
+    private Money(long units) {
+        this.units = units;
+    }
+
+    /**
+     * Exact conversion, null as zero; throws ArithmeticException if the amount has more than four decimal places
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return new Money(0L);
+        }
+        int scale = amount.scale();
+        if (scale < 0 || scale > SCALE) {
+            return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        }
+        // Unlike unscaledValue(), the scale-0 copy does not escape and is optimised away, so converting allocates nothing
+        return new Money(Math.multiplyExact(amount.movePointRight(scale).longValueExact(), POWERS_OF_TEN[SCALE - scale]));
+    }
+
+    public static Money ofUnits(long units) {
+        return new Money(units);
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public Money plus(Money other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    /**
+     * Amount times a factor such as a quantity, rounded HALF_UP to four places (exact for prices in cents)
+     */
+    public Money times(Rate factor) {
+        return ofUnits(divideHalfUp(Math.multiplyExact(units, factor.hundredths()), Rate.ONE));
+    }
+
+    /**
+     * The given percentage of this amount, rounded HALF_UP to cents
+     */
+    public Money percent(Rate percentage) {
+        // units (1e-4) * hundredths (1e-2) is in 1e-6 percent, i.e. 1e-8 of the currency; cents are 1e6 of those
+        long cents = divideHalfUp(Math.multiplyExact(units, percentage.hundredths()), 1_000_000L);
+        return ofUnits(Math.multiplyExact(cents, 100L));
+    }
+
+    public boolean isZero() {
+        return units == 0;
+    }
+
+    /**
+     * The amount with trailing zeros past cents dropped, e.g. 25.00 or 1.235
+     */
+    public BigDecimal toBigDecimal() {
+        if (units % 100 == 0) {
+            return BigDecimal.valueOf(units / 100, 2);
+        }
+        if (units % 10 == 0) {
+            return BigDecimal.valueOf(units / 10, 3);
+        }
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // Round half away from zero, matching RoundingMode.HALF_UP
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,64 @@
+package com.xeine.utils.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point factor with two decimal places held as a long of hundredths: a tax or discount percentage,
+ * or a line quantity. Matches the scale of the quantity, tax_rate and discount_percentage columns.
+ */
+public final class Rate {
+
+    public static final int SCALE = 2;
+    static final long ONE = 100L;
+    public static final Rate ZERO = new Rate(0L);
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L};
+
+    private final long hundredths;
+
+    private Rate(long hundredths) {
+        this.hundredths = hundredths;
+    }
+
+    /**
+     * Exact conversion, null as zero; throws ArithmeticException if the value has more than two decimal places
+     */
+    public static Rate of(BigDecimal value) {
+        if (value == null) {
+            return new Rate(0L);
+        }
+        int scale = value.scale();
+        if (scale < 0 || scale > SCALE) {
+            return new Rate(value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        }
+        // Allocation-free like Money.of
+        return new Rate(Math.multiplyExact(value.movePointRight(scale).longValueExact(), POWERS_OF_TEN[SCALE - scale]));
+    }
+
+    public long hundredths() {
+        return hundredths;
+    }
+
+    public boolean isPositive() {
+        return hundredths > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(hundredths, SCALE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Rate other && other.hundredths == hundredths;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hundredths);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
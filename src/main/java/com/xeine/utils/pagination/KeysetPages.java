@@ -0,0 +1,83 @@
+package com.xeine.utils.pagination;
+
+import com.xeine.dto.response.CursorPageDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Helpers for the keyset-paginated list endpoints. Repositories fetch one row more than the page size, which
+ * tells whether another page follows without a COUNT query.
+ */
+public final class KeysetPages {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPages() {
+    }
+
+    public static int pageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Limit for a page query: the page plus one look-ahead row
+     */
+    public static Pageable lookAhead(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    /**
+     * Build a page from rows fetched with lookAhead, in order. The total is counted only when requested.
+     */
+    public static <E, D> CursorPageDTO<D> page(List<E> rows, int pageSize, Function<E, KeysetCursor> keyOf,
+                                               Function<E, D> mapper, boolean includeTotal, LongSupplier total) {
+        boolean hasMore = rows.size() > pageSize;
+        return build(hasMore ? rows.subList(0, pageSize) : rows, hasMore, keyOf, mapper, includeTotal, total);
+    }
+
+    /**
+     * Build a page from an ID page fetched with lookAhead. Only the IDs on the page are loaded, through the given
+     * loader, so a fetch-join over collections is never combined with a row limit.
+     */
+    public static <E, D> CursorPageDTO<D> pageByIds(List<Long> ids, int pageSize, Function<List<Long>, List<E>> loader,
+                                                    Function<E, Long> idOf, Function<E, KeysetCursor> keyOf,
+                                                    Function<E, D> mapper, boolean includeTotal, LongSupplier total) {
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        List<E> rows = pageIds.isEmpty() ? List.of() : inIdOrder(pageIds, loader.apply(pageIds), idOf);
+        return build(rows, hasMore, keyOf, mapper, includeTotal, total);
+    }
+
+    private static <E, D> CursorPageDTO<D> build(List<E> pageRows, boolean hasMore, Function<E, KeysetCursor> keyOf,
+                                                 Function<E, D> mapper, boolean includeTotal, LongSupplier total) {
+        List<D> items = new ArrayList<>(pageRows.size());
+        for (E row : pageRows) {
+            items.add(mapper.apply(row));
+        }
+        String nextCursor = hasMore && !pageRows.isEmpty() ? keyOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return new CursorPageDTO<>(items, nextCursor, nextCursor != null, includeTotal ? total.getAsLong() : null);
+    }
+
+    private static <E> List<E> inIdOrder(List<Long> ids, List<E> entities, Function<E, Long> idOf) {
+        Map<Long, E> byId = new HashMap<>();
+        for (E entity : entities) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<E> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            E entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,186 @@
+package com.xeine.utils.pdf;
+
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A TrueType font the document renderer draws with. The font file is kept in memory and parsed copies of it are
+ * lent to the PDFs being written with {@link #borrow}, to embed the subset of glyphs each file uses. Glyph coverage
+ * and widths are read once, to measure, right-align and wrap text without a document. Thread-safe.
+ */
+public final class PdfFont {
+
+    private static final String ELLIPSIS = "...";
+
+    private final byte[] file;
+    private final String name;
+    private final int unitsPerEm;
+    // Advance widths in font units by BMP code point, -1 where the font has no glyph
+    private final int[] advances;
+    private final Map<Integer, Integer> supplementaryAdvances;
+    // Parsed copies not lent out; a TrueTypeFont reads its tables lazily and cannot be shared between threads
+    private final Queue<TrueTypeFont> idle = new ConcurrentLinkedQueue<>();
+
+    private PdfFont(byte[] file, String name, int unitsPerEm, int[] advances, Map<Integer, Integer> supplementaryAdvances) {
+        this.file = file;
+        this.name = name;
+        this.unitsPerEm = unitsPerEm;
+        this.advances = advances;
+        this.supplementaryAdvances = supplementaryAdvances;
+    }
+
+    /**
+     * Read a TrueType font file; throws IOException if it is not one or has no Unicode character map
+     */
+    public static PdfFont parse(byte[] file) throws IOException {
+        TrueTypeFont font = parseFile(file);
+        try {
+            CmapLookup cmap = font.getUnicodeCmapLookup();
+            int[] advances = new int[Character.MAX_VALUE + 1];
+            Arrays.fill(advances, -1);
+            Map<Integer, Integer> supplementary = new HashMap<>();
+            for (int glyph = 1; glyph < font.getNumberOfGlyphs(); glyph++) {
+                List<Integer> codePoints = cmap.getCharCodes(glyph);
+                if (codePoints == null) {
+                    continue;
+                }
+                int advance = font.getAdvanceWidth(glyph);
+                for (int codePoint : codePoints) {
+                    if (codePoint <= Character.MAX_VALUE) {
+                        advances[codePoint] = advance;
+                    } else {
+                        supplementary.put(codePoint, advance);
+                    }
+                }
+            }
+            PdfFont parsed = new PdfFont(file, font.getName(), font.getUnitsPerEm(), advances, Map.copyOf(supplementary));
+            parsed.idle.add(font);
+            return parsed;
+        } catch (IOException | RuntimeException e) {
+            font.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The PostScript name, e.g. DejaVuSans-Bold
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * A parsed copy of the font for one document, which reads it until the document is saved and its subset
+     * embedded. Give it back with {@link #release}; there are as many copies as documents written at once.
+     */
+    public TrueTypeFont borrow() throws IOException {
+        TrueTypeFont font = idle.poll();
+        return font != null ? font : parseFile(file);
+    }
+
+    public void release(TrueTypeFont font) {
+        idle.add(font);
+    }
+
+    /**
+     * Whether the font has a glyph for the code point
+     */
+    public boolean covers(int codePoint) {
+        return advance(codePoint) >= 0;
+    }
+
+    /**
+     * Width in points of text prepared with {@link PdfFonts#prepare}
+     */
+    public float width(String text, float size) {
+        int units = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            units += units(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return units * size / unitsPerEm;
+    }
+
+    /**
+     * Cut text to fit maxWidth, ending it with "..." when it had to be shortened
+     */
+    public String truncate(String text, float size, float maxWidth) {
+        if (width(text, size) <= maxWidth) {
+            return text;
+        }
+        float available = maxWidth - width(ELLIPSIS, size);
+        int end = 0;
+        float used = 0;
+        while (end < text.length()) {
+            int codePoint = text.codePointAt(end);
+            float next = units(codePoint) * size / unitsPerEm;
+            if (used + next > available) {
+                break;
+            }
+            used += next;
+            end += Character.charCount(codePoint);
+        }
+        return text.substring(0, end).stripTrailing() + ELLIPSIS;
+    }
+
+    /**
+     * Break text into lines no wider than maxWidth at spaces; words longer than a line are truncated
+     */
+    public List<String> wrap(String text, float size, float maxWidth) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\n")) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.trim().split(" +")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String candidate = line.isEmpty() ? word : line + " " + word;
+                if (width(candidate, size) <= maxWidth) {
+                    line.setLength(0);
+                    line.append(candidate);
+                } else {
+                    if (!line.isEmpty()) {
+                        lines.add(line.toString());
+                    }
+                    line.setLength(0);
+                    line.append(truncate(word, size, maxWidth));
+                }
+            }
+            if (!line.isEmpty()) {
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    private static TrueTypeFont parseFile(byte[] file) throws IOException {
+        TrueTypeFont font = new TTFParser().parse(new RandomAccessReadBuffer(file));
+        // Draw one glyph per character, as text is measured; ligature substitution would also rescan every string
+        font.setEnableGsub(false);
+        return font;
+    }
+
+    private int advance(int codePoint) {
+        if (codePoint <= Character.MAX_VALUE) {
+            return advances[codePoint];
+        }
+        return supplementaryAdvances.getOrDefault(codePoint, -1);
+    }
+
+    // Line breaks left in prepared text are drawn as spaces; uncovered characters do not occur in prepared text
+    private int units(int codePoint) {
+        return Math.max(advance(codePoint < ' ' ? ' ' : codePoint), 0);
+    }
+}
@@ -0,0 +1,49 @@
+package com.xeine.utils.pdf;
+
+import java.io.IOException;
+
+/**
+ * The regular and bold font of the document renderer. Loaded once and shared by every document.
+ */
+public record PdfFonts(PdfFont regular, PdfFont bold) {
+
+    /**
+     * Two TrueType font files, embedded as subsets into each PDF
+     */
+    public static PdfFonts load(byte[] regular, byte[] bold) throws IOException {
+        return new PdfFonts(PdfFont.parse(regular), PdfFont.parse(bold));
+    }
+
+    /**
+     * Make text printable in both fonts: characters neither font can show become "?". Line breaks are kept for
+     * {@link PdfFont#wrap}; other control characters become spaces.
+     */
+    public String prepare(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = null;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int length = Character.charCount(codePoint);
+            String mapped = null;
+            if (Character.isISOControl(codePoint)) {
+                mapped = codePoint == '\n' ? null : " ";
+            } else if (!regular.covers(codePoint) || !bold.covers(codePoint)) {
+                mapped = "?";
+            }
+            if (mapped != null && result == null) {
+                result = new StringBuilder(text.length()).append(text, 0, i);
+            }
+            if (result != null) {
+                if (mapped != null) {
+                    result.append(mapped);
+                } else {
+                    result.append(text, i, i + length);
+                }
+            }
+            i += length;
+        }
+        return result != null ? result.toString() : text;
+    }
+}
@@ -0,0 +1,463 @@
+package com.xeine.utils.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Trigram inverted index over a few text fields of one company's documents of one type.
+ * <p>
+ * Text is lower-cased and split into words at anything that is not a letter or digit. Every word is indexed as
+ * the trigrams of the word with start and end markers, per field, so a query term of three or more characters
+ * matches any word containing it and a two-character term matches words starting with it. A document matches
+ * when every query term matches one of its fields. Matches are ranked by the weight of the matching fields
+ * (earlier fields weigh more, whole-word-prefix matches double), then by newest document ID.
+ * <p>
+ * The trigrams only narrow down the candidates: a word can contain every trigram of a term without containing
+ * the term. The normalized words of every field are kept too, and each candidate is checked against them before
+ * it is counted or ranked.
+ * <p>
+ * Documents get a slot each, in insertion order, so every posting list is sorted and lists are intersected
+ * without sorting. A replaced or removed document leaves a dead slot behind until the index is rebuilt.
+ * Not thread-safe; callers guard access.
+ */
+public final class NgramIndex {
+
+    private static final int FILE_MAGIC = 0x58474932;
+    private static final char WORD_START = '\u0002';
+    private static final char WORD_END = '\u0003';
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private final int fieldCount;
+    private long[] docIds = new long[1024];
+    // Normalized words of each field, by slot * fieldCount + field: " word word " so a word prefix follows a space
+    private String[] texts;
+    private int slots;
+    private final BitSet dead = new BitSet();
+    private final Map<Long, Integer> slotByDocId = new HashMap<>();
+    // Key: field in the top 16 bits, then three 16-bit chars
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private long postingCount;
+
+    /**
+     * Ranked matches: the total number of matching documents and the IDs of the best ones, best first
+     */
+    public record Hits(int total, long[] docIds) {
+    }
+
+    public NgramIndex(int fieldCount) {
+        if (fieldCount < 1 || fieldCount > 8) {
+            throw new IllegalArgumentException("fieldCount must be between 1 and 8");
+        }
+        this.fieldCount = fieldCount;
+        this.texts = new String[docIds.length * fieldCount];
+    }
+
+    public int size() {
+        return slotByDocId.size();
+    }
+
+    public int deadSlots() {
+        return dead.cardinality();
+    }
+
+    public long postingCount() {
+        return postingCount;
+    }
+
+    /**
+     * Add a document or replace its fields; one text per field, nulls allowed
+     */
+    public void put(long docId, String... fieldTexts) {
+        remove(docId);
+        ensureCapacity(slots + 1);
+        int slot = slots++;
+        docIds[slot] = docId;
+        slotByDocId.put(docId, slot);
+
+        for (int field = 0; field < fieldCount && field < fieldTexts.length; field++) {
+            List<String> words = fieldTexts[field] != null ? words(fieldTexts[field]) : List.of();
+            if (words.isEmpty()) {
+                continue;
+            }
+            texts[slot * fieldCount + field] = " " + String.join(" ", words) + " ";
+            long[] keys = trigramKeys(field, words);
+            for (long key : keys) {
+                postings.computeIfAbsent(key, k -> new Postings()).add(slot);
+            }
+            postingCount += keys.length;
+        }
+    }
+
+    public void remove(long docId) {
+        Integer slot = slotByDocId.remove(docId);
+        if (slot != null) {
+            dead.set(slot);
+            Arrays.fill(texts, slot * fieldCount, (slot + 1) * fieldCount, null);
+        }
+    }
+
+    /**
+     * Whether the query has at least one term long enough to search for
+     */
+    public static boolean isSearchable(String query) {
+        return !terms(query).isEmpty();
+    }
+
+    /**
+     * Match the query and return the total plus the best {@code limit} document IDs
+     */
+    public Hits search(String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return new Hits(0, new long[0]);
+        }
+
+        Postings candidates = null;
+        for (String term : terms) {
+            Postings termCandidates = candidates(term);
+            candidates = candidates == null ? termCandidates : candidates.intersect(termCandidates);
+            if (candidates.size == 0) {
+                return new Hits(0, new long[0]);
+            }
+        }
+
+        // Min-heap of the best slots so far; worst on top. Slots are scanned newest first, so once the heap is
+        // full a later slot rarely displaces anything.
+        PriorityQueue<int[]> best = new PriorityQueue<>(Math.max(1, limit), (a, b) ->
+                a[1] != b[1] ? Integer.compare(a[1], b[1]) : Long.compare(docIds[a[0]], docIds[b[0]]));
+        int total = 0;
+        for (int i = candidates.size - 1; i >= 0; i--) {
+            int slot = candidates.slots[i];
+            if (dead.get(slot)) {
+                continue;
+            }
+            int score = score(slot, terms);
+            if (score == 0) {
+                continue;
+            }
+            total++;
+            if (limit <= 0) {
+                continue;
+            }
+            int[] candidate = {slot, score};
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (best.comparator().compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        long[] ids = new long[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = docIds[best.poll()[0]];
+        }
+        return new Hits(total, ids);
+    }
+
+    /**
+     * Write the live documents and their postings; dead slots are left out
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        int[] newSlot = new int[slots];
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            newSlot[slot] = dead.get(slot) ? -1 : live++;
+        }
+
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(fieldCount);
+        out.writeInt(live);
+        for (int slot = 0; slot < slots; slot++) {
+            if (!dead.get(slot)) {
+                out.writeLong(docIds[slot]);
+                for (int field = 0; field < fieldCount; field++) {
+                    writeText(out, texts[slot * fieldCount + field]);
+                }
+            }
+        }
+        out.writeInt(postings.size());
+        int[] buffer = new int[64];
+        for (Map.Entry<Long, Postings> entry : postings.entrySet()) {
+            Postings list = entry.getValue();
+            if (buffer.length < list.size) {
+                buffer = new int[list.size];
+            }
+            int count = 0;
+            for (int i = 0; i < list.size; i++) {
+                int slot = newSlot[list.slots[i]];
+                if (slot >= 0) {
+                    buffer[count++] = slot;
+                }
+            }
+            out.writeLong(entry.getKey());
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(buffer[i]);
+            }
+        }
+    }
+
+    public static NgramIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FILE_MAGIC) {
+            throw new IOException("Not a search index file");
+        }
+        NgramIndex index = new NgramIndex(in.readInt());
+        int live = in.readInt();
+        index.ensureCapacity(live);
+        for (int slot = 0; slot < live; slot++) {
+            long docId = in.readLong();
+            index.docIds[slot] = docId;
+            index.slotByDocId.put(docId, slot);
+            for (int field = 0; field < index.fieldCount; field++) {
+                index.texts[slot * index.fieldCount + field] = readText(in);
+            }
+        }
+        index.slots = live;
+        int keys = in.readInt();
+        for (int k = 0; k < keys; k++) {
+            long key = in.readLong();
+            int count = in.readInt();
+            Postings list = new Postings(Math.max(count, 4));
+            for (int i = 0; i < count; i++) {
+                int slot = in.readInt();
+                if (slot < 0 || slot >= live) {
+                    throw new IOException("Corrupt search index file");
+                }
+                list.slots[i] = slot;
+            }
+            list.size = count;
+            index.postings.put(key, list);
+            index.postingCount += count;
+        }
+        return index;
+    }
+
+    // Slots whose trigrams match one term in any field; a superset of the slots containing the term
+    private Postings candidates(String term) {
+        Postings result = new Postings();
+        for (int field = 0; field < fieldCount; field++) {
+            Postings hits = term.length() < 3
+                    ? postings.get(key(field, WORD_START + term, 0))
+                    : intersectAll(field, term);
+            if (hits != null && hits.size > 0) {
+                result = result.union(hits);
+            }
+        }
+        return result;
+    }
+
+    // Sum over the terms of the best matching field weight, or 0 when a term is in none of the slot's fields
+    private int score(int slot, List<String> terms) {
+        int score = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (int field = 0; field < fieldCount && best == 0; field++) {
+                String text = texts[slot * fieldCount + field];
+                if (text == null) {
+                    continue;
+                }
+                int weight = 1 << (fieldCount - field);
+                if (text.contains(" " + term)) {
+                    best = weight * 2;
+                } else if (term.length() >= 3 && text.contains(term)) {
+                    best = weight;
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private Postings intersectAll(int field, String term) {
+        List<Postings> lists = new ArrayList<>(term.length() - 2);
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            Postings list = postings.get(key(field, term, i));
+            if (list == null) {
+                return null;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size > 0; i++) {
+            result = result.intersect(lists.get(i));
+        }
+        return result;
+    }
+
+    private long[] trigramKeys(int field, List<String> words) {
+        int count = 0;
+        for (String word : words) {
+            count += word.length();
+        }
+        long[] keys = new long[count];
+        int n = 0;
+        for (String word : words) {
+            String padded = WORD_START + word + WORD_END;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                keys[n++] = key(field, padded, i);
+            }
+        }
+        Arrays.sort(keys, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || keys[i] != keys[unique - 1]) {
+                keys[unique++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, unique);
+    }
+
+    private static long key(int field, String text, int offset) {
+        return ((long) field << 48) | ((long) text.charAt(offset) << 32)
+                | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query != null) {
+            for (String word : words(query)) {
+                if (word.length() >= MIN_TERM_LENGTH && !terms.contains(word)) {
+                    terms.add(word);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > docIds.length) {
+            docIds = Arrays.copyOf(docIds, Math.max(required, docIds.length * 2));
+            texts = Arrays.copyOf(texts, docIds.length * fieldCount);
+        }
+    }
+
+    // Length in chars, -1 for null, then the chars
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(text.length());
+        out.writeChars(text);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Sorted slot list of one trigram
+     */
+    private static final class Postings {
+        private int[] slots;
+        private int size;
+
+        private Postings() {
+            this(4);
+        }
+
+        private Postings(int capacity) {
+            slots = new int[capacity];
+        }
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        // Slots in either
+        private Postings union(Postings other) {
+            if (size == 0) {
+                return other;
+            }
+            Postings result = new Postings(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && slots[i] < other.slots[j])) {
+                    result.add(slots[i++]);
+                } else if (i == size || other.slots[j] < slots[i]) {
+                    result.add(other.slots[j++]);
+                } else {
+                    result.add(slots[i]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        // Merges lists of similar length; otherwise walks the shorter one and binary-searches forward in the longer
+        private Postings intersect(Postings other) {
+            Postings small = size <= other.size ? this : other;
+            Postings large = small == this ? other : this;
+            Postings result = new Postings(Math.max(small.size, 4));
+            if (large.size < small.size * 16L) {
+                int j = 0;
+                for (int i = 0; i < small.size && j < large.size; i++) {
+                    int slot = small.slots[i];
+                    while (j < large.size && large.slots[j] < slot) {
+                        j++;
+                    }
+                    if (j < large.size && large.slots[j] == slot) {
+                        result.add(slot);
+                        j++;
+                    }
+                }
+                return result;
+            }
+            int from = 0;
+            for (int i = 0; i < small.size && from < large.size; i++) {
+                int pos = Arrays.binarySearch(large.slots, from, large.size, small.slots[i]);
+                if (pos >= 0) {
+                    result.add(small.slots[i]);
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
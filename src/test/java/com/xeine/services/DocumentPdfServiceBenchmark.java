@@ -0,0 +1,97 @@
+package com.xeine.services;
+
+import com.xeine.services.DocumentPdfService.Field;
+import com.xeine.services.DocumentPdfService.Letterhead;
+import com.xeine.services.DocumentPdfService.Line;
+import com.xeine.services.DocumentPdfService.PdfDocument;
+import com.xeine.utils.pdf.PdfFonts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Invoice PDFs rendered per second on one thread, so the score is documents per second per core. Rendering is
+ * CPU-bound, so multiply by the cores given to the service for its capacity. Text is drawn with the DejaVu fonts the
+ * service ships, subset into every file. Output goes to a stream that discards it. The letterhead is laid out once
+ * and cached after the first document, as it is in production. PDFBox takes several seconds to warm up, hence the
+ * longer warmup.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.xeine.services.DocumentPdfServiceBenchmark
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Warmup(iterations = 8, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentPdfServiceBenchmark {
+
+    @Param({"10", "100"})
+    private int lines;
+
+    private DocumentPdfService service;
+    private PdfDocument document;
+    private final OutputStream discard = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setUp() {
+        service = new DocumentPdfService();
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "maxCachedLetterheads", 256);
+        ReflectionTestUtils.setField(service, "regularFont", new ClassPathResource("fonts/DejaVuSans.ttf"));
+        ReflectionTestUtils.setField(service, "boldFont", new ClassPathResource("fonts/DejaVuSans-Bold.ttf"));
+        ReflectionTestUtils.invokeMethod(service, "init");
+        PdfFonts pdfFonts = (PdfFonts) ReflectionTestUtils.getField(service, "fonts");
+        String rupee = pdfFonts.prepare("₹ ");
+
+        Letterhead letterhead = new Letterhead(1L, "Acme Traders Pvt. Ltd.", "12, Industrial Estate, Phase II",
+                "Pune, Maharashtra 411001", "Phone: +91 20 5555 0100  |  Email: accounts@acme.example",
+                "GSTIN: 27AAACA1234A1Z5");
+        List<Line> rows = new ArrayList<>(lines);
+        for (int i = 1; i <= lines; i++) {
+            rows.add(new Line("Stainless steel fastener, grade " + i + " (box of 100)", "12", rupee + "1,450.00",
+                    "18%", rupee + "3,132.00", rupee + "20,532.00"));
+        }
+        document = new PdfDocument("INV-2026-000123.pdf", letterhead, "TAX INVOICE", "INV-2026-000123", "Bill To",
+                List.of(pdfFonts.prepare("Šťastný Distributors"), "Near Central Station", "Mumbai 400001"),
+                List.of(new Field("Invoice Date", "17 Oct 2026", false), new Field("Due Date", "16 Nov 2026", false)),
+                rows,
+                List.of(new Field("Subtotal", rupee + "17,400.00", false), new Field("Tax", rupee + "3,132.00", false),
+                        new Field("Total", rupee + "20,532.00", true)),
+                "Goods once sold will not be taken back.",
+                List.of(new Field("Authorised Signatory", "", false)));
+    }
+
+    @Benchmark
+    public void invoice() throws IOException {
+        service.write(document, discard);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentPdfServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
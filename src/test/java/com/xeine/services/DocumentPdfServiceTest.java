@@ -0,0 +1,174 @@
+package com.xeine.services;
+
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.Invoice;
+import com.xeine.models.InvoiceItem;
+import com.xeine.repository.InvoiceRepository;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentPdfServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 17);
+
+    private InvoiceRepository invoiceRepository;
+    private DocumentPdfService service;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        service = service(new ClassPathResource("fonts/DejaVuSans.ttf"));
+    }
+
+    @Test
+    void embedsSubsetsOfTheShippedFontsAndKeepsTextBeyondLatin1() throws IOException {
+        Invoice invoice = invoice(1L, "INV-2026-000001", 3);
+        invoice.getCustomer().setCustomerName("Šťastný ₹ 1,234.50 Ελλάδα Киев");
+        invoice.setNotes("Total कुल");
+        when(invoiceRepository.findDetailByIdAndCompany(1L, 7L)).thenReturn(Optional.of(invoice));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.write(service.loadInvoice(1L, 7L), out);
+
+        try (PDDocument pdf = Loader.loadPDF(out.toByteArray())) {
+            String text = new PDFTextStripper().getText(pdf);
+            assertThat(text).contains("Šťastný ₹ 1,234.50 Ελλάδα Киев", "Acme Traders", "Total ???", "Page 1 of 1");
+            List<String> fonts = new ArrayList<>();
+            for (var name : pdf.getPage(0).getResources().getFontNames()) {
+                PDFont font = pdf.getPage(0).getResources().getFont(name);
+                assertThat(font.isEmbedded()).isTrue();
+                assertThat(font.isDamaged()).isFalse();
+                fonts.add(font.getName());
+            }
+            assertThat(fonts).hasSize(2).allMatch(name -> name.matches("[A-Z]{6}\\+DejaVuSans.*"));
+        }
+        // Only the used outlines are embedded, not the whole font
+        assertThat(out.size()).isLessThan(new ClassPathResource("fonts/DejaVuSans.ttf").getContentAsByteArray().length / 10);
+    }
+
+    @Test
+    void longDocumentsContinueOnNumberedPages() throws IOException {
+        when(invoiceRepository.findDetailByIdAndCompany(1L, 7L))
+                .thenReturn(Optional.of(invoice(1L, "INV-2026-000001", 80)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.write(service.loadInvoice(1L, 7L), out);
+
+        try (PDDocument pdf = Loader.loadPDF(out.toByteArray())) {
+            assertThat(pdf.getNumberOfPages()).isEqualTo(3);
+            assertThat(new PDFTextStripper().getText(pdf)).contains("Item 1 ", "Item 80 ");
+            // The last lines fill page 2, so the totals go on a page of their own
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(3);
+            stripper.setEndPage(3);
+            assertThat(stripper.getText(pdf)).contains("Acme Traders", "(continued)", "Total 8,000.00", "Page 3 of 3")
+                    .doesNotContain("Item ");
+        }
+    }
+
+    @Test
+    void bulkModeWritesEveryInvoiceIntoOneFileAndLeavesTheStreamOpen() throws IOException {
+        when(invoiceRepository.findDetailsByIdsAndCompany(anyList(), eq(7L))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            // Invoice 3 was deleted after the request was checked
+            return ids.stream().filter(id -> id != 3L).map(id -> invoice(id, "INV-2026-00000" + id, 2)).toList();
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("the caller's stream was closed");
+            }
+        };
+
+        service.writeInvoices(7L, List.of(4L, 1L, 3L, 2L), out);
+
+        try (PDDocument pdf = Loader.loadPDF(out.toByteArray())) {
+            assertThat(pdf.getNumberOfPages()).isEqualTo(3);
+            String text = new PDFTextStripper().getText(pdf);
+            assertThat(text).doesNotContain("INV-2026-000003");
+            assertThat(text.indexOf("INV-2026-000004")).isLessThan(text.indexOf("INV-2026-000001"));
+            assertThat(text.indexOf("INV-2026-000001")).isLessThan(text.indexOf("INV-2026-000002"));
+        }
+    }
+
+    @Test
+    void failsToStartWithoutItsFonts() {
+        assertThatThrownBy(() -> service(new ClassPathResource("fonts/Missing.ttf")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Missing.ttf");
+    }
+
+    private DocumentPdfService service(ClassPathResource regularFont) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        DocumentPdfService pdfService = new DocumentPdfService();
+        ReflectionTestUtils.setField(pdfService, "invoiceRepository", invoiceRepository);
+        ReflectionTestUtils.setField(pdfService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(pdfService, "maxCachedLetterheads", 256);
+        ReflectionTestUtils.setField(pdfService, "bulkBatchSize", 2);
+        ReflectionTestUtils.setField(pdfService, "regularFont", regularFont);
+        ReflectionTestUtils.setField(pdfService, "boldFont", new ClassPathResource("fonts/DejaVuSans-Bold.ttf"));
+        ReflectionTestUtils.invokeMethod(pdfService, "init");
+        return pdfService;
+    }
+
+    private static Invoice invoice(Long invoiceId, String number, int items) {
+        Company company = new Company();
+        company.setCompanyId(7L);
+        company.setCompanyName("Acme Traders");
+        company.setAddress("12, Industrial Estate");
+        company.setCity("Pune");
+        Customer customer = new Customer();
+        customer.setCustomerId(5L);
+        customer.setCustomerName("Globex");
+        Invoice invoice = new Invoice();
+        invoice.setId(invoiceId);
+        invoice.setInvoiceNumber(number);
+        invoice.setCompany(company);
+        invoice.setCustomer(customer);
+        invoice.setInvoiceDate(DAY);
+        invoice.setDueDate(DAY.plusDays(30));
+        invoice.setStatus(InvoiceStatus.PENDING);
+        for (int i = 1; i <= items; i++) {
+            InvoiceItem item = new InvoiceItem();
+            item.setDescription("Item " + i);
+            item.setQuantity(BigDecimal.ONE);
+            item.setUnitPrice(new BigDecimal("100.00"));
+            item.setTaxRate(BigDecimal.ZERO);
+            item.setTaxAmount(BigDecimal.ZERO);
+            item.setLineTotal(new BigDecimal("100.00"));
+            invoice.getInvoiceItems().add(item);
+        }
+        invoice.setSubtotal(new BigDecimal(100 * items));
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(new BigDecimal(100 * items));
+        return invoice;
+    }
+}
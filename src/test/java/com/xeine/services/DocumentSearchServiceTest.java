@@ -0,0 +1,142 @@
+package com.xeine.services;
+
+import com.xeine.dto.response.InvoiceListItemDTO;
+import com.xeine.dto.response.SearchPageDTO;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.QuotationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentSearchServiceTest {
+
+    private static final Long COMPANY_ID = 7L;
+
+    private final List<DocumentSearchService> services = new ArrayList<>();
+
+    @TempDir
+    Path indexDir;
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(service -> ReflectionTestUtils.invokeMethod(service, "shutdown"));
+    }
+
+    @Test
+    void firstSearchIsAnsweredFromTheNewestDocumentsWhileTheIndexLoads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        InvoiceRepository invoiceRepository = invoiceRepository(release, 2);
+        DocumentSearchService service = service(invoiceRepository, "");
+
+        SearchPageDTO<InvoiceListItemDTO> first = service.searchInvoices(COMPANY_ID, "acme", 0, 20);
+
+        assertThat(first.isPartial()).isTrue();
+        assertThat(first.getItems()).extracting(InvoiceListItemDTO::getInvoiceId).containsExactly(3L);
+
+        release.countDown();
+        SearchPageDTO<InvoiceListItemDTO> loaded = awaitComplete(service, "acme");
+        assertThat(loaded.getItems()).extracting(InvoiceListItemDTO::getInvoiceId).containsExactly(1L, 3L);
+        assertThat(loaded.getTotalCount()).isEqualTo(2);
+    }
+
+    @Test
+    void afterARestartTheLocalCopyIsServedWithoutWaitingForTheDatabase() throws Exception {
+        CountDownLatch open = new CountDownLatch(0);
+        DocumentSearchService before = service(invoiceRepository(open, 3), indexDir.toString());
+        before.searchInvoices(COMPANY_ID, "acme", 0, 20);
+        awaitComplete(before, "acme");
+        ReflectionTestUtils.invokeMethod(before, "shutdown");
+
+        CountDownLatch release = new CountDownLatch(1);
+        DocumentSearchService after = service(invoiceRepository(release, 3), indexDir.toString());
+        after.searchInvoices(COMPANY_ID, "acme", 0, 20);
+
+        // The database build is still blocked, so a complete answer can only come from the local copy
+        SearchPageDTO<InvoiceListItemDTO> loaded = awaitComplete(after, "acme");
+        assertThat(loaded.getItems()).extracting(InvoiceListItemDTO::getInvoiceId).containsExactly(1L, 3L);
+        release.countDown();
+    }
+
+    // Invoices 1 to 3, of which 1 and 3 mention Acme; the full read waits for release, the newest-first read
+    // returns at most recent rows
+    private static InvoiceRepository invoiceRepository(CountDownLatch release, int recent) {
+        List<Object[]> rows = List.of(
+                new Object[]{1L, "INV-1", "Acme Traders", null},
+                new Object[]{2L, "INV-2", "Globex", null},
+                new Object[]{3L, "INV-3", "Initech", "Resold by Acme"});
+        List<Object[]> newestFirst = new ArrayList<>(rows);
+        Collections.reverse(newestFirst);
+        InvoiceRepository repository = mock(InvoiceRepository.class);
+        when(repository.streamSearchFields(COMPANY_ID)).thenAnswer(invocation -> {
+            assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+            return rows.stream();
+        });
+        when(repository.findRecentSearchFields(eq(COMPANY_ID), any(Pageable.class)))
+                .thenReturn(newestFirst.subList(0, recent));
+        when(repository.findListItemsByIds(eq(COMPANY_ID), anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(1);
+            return ids.stream().map(DocumentSearchServiceTest::item).toList();
+        });
+        return repository;
+    }
+
+    private DocumentSearchService service(InvoiceRepository invoiceRepository, String dir) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        QuotationRepository quotationRepository = mock(QuotationRepository.class);
+        when(quotationRepository.streamSearchFields(any())).thenReturn(Stream.empty());
+
+        DocumentSearchService service = new DocumentSearchService();
+        ReflectionTestUtils.setField(service, "invoiceRepository", invoiceRepository);
+        ReflectionTestUtils.setField(service, "quotationRepository", quotationRepository);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "maxPostings", 50_000_000L);
+        ReflectionTestUtils.setField(service, "maxAgeSeconds", 300L);
+        ReflectionTestUtils.setField(service, "maxNotesLength", 300);
+        ReflectionTestUtils.setField(service, "rebuildThreads", 1);
+        ReflectionTestUtils.setField(service, "indexDir", dir);
+        ReflectionTestUtils.setField(service, "maxResults", 1000);
+        ReflectionTestUtils.setField(service, "maxFallbackDocuments", 2);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        services.add(service);
+        return service;
+    }
+
+    private static SearchPageDTO<InvoiceListItemDTO> awaitComplete(DocumentSearchService service, String query)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            SearchPageDTO<InvoiceListItemDTO> page = service.searchInvoices(COMPANY_ID, query, 0, 20);
+            if (!page.isPartial()) {
+                return page;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Search index did not load");
+    }
+
+    private static InvoiceListItemDTO item(Long id) {
+        InvoiceListItemDTO item = new InvoiceListItemDTO();
+        item.setInvoiceId(id);
+        return item;
+    }
+}
@@ -0,0 +1,93 @@
+package com.xeine.services;
+
+import com.xeine.enums.InvoiceStatus;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.Invoice;
+import com.xeine.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceAnalyticsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 1);
+
+    private InvoiceRepository invoiceRepository;
+    private InvoiceAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        // Two invoices per company, ids 1 and 2
+        when(invoiceRepository.streamAnalyticsColumns(any())).thenAnswer(invocation -> Stream.of(
+                new Object[]{1L, DAY, 5L, InvoiceStatus.PENDING, new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("100.00")},
+                new Object[]{2L, DAY, 5L, InvoiceStatus.PENDING, new BigDecimal("50.00"), BigDecimal.ZERO, new BigDecimal("50.00")}));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        service = new InvoiceAnalyticsService();
+        ReflectionTestUtils.setField(service, "invoiceRepository", invoiceRepository);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "maxRows", 5L);
+        ReflectionTestUtils.setField(service, "maxAgeSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @Test
+    void recordedInvoicesCountAgainstTheBudget() {
+        service.getInvoiceSummary(1L, null, DAY, DAY, null);
+        service.getInvoiceSummary(2L, null, DAY, DAY, null);
+        assertThat(retainedRows()).isEqualTo(4);
+
+        // Updating a loaded invoice does not add a row
+        service.recordInvoice(invoice(1L, 1L, "80.00"));
+        assertThat(retainedRows()).isEqualTo(4);
+
+        service.recordInvoice(invoice(1L, 10L, "10.00"));
+        assertThat(retainedRows()).isEqualTo(5);
+
+        // Over budget: company 2 is the least recently used and goes
+        service.recordInvoice(invoice(1L, 11L, "20.00"));
+        assertThat(retainedRows()).isEqualTo(4);
+        assertThat(service.getInvoiceSummary(1L, null, DAY, DAY, null).getInvoiceCount()).isEqualTo(4);
+        verify(invoiceRepository, times(1)).streamAnalyticsColumns(1L);
+
+        service.getInvoiceSummary(2L, null, DAY, DAY, null);
+        verify(invoiceRepository, times(2)).streamAnalyticsColumns(2L);
+    }
+
+    private long retainedRows() {
+        return (long) ReflectionTestUtils.getField(service, "retainedRows");
+    }
+
+    private static Invoice invoice(Long companyId, Long invoiceId, String total) {
+        Company company = new Company();
+        company.setCompanyId(companyId);
+        Customer customer = new Customer();
+        customer.setCustomerId(5L);
+        Invoice invoice = new Invoice();
+        invoice.setId(invoiceId);
+        invoice.setCompany(company);
+        invoice.setCustomer(customer);
+        invoice.setInvoiceDate(DAY);
+        invoice.setStatus(InvoiceStatus.PENDING);
+        invoice.setTotalAmount(new BigDecimal(total));
+        invoice.setPaidAmount(BigDecimal.ZERO);
+        invoice.setOutstandingAmount(new BigDecimal(total));
+        return invoice;
+    }
+}
@@ -0,0 +1,235 @@
+package com.xeine.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xeine.dto.request.InvoiceCreateRequest;
+import com.xeine.dto.response.InvoiceImportErrorDTO;
+import com.xeine.dto.response.InvoiceImportResultDTO;
+import com.xeine.exception.InsufficientInventoryException;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.Invoice;
+import com.xeine.models.Product;
+import com.xeine.repository.CompanyRepository;
+import com.xeine.repository.CustomerRepository;
+import com.xeine.repository.InvoiceRepository;
+import com.xeine.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceImportServiceTest {
+
+    private static final Long COMPANY_ID = 7L;
+    private static final String HEADER = "invoice_ref,customer_id,product_id,quantity,notes\n";
+
+    private final InvoiceService invoiceService = mock(InvoiceService.class);
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private InvoiceImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setCompanyId(COMPANY_ID);
+        CompanyRepository companyRepository = mock(CompanyRepository.class);
+        when(companyRepository.findActiveById(COMPANY_ID)).thenReturn(Optional.of(company));
+
+        Customer customer = new Customer();
+        customer.setCustomerId(1L);
+        CustomerRepository customerRepository = mock(CustomerRepository.class);
+        when(customerRepository.findByIdsAndCompany(anyList(), eq(COMPANY_ID))).thenReturn(List.of(customer));
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findByIdsAndCompany(anyList(), eq(COMPANY_ID)))
+                .thenReturn(List.of(product(10L), product(20L)));
+
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(invoiceService.buildDirectInvoice(any(), any(), any(), any())).thenAnswer(invocation -> new Invoice());
+
+        importService = new InvoiceImportService();
+        ReflectionTestUtils.setField(importService, "invoiceService", invoiceService);
+        ReflectionTestUtils.setField(importService, "invoiceRepository", invoiceRepository);
+        ReflectionTestUtils.setField(importService, "companyRepository", companyRepository);
+        ReflectionTestUtils.setField(importService, "customerRepository", customerRepository);
+        ReflectionTestUtils.setField(importService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(importService, "companyMetricsService", mock(CompanyMetricsService.class));
+        ReflectionTestUtils.setField(importService, "invoiceAnalyticsService", mock(InvoiceAnalyticsService.class));
+        ReflectionTestUtils.setField(importService, "documentSearchService", mock(DocumentSearchService.class));
+        ReflectionTestUtils.setField(importService, "reportCacheService", mock(ReportCacheService.class));
+        ReflectionTestUtils.setField(importService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(importService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(importService, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(importService, "chunkSize", 500);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 1000);
+        importService.init();
+    }
+
+    @Test
+    void splitsPlainAndQuotedFields() {
+        assertThat(InvoiceImportService.splitCsvLine("a,b,c")).containsExactly("a", "b", "c");
+        assertThat(InvoiceImportService.splitCsvLine("\"a,b\",c")).containsExactly("a,b", "c");
+        assertThat(InvoiceImportService.splitCsvLine("\"say \"\"hi\"\"\",x")).containsExactly("say \"hi\"", "x");
+        assertThat(InvoiceImportService.splitCsvLine("\"\"\"\"")).containsExactly("\"");
+    }
+
+    @Test
+    void keepsEmptyAndTrailingEmptyFields() {
+        assertThat(InvoiceImportService.splitCsvLine("a,,b")).containsExactly("a", "", "b");
+        assertThat(InvoiceImportService.splitCsvLine("a,b,")).containsExactly("a", "b", "");
+        assertThat(InvoiceImportService.splitCsvLine("a,,")).containsExactly("a", "", "");
+        assertThat(InvoiceImportService.splitCsvLine("")).containsExactly("");
+        assertThat(InvoiceImportService.splitCsvLine("\"\",")).containsExactly("", "");
+    }
+
+    @Test
+    void groupsConsecutiveLinesWithTheSameInvoiceRef() throws IOException {
+        InvoiceImportResultDTO result = importCsv(
+                "A,1,10,1,first\n" +
+                "A,1,20,2,ignored\n" +
+                "B,1,10,3,\n" +
+                "A,1,20,4,again\n");
+
+        ArgumentCaptor<InvoiceCreateRequest> requests = ArgumentCaptor.forClass(InvoiceCreateRequest.class);
+        verify(invoiceService, times(3)).buildDirectInvoice(requests.capture(), any(), any(), any());
+        assertThat(requests.getAllValues()).extracting(request -> request.getItems().size()).containsExactly(2, 1, 1);
+        // Invoice fields come from the first line of each group
+        assertThat(requests.getAllValues()).extracting(InvoiceCreateRequest::getNotes)
+                .containsExactly("first", null, "again");
+        assertThat(requests.getAllValues().get(0).getItems())
+                .extracting(item -> item.getProductId()).containsExactly(10L, 20L);
+        assertThat(result.getTotalRows()).isEqualTo(3);
+        assertThat(result.getImportedCount()).isEqualTo(3);
+        assertThat(result.getFailedCount()).isZero();
+    }
+
+    @Test
+    void reportsRowErrorsAndImportsTheRest() throws IOException {
+        InvoiceImportResultDTO result = importCsv(
+                "A,1,10,1,\n" +
+                "B,1,10,1,\n" +
+                "B,1,20,lots,\n" +
+                "C,2,10,1,\n" +
+                "D,1,99,1,\n" +
+                "E,1,10,0,\n" +
+                "F,1,10,1,\n");
+
+        assertThat(result.getTotalRows()).isEqualTo(6);
+        assertThat(result.getImportedCount()).isEqualTo(2);
+        assertThat(result.getFailedCount()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(InvoiceImportErrorDTO::getInvoiceRef)
+                .containsExactlyInAnyOrder("B", "C", "D", "E");
+        assertThat(error(result, "B").getRow()).isEqualTo(3);
+        assertThat(error(result, "B").getMessage()).startsWith("Line 4: ");
+        assertThat(error(result, "C").getMessage()).isEqualTo("Customer not found with ID: 2");
+        assertThat(error(result, "D").getMessage()).isEqualTo("Products not found with IDs: 99");
+        assertThat(error(result, "E").getMessage()).contains("Quantity must be greater than 0");
+    }
+
+    @Test
+    void rejectsRowsThatFailToBuildWithoutFailingTheChunk() throws IOException {
+        when(invoiceService.buildDirectInvoice(any(), any(), any(), any()))
+                .thenAnswer(invocation -> new Invoice())
+                .thenThrow(new ArithmeticException("Rounding necessary"))
+                .thenAnswer(invocation -> new Invoice());
+
+        InvoiceImportResultDTO result = importCsv("A,1,10,1,\nB,1,10,1,\nC,1,10,1,\n");
+
+        assertThat(result.getImportedCount()).isEqualTo(2);
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(error(result, "B").getMessage()).isEqualTo("Invoice could not be built: Rounding necessary");
+    }
+
+    @Test
+    void writesEachChunkInItsOwnTransaction() throws IOException {
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+
+        InvoiceImportResultDTO result = importCsv("A,1,10,1,\nB,1,10,1,\nC,1,10,1,\nD,1,10,1,\nE,1,10,1,\n");
+
+        assertThat(result.getImportedCount()).isEqualTo(5);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(invoiceRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void retriesChunkWithoutRowsForProductsTakenConcurrently() throws IOException {
+        doThrow(new InsufficientInventoryException("Insufficient inventory for the following items: x", Set.of(20L)))
+                .doNothing()
+                .when(invoiceService).deductStock(anyList(), anyList());
+
+        InvoiceImportResultDTO result = importCsv("A,1,10,1,\nB,1,20,1,\nC,1,10,1,\nC,1,20,1,\nD,1,10,1,\n");
+
+        assertThat(result.getImportedCount()).isEqualTo(2);
+        assertThat(result.getFailedCount()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(InvoiceImportErrorDTO::getInvoiceRef).containsExactly("B", "C");
+        assertThat(error(result, "B").getMessage()).startsWith("Not imported, Insufficient inventory");
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void failsWholeChunkOnOtherErrors() throws IOException {
+        doThrow(new IllegalStateException("Connection lost")).when(invoiceService).deductStock(anyList(), anyList());
+
+        InvoiceImportResultDTO result = importCsv("A,1,10,1,\nB,1,99,1,\n");
+
+        assertThat(result.getImportedCount()).isZero();
+        assertThat(result.getFailedCount()).isEqualTo(2);
+        assertThat(error(result, "A").getMessage()).isEqualTo("Not imported, chunk failed: Connection lost");
+        // Rows rejected before the failure keep their own reason
+        assertThat(error(result, "B").getMessage()).isEqualTo("Products not found with IDs: 99");
+    }
+
+    @Test
+    void capsReportedErrorsButCountsAllFailures() throws IOException {
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 1);
+
+        InvoiceImportResultDTO result = importCsv("A,2,10,1,\nB,2,10,1,\nC,2,10,1,\n");
+
+        assertThat(result.getFailedCount()).isEqualTo(3);
+        assertThat(result.getErrors()).hasSize(1);
+    }
+
+    private InvoiceImportResultDTO importCsv(String lines) throws IOException {
+        return importService.importCsv(COMPANY_ID,
+                new ByteArrayInputStream((HEADER + lines).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static InvoiceImportErrorDTO error(InvoiceImportResultDTO result, String invoiceRef) {
+        return result.getErrors().stream()
+                .filter(error -> invoiceRef.equals(error.getInvoiceRef()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Product product(Long productId) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName("Product " + productId);
+        product.setStockQuantity(100);
+        return product;
+    }
+}
@@ -0,0 +1,196 @@
+package com.xeine.services;
+
+import com.xeine.dto.response.CursorPageDTO;
+import com.xeine.dto.response.InvoiceListItemDTO;
+import com.xeine.dto.response.InvoiceResponseDTO;
+import com.xeine.enums.BusinessType;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.Invoice;
+import com.xeine.models.InvoiceItem;
+import com.xeine.models.Product;
+import com.xeine.models.Quotation;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The invoice detail and list reads must stay at a fixed number of statements however many items an invoice has.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(InvoiceService.class)
+class InvoiceQueryCountTest {
+
+    private static final int ITEMS_PER_INVOICE = 3;
+
+    @MockitoBean
+    private LineItemProductResolver lineItemProductResolver;
+
+    @MockitoBean
+    private CompanyMetricsService companyMetricsService;
+
+    @MockitoBean
+    private ReportCacheService reportCacheService;
+
+    @MockitoBean
+    private InvoiceAnalyticsService invoiceAnalyticsService;
+
+    @MockitoBean
+    private DocumentSearchService documentSearchService;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long companyId;
+    private Long quotationId;
+    private Long quotedInvoiceId;
+
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setCompanyName("Acme");
+        company.setEmail("acme@example.com");
+        company.setMobile("9000000000");
+        entityManager.persist(company);
+        companyId = company.getCompanyId();
+
+        Customer customer = new Customer();
+        customer.setCustomerName("Globex");
+        customer.setCompany(company);
+        entityManager.persist(customer);
+
+        Product[] products = new Product[ITEMS_PER_INVOICE];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product();
+            products[i].setProductName("Product " + i);
+            products[i].setCostPrice(new BigDecimal("50.00"));
+            products[i].setSellingPrice(new BigDecimal("100.00"));
+            products[i].setProductType(BusinessType.PRODUCT);
+            products[i].setStockQuantity(10);
+            products[i].setCompany(company);
+            entityManager.persist(products[i]);
+        }
+
+        Quotation quotation = new Quotation();
+        quotation.setQuotationNumber("QUOT/26-27/00001");
+        quotation.setCompany(company);
+        quotation.setCustomer(customer);
+        quotation.setQuotationDate(LocalDate.of(2026, 5, 1));
+        quotation.setSubtotal(new BigDecimal("300.00"));
+        quotation.setTaxAmount(BigDecimal.ZERO);
+        quotation.setTotalAmount(new BigDecimal("300.00"));
+        entityManager.persist(quotation);
+        quotationId = quotation.getQuotationId();
+
+        LocalDateTime createdAt = LocalDateTime.of(2026, 5, 1, 10, 0);
+        for (int n = 1; n <= 3; n++) {
+            Invoice invoice = invoice(company, customer, products, "INV/26-27/0000" + n, createdAt.plusHours(n));
+            if (n == 1) {
+                invoice.setQuotation(quotation);
+            }
+            entityManager.persist(invoice);
+            if (n == 1) {
+                quotedInvoiceId = invoice.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void invoiceDetailIsOneStatement() {
+        InvoiceResponseDTO invoice = invoiceService.getInvoiceById(quotedInvoiceId, companyId);
+
+        assertThat(invoice.getInvoiceItems()).hasSize(ITEMS_PER_INVOICE);
+        assertThat(invoice.getQuotationNumber()).isEqualTo("QUOT/26-27/00001");
+        assertThat(invoice.getCustomerName()).isEqualTo("Globex");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invoiceByQuotationIsOneStatement() {
+        InvoiceResponseDTO invoice = invoiceService.getInvoiceByQuotationId(quotationId, companyId);
+
+        assertThat(invoice.getInvoiceId()).isEqualTo(quotedInvoiceId);
+        assertThat(invoice.getInvoiceItems()).hasSize(ITEMS_PER_INVOICE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invoiceListPageIsOneStatement() {
+        CursorPageDTO<InvoiceListItemDTO> first = invoiceService.getAllInvoicesByCompany(companyId, null, null, 2, false);
+
+        assertThat(first.getItems()).extracting(InvoiceListItemDTO::getInvoiceNumber)
+                .containsExactly("INV/26-27/00003", "INV/26-27/00002");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        CursorPageDTO<InvoiceListItemDTO> second = invoiceService.getAllInvoicesByCompany(
+                companyId, "PENDING", first.getNextCursor(), 2, false);
+
+        assertThat(second.getItems()).extracting(InvoiceListItemDTO::getInvoiceNumber)
+                .containsExactly("INV/26-27/00001");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invoiceListTotalIsOneMoreStatement() {
+        CursorPageDTO<InvoiceListItemDTO> page = invoiceService.getAllInvoicesByCompany(companyId, null, null, 2, true);
+
+        assertThat(page.getTotalCount()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private static Invoice invoice(Company company, Customer customer, Product[] products, String number,
+                                   LocalDateTime createdAt) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber(number);
+        invoice.setCompany(company);
+        invoice.setCustomer(customer);
+        invoice.setInvoiceDate(createdAt.toLocalDate());
+        invoice.setDueDate(createdAt.toLocalDate().plusDays(30));
+        invoice.setSubtotal(new BigDecimal("300.00"));
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(new BigDecimal("300.00"));
+        invoice.setOutstandingAmount(new BigDecimal("300.00"));
+        invoice.setCreatedAt(createdAt);
+        for (Product product : products) {
+            InvoiceItem item = new InvoiceItem();
+            item.setInvoice(invoice);
+            item.setProduct(product);
+            item.setQuantity(BigDecimal.ONE);
+            item.setUnitPrice(product.getSellingPrice());
+            item.setTaxRate(BigDecimal.ZERO);
+            item.setTaxAmount(BigDecimal.ZERO);
+            item.setLineTotal(product.getSellingPrice());
+            invoice.getInvoiceItems().add(item);
+        }
+        return invoice;
+    }
+}
@@ -0,0 +1,177 @@
+package com.xeine.services;
+
+import com.xeine.enums.BusinessType;
+import com.xeine.enums.PaymentMethod;
+import com.xeine.models.Company;
+import com.xeine.models.Customer;
+import com.xeine.models.DailyCustomerSales;
+import com.xeine.models.DailyProductSales;
+import com.xeine.models.Invoice;
+import com.xeine.models.InvoiceItem;
+import com.xeine.models.Product;
+import com.xeine.models.RollupWatermark;
+import com.xeine.models.Settlement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every invoice and settlement must reach the rollups exactly once, whatever its createdAt and however often it is
+ * saved again.
+ */
+@DataJpaTest
+@Import(SalesRollupService.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 1);
+
+    @MockitoBean
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Company company;
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        company = new Company();
+        company.setCompanyName("Acme");
+        company.setEmail("acme@example.com");
+        company.setMobile("9000000000");
+        entityManager.persist(company);
+
+        customer = new Customer();
+        customer.setCustomerName("Globex");
+        customer.setCompany(company);
+        entityManager.persist(customer);
+
+        product = new Product();
+        product.setProductName("Steel");
+        product.setCostPrice(new BigDecimal("50.00"));
+        product.setSellingPrice(new BigDecimal("100.00"));
+        product.setProductType(BusinessType.PRODUCT);
+        product.setStockQuantity(10);
+        product.setCompany(company);
+        entityManager.persist(product);
+    }
+
+    @Test
+    void rowsThatShowUpLateWithAnOldCreatedAtAreStillApplied() {
+        Invoice first = invoice("INV/26-27/00001", LocalDateTime.of(2026, 5, 1, 12, 0));
+        flushAndClear();
+        salesRollupService.refreshRollups();
+
+        // Built before the first run but committed after it
+        invoice("INV/26-27/00002", LocalDateTime.of(2026, 5, 1, 11, 0));
+        settlement(first, new BigDecimal("40.00"), LocalDateTime.of(2026, 5, 1, 11, 30));
+        flushAndClear();
+        salesRollupService.refreshRollups();
+        salesRollupService.refreshRollups();
+
+        assertThat(productSales().getQuantity()).isEqualByComparingTo("2");
+        assertThat(productSales().getRevenue()).isEqualByComparingTo("200.00");
+        assertThat(customerSales().getInvoiceCount()).isEqualTo(2);
+        assertThat(customerSales().getPaidAmount()).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void savingACopyLoadedBeforeTheRunDoesNotApplyItAgain() {
+        Invoice invoice = invoice("INV/26-27/00001", LocalDateTime.of(2026, 5, 1, 12, 0));
+        flushAndClear();
+        Invoice copy = entityManager.find(Invoice.class, invoice.getId());
+        entityManager.detach(copy);
+
+        salesRollupService.refreshRollups();
+        copy.setNotes("Deliver before noon");
+        entityManager.merge(copy);
+        flushAndClear();
+        salesRollupService.refreshRollups();
+
+        assertThat(entityManager.find(Invoice.class, invoice.getId()).isRolledUp()).isTrue();
+        assertThat(customerSales().getInvoiceCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rowsUpToAnOldTimeWatermarkAreTakenAsApplied() {
+        invoice("INV/26-27/00001", LocalDateTime.of(2026, 5, 1, 10, 0));
+        invoice("INV/26-27/00002", LocalDateTime.of(2026, 5, 1, 12, 0));
+        RollupWatermark legacy = new RollupWatermark();
+        legacy.setName("sales_rollup_invoices");
+        legacy.setLastCreatedAt(LocalDateTime.of(2026, 5, 1, 11, 0));
+        entityManager.persist(legacy);
+        flushAndClear();
+
+        salesRollupService.refreshRollups();
+
+        assertThat(customerSales().getInvoiceCount()).isEqualTo(1);
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT w.name FROM RollupWatermark w ORDER BY w.name", String.class).getResultList())
+                .containsExactly("sales_rollup_invoice_rows", "sales_rollup_settlement_rows");
+    }
+
+    private Invoice invoice(String number, LocalDateTime createdAt) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber(number);
+        invoice.setCompany(company);
+        invoice.setCustomer(customer);
+        invoice.setInvoiceDate(DAY);
+        invoice.setDueDate(DAY.plusDays(30));
+        invoice.setSubtotal(new BigDecimal("100.00"));
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(new BigDecimal("100.00"));
+        invoice.setOutstandingAmount(new BigDecimal("100.00"));
+        invoice.setCreatedAt(createdAt);
+        InvoiceItem item = new InvoiceItem();
+        item.setInvoice(invoice);
+        item.setProduct(product);
+        item.setQuantity(BigDecimal.ONE);
+        item.setUnitPrice(product.getSellingPrice());
+        item.setTaxRate(BigDecimal.ZERO);
+        item.setTaxAmount(BigDecimal.ZERO);
+        item.setLineTotal(product.getSellingPrice());
+        invoice.getInvoiceItems().add(item);
+        entityManager.persist(invoice);
+        return invoice;
+    }
+
+    private void settlement(Invoice invoice, BigDecimal amount, LocalDateTime createdAt) {
+        Settlement settlement = new Settlement();
+        settlement.setInvoice(entityManager.find(Invoice.class, invoice.getId()));
+        settlement.setSettlementDate(DAY);
+        settlement.setAmountPaid(amount);
+        settlement.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+        settlement.setCreatedAt(createdAt);
+        entityManager.persist(settlement);
+    }
+
+    private DailyProductSales productSales() {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT d FROM DailyProductSales d", DailyProductSales.class).getSingleResult();
+    }
+
+    private DailyCustomerSales customerSales() {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT d FROM DailyCustomerSales d", DailyCustomerSales.class).getSingleResult();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
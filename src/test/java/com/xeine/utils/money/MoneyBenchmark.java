@@ -0,0 +1,105 @@
+package com.xeine.utils.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item and invoice totals for a 50-line invoice, as InvoiceService computes them when an invoice is created: each
+ * line's tax amount and line total, then subtotal, tax, discount and total. Both variants read BigDecimal inputs and
+ * produce every stored amount as BigDecimal, so {@code money} includes the conversions at the entity boundary.
+ * {@code bigDecimal} is the arithmetic the services used before Money.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.xeine.utils.money.MoneyBenchmark
+ * or from the IDE, adding {@code -prof gc} to the JMH arguments for allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int LINES = 50;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private BigDecimal[] prices;
+    private BigDecimal[] quantities;
+    private BigDecimal[] taxRates;
+    private BigDecimal discountPercentage;
+    // Per-line amounts the services store on the items
+    private BigDecimal[] taxAmounts;
+    private BigDecimal[] lineTotals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        prices = new BigDecimal[LINES];
+        quantities = new BigDecimal[LINES];
+        taxRates = new BigDecimal[LINES];
+        for (int i = 0; i < LINES; i++) {
+            prices[i] = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            quantities[i] = BigDecimal.valueOf(1 + random.nextInt(10_000), 2);
+            taxRates[i] = BigDecimal.valueOf(new int[]{0, 500, 1200, 1800, 2800}[random.nextInt(5)], 2);
+        }
+        discountPercentage = new BigDecimal("7.50");
+        taxAmounts = new BigDecimal[LINES];
+        lineTotals = new BigDecimal[LINES];
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        for (int i = 0; i < LINES; i++) {
+            BigDecimal lineSubtotal = quantities[i].multiply(prices[i]);
+            taxAmounts[i] = lineSubtotal.multiply(taxRates[i]).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            lineTotals[i] = lineSubtotal.add(taxAmounts[i]);
+        }
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            subtotal = subtotal.add(quantities[i].multiply(prices[i]));
+            totalTax = totalTax.add(taxAmounts[i]);
+        }
+        BigDecimal totalBeforeDiscount = subtotal.add(totalTax);
+        BigDecimal discount = totalBeforeDiscount.multiply(discountPercentage).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+        return totalBeforeDiscount.subtract(discount);
+    }
+
+    @Benchmark
+    public BigDecimal money() {
+        for (int i = 0; i < LINES; i++) {
+            Money lineSubtotal = Money.of(prices[i]).times(Rate.of(quantities[i]));
+            Money tax = lineSubtotal.percent(Rate.of(taxRates[i]));
+            taxAmounts[i] = tax.toBigDecimal();
+            lineTotals[i] = lineSubtotal.plus(tax).toBigDecimal();
+        }
+        Money subtotal = Money.ZERO;
+        Money totalTax = Money.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            subtotal = subtotal.plus(Money.of(prices[i]).times(Rate.of(quantities[i])));
+            totalTax = totalTax.plus(Money.of(taxAmounts[i]));
+        }
+        Money totalBeforeDiscount = subtotal.plus(totalTax);
+        Money discount = totalBeforeDiscount.percent(Rate.of(discountPercentage));
+        return totalBeforeDiscount.minus(discount).toBigDecimal();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
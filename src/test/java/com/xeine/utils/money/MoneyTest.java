@@ -0,0 +1,128 @@
+package com.xeine.utils.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Test
+    void lineCalculationMatchesBigDecimalHalfUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+            BigDecimal taxRate = BigDecimal.valueOf(random.nextInt(5_000), 2);
+
+            // The formulas InvoiceService and QuotationService used before Money
+            BigDecimal expectedSubtotal = quantity.multiply(price);
+            BigDecimal expectedTax = expectedSubtotal.multiply(taxRate).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            BigDecimal expectedTotal = expectedSubtotal.add(expectedTax);
+
+            Money subtotal = Money.of(price).times(Rate.of(quantity));
+            Money tax = subtotal.percent(Rate.of(taxRate));
+
+            assertThat(subtotal.toBigDecimal()).isEqualByComparingTo(expectedSubtotal);
+            assertThat(tax.toBigDecimal()).isEqualByComparingTo(expectedTax);
+            assertThat(subtotal.plus(tax).toBigDecimal()).isEqualByComparingTo(expectedTotal);
+        }
+    }
+
+    @Test
+    void discountMatchesBigDecimalHalfUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal total = BigDecimal.valueOf(random.nextLong(1_000_000_000_000L), 4);
+            BigDecimal percentage = BigDecimal.valueOf(random.nextInt(10_001), 2);
+
+            BigDecimal expected = total.multiply(percentage).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+
+            assertThat(Money.of(total).percent(Rate.of(percentage)).toBigDecimal()).isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    void percentRoundsHalfUpAtTheCent() {
+        // 18% of 0.25 is 0.045, 18% of 0.24 is 0.0432
+        assertThat(Money.of(new BigDecimal("0.25")).percent(Rate.of(new BigDecimal("18"))).toBigDecimal())
+                .isEqualByComparingTo("0.05");
+        assertThat(Money.of(new BigDecimal("0.24")).percent(Rate.of(new BigDecimal("18"))).toBigDecimal())
+                .isEqualByComparingTo("0.04");
+        // 12.5% of 0.04 is exactly half a cent
+        assertThat(Money.of(new BigDecimal("0.04")).percent(Rate.of(new BigDecimal("12.5"))).toBigDecimal())
+                .isEqualByComparingTo("0.01");
+    }
+
+    @Test
+    void negativeAmountsRoundHalfAwayFromZero() {
+        BigDecimal amount = new BigDecimal("-0.25");
+        BigDecimal expected = amount.multiply(new BigDecimal("18")).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+
+        assertThat(Money.of(amount).percent(Rate.of(new BigDecimal("18"))).toBigDecimal())
+                .isEqualByComparingTo(expected)
+                .isEqualByComparingTo("-0.05");
+        assertThat(Money.of(new BigDecimal("10.00")).minus(Money.of(new BigDecimal("12.50"))).toBigDecimal())
+                .isEqualByComparingTo("-2.50");
+        assertThat(Money.divideHalfUp(-15, 10)).isEqualTo(-2);
+        assertThat(Money.divideHalfUp(-14, 10)).isEqualTo(-1);
+        assertThat(Money.divideHalfUp(15, 10)).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAmountsBeyondFourDecimalPlaces() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.00001")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(Money.of(new BigDecimal("1.2345")).units()).isEqualTo(12_345L);
+        assertThat(Money.of(new BigDecimal("1.23450000")).units()).isEqualTo(12_345L);
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        Money huge = Money.ofUnits(Long.MAX_VALUE - 1);
+
+        assertThatThrownBy(() -> huge.plus(Money.ofUnits(2))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> huge.times(Rate.of(new BigDecimal("2")))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void nullAndZeroAreZero() {
+        assertThat(Money.of(null)).isEqualTo(Money.ZERO);
+        assertThat(Money.of(new BigDecimal("0.0000"))).isEqualTo(Money.ZERO);
+        assertThat(Money.of(new BigDecimal("0E+3")).isZero()).isTrue();
+        assertThat(Money.ZERO.toBigDecimal()).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void convertsEveryScaleExactly() {
+        assertThat(Money.of(new BigDecimal("12")).units()).isEqualTo(120_000L);
+        assertThat(Money.of(new BigDecimal("-12.3")).units()).isEqualTo(-123_000L);
+        assertThat(Money.of(new BigDecimal("12.34")).units()).isEqualTo(123_400L);
+        assertThat(Money.of(new BigDecimal("1.2E+3")).units()).isEqualTo(12_000_000L);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1000000000000000")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("100000000000000000000.00")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toBigDecimalKeepsCentsAndDropsTrailingZerosBeyond() {
+        assertThat(Money.of(new BigDecimal("25")).toBigDecimal()).isEqualTo(new BigDecimal("25.00"));
+        assertThat(Money.of(new BigDecimal("1.2350")).toBigDecimal()).isEqualTo(new BigDecimal("1.235"));
+        assertThat(Money.of(new BigDecimal("1.2345")).toBigDecimal()).isEqualTo(new BigDecimal("1.2345"));
+        assertThat(Money.of(new BigDecimal("-3.10")).toString()).isEqualTo("-3.10");
+    }
+
+    @Test
+    void equalityIgnoresScale() {
+        assertThat(Money.of(new BigDecimal("2.5"))).isEqualTo(Money.of(new BigDecimal("2.5000")));
+        assertThat(Money.of(new BigDecimal("2.5")).hashCode()).isEqualTo(Money.of(new BigDecimal("2.50")).hashCode());
+        assertThat(Money.of(new BigDecimal("2.5"))).isLessThan(Money.of(new BigDecimal("2.51")));
+    }
+}
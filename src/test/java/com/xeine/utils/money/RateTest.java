@@ -0,0 +1,40 @@
+package com.xeine.utils.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateTest {
+
+    @Test
+    void holdsTwoDecimalPlacesExactly() {
+        assertThat(Rate.of(new BigDecimal("18")).hundredths()).isEqualTo(1_800L);
+        assertThat(Rate.of(new BigDecimal("12.5")).hundredths()).isEqualTo(1_250L);
+        assertThat(Rate.of(new BigDecimal("0.01")).toBigDecimal()).isEqualTo(new BigDecimal("0.01"));
+    }
+
+    @Test
+    void rejectsValuesBeyondTwoDecimalPlaces() {
+        assertThatThrownBy(() -> Rate.of(new BigDecimal("12.345")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(Rate.of(new BigDecimal("12.3400")).hundredths()).isEqualTo(1_234L);
+        assertThat(Rate.of(new BigDecimal("1E+2")).hundredths()).isEqualTo(10_000L);
+    }
+
+    @Test
+    void nullZeroAndNegativeAreNotPositive() {
+        assertThat(Rate.of(null)).isEqualTo(Rate.ZERO);
+        assertThat(Rate.of(BigDecimal.ZERO).isPositive()).isFalse();
+        assertThat(Rate.of(new BigDecimal("-5")).isPositive()).isFalse();
+        assertThat(Rate.of(new BigDecimal("0.01")).isPositive()).isTrue();
+    }
+
+    @Test
+    void equalityIgnoresScale() {
+        assertThat(Rate.of(new BigDecimal("5"))).isEqualTo(Rate.of(new BigDecimal("5.00")));
+        assertThat(Rate.of(new BigDecimal("5")).toString()).isEqualTo("5.00");
+    }
+}
@@ -0,0 +1,67 @@
+package com.xeine.utils.pagination;
+
+import com.xeine.exception.BusinessValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncoding() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2026, 10, 17, 9, 30, 15, 123_456_000), 42L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsWholeSecondsAndMidnight() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2026, 1, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+        assertThat(KeysetCursor.decode("   ")).isNull();
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        String encoded = new KeysetCursor(LocalDateTime.of(2026, 10, 17, 9, 30), 42L).encode();
+
+        assertInvalid("not a cursor!");
+        assertInvalid(encoded.substring(0, encoded.length() - 4));
+        assertInvalid(encode("1|2026-10-17T09:30|forty-two"));
+        assertInvalid(encode("1|yesterday|42"));
+        assertInvalid(encode("1|2026-10-17T09:30|42|7"));
+        assertInvalid(encode("1|2026-10-17T09:30"));
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherVersionOrFormat() {
+        assertInvalid(encode("2|2026-10-17T09:30|42"));
+        assertInvalid(encode("2026-10-17T09:30|42"));
+        assertInvalid(Base64.getEncoder().encodeToString("1|2026-10-17T09:30|42?".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
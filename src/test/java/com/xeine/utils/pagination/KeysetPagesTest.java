@@ -0,0 +1,118 @@
+package com.xeine.utils.pagination;
+
+import com.xeine.dto.response.CursorPageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPagesTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private record Row(long id) {
+        KeysetCursor key() {
+            return new KeysetCursor(BASE.minusMinutes(id), id);
+        }
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertThat(KeysetPages.pageSize(null)).isEqualTo(KeysetPages.DEFAULT_PAGE_SIZE);
+        assertThat(KeysetPages.pageSize(0)).isEqualTo(1);
+        assertThat(KeysetPages.pageSize(-5)).isEqualTo(1);
+        assertThat(KeysetPages.pageSize(1)).isEqualTo(1);
+        assertThat(KeysetPages.pageSize(50)).isEqualTo(50);
+        assertThat(KeysetPages.pageSize(KeysetPages.MAX_PAGE_SIZE)).isEqualTo(KeysetPages.MAX_PAGE_SIZE);
+        assertThat(KeysetPages.pageSize(10_000)).isEqualTo(KeysetPages.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void looksAheadOneRow() {
+        assertThat(KeysetPages.lookAhead(20).getPageSize()).isEqualTo(21);
+        assertThat(KeysetPages.lookAhead(20).getPageNumber()).isZero();
+    }
+
+    @Test
+    void fullLookAheadMeansAnotherPageAfterTheLastRowShown() {
+        CursorPageDTO<Long> page = page(rows(1, 4), 3);
+
+        assertThat(page.getItems()).containsExactly(1L, 2L, 3L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new Row(3).key());
+    }
+
+    @Test
+    void exactlyOnePageHasNoNextCursor() {
+        CursorPageDTO<Long> page = page(rows(1, 3), 3);
+
+        assertThat(page.getItems()).containsExactly(1L, 2L, 3L);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shortAndEmptyPagesHaveNoNextCursor() {
+        assertThat(page(rows(1, 2), 3).getNextCursor()).isNull();
+
+        CursorPageDTO<Long> empty = page(List.of(), 3);
+        assertThat(empty.getItems()).isEmpty();
+        assertThat(empty.isHasMore()).isFalse();
+        assertThat(empty.getNextCursor()).isNull();
+    }
+
+    @Test
+    void countsTotalOnlyWhenRequested() {
+        AtomicInteger counts = new AtomicInteger();
+
+        CursorPageDTO<Long> withoutTotal = KeysetPages.page(rows(1, 2), 3, Row::key, Row::id, false,
+                () -> counts.incrementAndGet());
+        CursorPageDTO<Long> withTotal = KeysetPages.page(rows(1, 2), 3, Row::key, Row::id, true, () -> 57L);
+
+        assertThat(withoutTotal.getTotalCount()).isNull();
+        assertThat(counts).hasValue(0);
+        assertThat(withTotal.getTotalCount()).isEqualTo(57L);
+    }
+
+    @Test
+    void pageByIdsLoadsOnlyThePageInIdOrder() {
+        List<List<Long>> loaded = new ArrayList<>();
+        Function<List<Long>, List<Row>> loader = ids -> {
+            loaded.add(List.copyOf(ids));
+            // Loaded in a different order than the ID page, with one row deleted in between
+            return ids.stream().filter(id -> id != 7L).sorted().map(Row::new).toList();
+        };
+
+        CursorPageDTO<Long> page = KeysetPages.pageByIds(List.of(9L, 7L, 5L, 3L), 3, loader, Row::id, Row::key,
+                Row::id, false, () -> 0L);
+
+        assertThat(loaded).containsExactly(List.of(9L, 7L, 5L));
+        assertThat(page.getItems()).containsExactly(9L, 5L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new Row(5).key());
+    }
+
+    @Test
+    void pageByIdsSkipsTheLoaderForAnEmptyPage() {
+        CursorPageDTO<Long> page = KeysetPages.pageByIds(List.of(), 3, ids -> {
+            throw new AssertionError("loader called");
+        }, Row::id, Row::key, Row::id, false, () -> 0L);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private static CursorPageDTO<Long> page(List<Row> rows, int pageSize) {
+        return KeysetPages.page(rows, pageSize, Row::key, Row::id, false, () -> 0L);
+    }
+
+    private static List<Row> rows(long from, long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(Row::new).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.xeine.utils.pdf;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfFontsTest {
+
+    private static PdfFonts fonts;
+
+    @BeforeAll
+    static void loadFonts() throws IOException {
+        fonts = PdfFonts.load(new ClassPathResource("fonts/DejaVuSans.ttf").getContentAsByteArray(),
+                new ClassPathResource("fonts/DejaVuSans-Bold.ttf").getContentAsByteArray());
+    }
+
+    @Test
+    void readsTheShippedFonts() {
+        assertThat(fonts.regular().getName()).isEqualTo("DejaVuSans");
+        assertThat(fonts.bold().getName()).isEqualTo("DejaVuSans-Bold");
+    }
+
+    @Test
+    void replacesCharactersTheFontsDoNotCover() {
+        // Devanagari is not in DejaVu Sans
+        assertThat(fonts.prepare("Total कुल\tdue\n")).isEqualTo("Total ??? due\n");
+        String covered = "Šťastný ₹ 1,234.50 Ελλάδα Киев";
+        assertThat(fonts.prepare(covered)).isSameAs(covered);
+        assertThat(fonts.prepare(null)).isEmpty();
+    }
+
+    @Test
+    void measuresWithTheFontAdvances() {
+        PdfFont font = fonts.regular();
+
+        // DejaVu Sans has 2048 units per em and a 1995 unit wide "m"
+        assertThat(font.width("mm", 10)).isEqualTo(2 * 1995 * 10 / 2048f);
+        assertThat(fonts.bold().width("mm", 10)).isGreaterThan(font.width("mm", 10));
+        assertThat(font.width("a\nb", 10)).isEqualTo(font.width("a b", 10));
+    }
+
+    @Test
+    void truncatesAndWrapsToAWidth() {
+        PdfFont font = fonts.regular();
+        String name = "Stainless steel fastener, grade 4";
+        float width = font.width("Stainless steel", 9);
+
+        assertThat(font.truncate(name, 9, 1000)).isSameAs(name);
+        assertThat(font.truncate(name, 9, width)).endsWith("...");
+        assertThat(font.width(font.truncate(name, 9, width), 9)).isLessThanOrEqualTo(width);
+        assertThat(font.wrap(name + "\nPune", 9, width))
+                .containsExactly("Stainless steel", "fastener,", "grade 4", "Pune");
+    }
+
+    @Test
+    void rejectsFilesThatAreNotTrueType() {
+        assertThatThrownBy(() -> PdfFont.parse(new byte[]{1, 2, 3, 4}))
+                .isInstanceOf(IOException.class);
+    }
+}
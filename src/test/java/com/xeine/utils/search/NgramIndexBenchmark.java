@@ -0,0 +1,102 @@
+package com.xeine.utils.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches of one company's index of {@code documents} invoices with number, customer name and notes, as
+ * DocumentSearchService builds it, for a page of 20: an invoice number, a customer name word, a two-letter prefix
+ * that matches most documents, and two terms. {@code fallback} builds and searches an index of the newest 2000
+ * documents, which is what a search costs while the company's index is still loading.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.xeine.utils.search.NgramIndexBenchmark
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NgramIndexBenchmark {
+
+    private static final int PAGE = 20;
+    private static final int FALLBACK_DOCUMENTS = 2000;
+    private static final String[] NAMES = {"Acme", "Globex", "Initech", "Umbrella", "Stark", "Wayne", "Wonka",
+            "Tyrell", "Cyberdyne", "Soylent", "Hooli", "Vandelay", "Massive", "Dynamic", "Oceanic", "Pied"};
+    private static final String[] KINDS = {"Traders", "Industries", "Enterprises", "Logistics", "Exports",
+            "Distributors", "Hardware", "Textiles"};
+    private static final String[] NOTES = {"Deliver before noon", "Payment by bank transfer", "Urgent",
+            "Partial shipment", "Against purchase order", "Handle with care", null, null};
+
+    @Param({"100000"})
+    private int documents;
+
+    private NgramIndex index;
+    private String[][] newest;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        index = new NgramIndex(3);
+        newest = new String[FALLBACK_DOCUMENTS][];
+        for (int id = 1; id <= documents; id++) {
+            String[] fields = {
+                    String.format("INV-2026-%06d", id),
+                    NAMES[random.nextInt(NAMES.length)] + " " + KINDS[random.nextInt(KINDS.length)] + " "
+                            + (random.nextInt(900) + 100),
+                    NOTES[random.nextInt(NOTES.length)]};
+            index.put(id, fields);
+            if (id > documents - FALLBACK_DOCUMENTS) {
+                newest[id - (documents - FALLBACK_DOCUMENTS) - 1] = fields;
+            }
+        }
+    }
+
+    @Benchmark
+    public NgramIndex.Hits number() {
+        return index.search("INV-2026-041337", PAGE);
+    }
+
+    @Benchmark
+    public NgramIndex.Hits customer() {
+        return index.search("umbrella", PAGE);
+    }
+
+    @Benchmark
+    public NgramIndex.Hits shortPrefix() {
+        return index.search("in", PAGE);
+    }
+
+    @Benchmark
+    public NgramIndex.Hits twoTerms() {
+        return index.search("stark exports", PAGE);
+    }
+
+    @Benchmark
+    public NgramIndex.Hits fallback() {
+        NgramIndex recent = new NgramIndex(3);
+        for (int i = 0; i < newest.length; i++) {
+            recent.put(documents - FALLBACK_DOCUMENTS + 1 + i, newest[i]);
+        }
+        return recent.search("umbrella", PAGE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NgramIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,182 @@
+package com.xeine.utils.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NgramIndexTest {
+
+    @Test
+    void matchesTermsInsideWordsOfAnyField() {
+        NgramIndex index = new NgramIndex(3);
+        index.put(1, "INV-2026-0001", "Acme Traders", null);
+        index.put(2, "INV-2026-0002", "Globex", "Delivered to Acme warehouse");
+        index.put(3, "INV-2026-0003", "Initech", "Paid");
+
+        assertThat(ids(index.search("cme", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("ACME", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("0003", 10))).containsExactly(3L);
+        assertThat(index.search("umbrella", 10).total()).isZero();
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        NgramIndex index = new NgramIndex(3);
+        index.put(1, "INV-1", "Acme Traders", "Steel");
+        index.put(2, "INV-2", "Acme Traders", "Copper");
+
+        assertThat(ids(index.search("acme copper", 10))).containsExactly(2L);
+        assertThat(index.search("acme brass", 10).total()).isZero();
+    }
+
+    @Test
+    void shortTermsOnlyMatchWordStarts() {
+        NgramIndex index = new NgramIndex(2);
+        index.put(1, "A1", "Acme");
+        index.put(2, "A2", "Pacific");
+
+        assertThat(ids(index.search("ac", 10))).containsExactly(1L);
+        // Single characters are not terms
+        assertThat(NgramIndex.isSearchable("a b")).isFalse();
+        assertThat(NgramIndex.isSearchable("a bc")).isTrue();
+    }
+
+    @Test
+    void candidatesWithAllTrigramsButNotTheTermAreDropped() {
+        NgramIndex index = new NgramIndex(1);
+        // "bcabc" has the trigrams abc, bca and cab of "abcab" but does not contain it
+        index.put(1, "bcabc");
+        index.put(2, "xabcabx");
+
+        NgramIndex.Hits hits = index.search("abcab", 10);
+
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(hits.docIds()).containsExactly(2L);
+    }
+
+    @Test
+    void ranksByFieldWeightThenWordPrefixThenNewest() {
+        NgramIndex index = new NgramIndex(3);
+        index.put(1, "X-1", "Someone", "about steel");
+        index.put(2, "X-2", "Steelworks", null);
+        index.put(3, "X-3", "Stainless steel", null);
+        index.put(4, "X-4", "Mild-steel", null);
+        index.put(5, "X-5", "Nonsteel", null);
+        index.put(6, "STEEL-6", "Someone", null);
+
+        assertThat(index.search("steel", 10).docIds()).containsExactly(6L, 4L, 3L, 2L, 5L, 1L);
+    }
+
+    @Test
+    void scoresAddUpOverTerms() {
+        NgramIndex index = new NgramIndex(2);
+        index.put(1, "Acme", "Steel");
+        index.put(2, "Acme steel", null);
+
+        // Both terms in the first field beat one in each
+        assertThat(index.search("acme steel", 10).docIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void limitKeepsTheBestAndTotalCountsAll() {
+        NgramIndex index = new NgramIndex(1);
+        for (long id = 1; id <= 50; id++) {
+            index.put(id, id % 10 == 0 ? "order" : "reorder");
+        }
+
+        NgramIndex.Hits hits = index.search("order", 3);
+
+        assertThat(hits.total()).isEqualTo(50);
+        assertThat(hits.docIds()).containsExactly(50L, 40L, 30L);
+        assertThat(index.search("order", 0).docIds()).isEmpty();
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsLeavingDeadSlots() {
+        NgramIndex index = new NgramIndex(2);
+        index.put(1, "INV-1", "Acme");
+        index.put(2, "INV-2", "Globex");
+        long postings = index.postingCount();
+
+        index.put(1, "INV-1", "Initech");
+        index.remove(2);
+        index.remove(99);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.deadSlots()).isEqualTo(2);
+        assertThat(index.postingCount()).isGreaterThan(postings);
+        assertThat(index.search("acme", 10).total()).isZero();
+        assertThat(index.search("globex", 10).total()).isZero();
+        assertThat(ids(index.search("initech", 10))).containsExactly(1L);
+        assertThat(ids(index.search("inv", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void roundTripsThroughItsFileFormatWithoutDeadSlots() throws IOException {
+        NgramIndex index = new NgramIndex(3);
+        for (long id = 1; id <= 2000; id++) {
+            index.put(id, "INV-" + id, "Customer " + (id % 37), id % 5 == 0 ? "urgent delivery" : null);
+        }
+        index.put(7, "INV-7", "Renamed customer", null);
+        index.remove(8);
+        index.put(2001, "bcabc", null, null);
+
+        NgramIndex loaded = read(write(index));
+
+        assertThat(loaded.size()).isEqualTo(index.size());
+        assertThat(loaded.deadSlots()).isZero();
+        assertThat(loaded.postingCount()).isLessThan(index.postingCount());
+        for (String query : new String[]{"urgent", "customer 12", "inv 19", "renamed", "inv-8", "cu", "abcab"}) {
+            NgramIndex.Hits expected = index.search(query, 25);
+            NgramIndex.Hits actual = loaded.search(query, 25);
+            assertThat(actual.total()).as(query).isEqualTo(expected.total());
+            assertThat(actual.docIds()).as(query).containsExactly(expected.docIds());
+        }
+
+        // A loaded index takes further writes like the original
+        loaded.put(2002, "INV-2002", "Acme", null);
+        loaded.remove(7);
+        assertThat(ids(loaded.search("acme", 10))).containsExactly(2002L);
+        assertThat(loaded.search("renamed", 10).total()).isZero();
+    }
+
+    @Test
+    void rejectsFilesOfAnotherFormat() {
+        byte[] file = {0, 0, 0, 1, 0, 0, 0, 3};
+
+        assertThatThrownBy(() -> read(file)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void rejectsUnsupportedFieldCounts() {
+        assertThatThrownBy(() -> new NgramIndex(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new NgramIndex(9)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Long[] ids(NgramIndex.Hits hits) {
+        Long[] ids = new Long[hits.docIds().length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = hits.docIds()[i];
+        }
+        return ids;
+    }
+
+    private static byte[] write(NgramIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static NgramIndex read(byte[] file) throws IOException {
+        return NgramIndex.readFrom(new DataInputStream(new ByteArrayInputStream(file)));
+    }
+}